@@ -0,0 +1,90 @@
+package com.takeda.benchmarks;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.sessions.EditSession;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.util.List;
+
+/**
+ * Starts the local Bukkit stand-in (MockBukkit: server, registries, item meta and inventories) once per benchmark
+ * JVM, loads T-Edit into it and provides an operator player and synthetic items to benchmark against.
+ * Benchmarks run single-threaded on the thread that started the stand-in, which is its main thread.
+ */
+public final class BenchmarkServer {
+
+    private BenchmarkServer() {} // Static class
+
+    private static ServerMock server;
+    private static TEditPlugin plugin;
+    private static PlayerMock player;
+
+    @NotNull
+    public static synchronized TEditPlugin plugin() {
+        if (plugin == null) {
+            server = MockBukkit.mock();
+            plugin = MockBukkit.load(TEditPlugin.class);
+            player = server.addPlayer("Benchmark");
+            player.setOp(true); // Every T-Edit permission defaults to op
+        }
+        return plugin;
+    }
+
+    @NotNull
+    public static ServerMock server() {
+        plugin();
+        return server;
+    }
+
+    @NotNull
+    public static Player player() {
+        plugin();
+        return player;
+    }
+
+    @NotNull
+    public static SettingsManager settings() {
+        return plugin().getSettingsManager();
+    }
+
+    /** A named diamond sword with two lore lines, Sharpness III and Unbreaking II. */
+    @NotNull
+    public static ItemStack createSword() {
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+        ItemMeta meta = item.getItemMeta();
+        meta.displayName(settings().miniMessage().deserialize("<gradient:#AA00FF:#DD55FF>Benchmark Blade"));
+        meta.lore(List.of(Component.text("Synthetic item for benchmarks"), Component.text("Second lore line")));
+        meta.addEnchant(Enchantment.SHARPNESS, 3, true);
+        meta.addEnchant(Enchantment.UNBREAKING, 2, true);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /** A session over {@code item} with a GUI inventory that is never opened. */
+    @NotNull
+    public static EditSession createSession(@NotNull ItemStack item) {
+        SettingsManager settings = settings();
+        return new EditSession(player(), item.clone(), 0, Bukkit.createInventory(null, settings.getGuiSize(), settings.getGuiTitleComponent()));
+    }
+
+    /** Fires a click on {@code rawSlot} of the player's open view through the plugin manager, as the server would. */
+    public static void click(@NotNull PlayerMock player, int rawSlot, @NotNull ClickType type) {
+        InventoryClickEvent event = new InventoryClickEvent(player.getOpenInventory(), InventoryType.SlotType.CONTAINER, rawSlot, type, InventoryAction.PICKUP_ALL);
+        server().getPluginManager().callEvent(event);
+    }
+}
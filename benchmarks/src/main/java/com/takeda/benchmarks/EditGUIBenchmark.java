@@ -0,0 +1,55 @@
+package com.takeda.benchmarks;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.gui.EditGUI;
+import com.takeda.sessions.EditSession;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** GUI rendering: one enchantment book, and a full page of books into a session inventory that is never opened. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EditGUIBenchmark {
+
+    private TEditPlugin plugin;
+    private Player player;
+    private SettingsManager settings;
+    private EditSession session;
+
+    @Setup
+    public void setup() {
+        plugin = BenchmarkServer.plugin();
+        player = BenchmarkServer.player();
+        settings = BenchmarkServer.settings();
+        session = BenchmarkServer.createSession(BenchmarkServer.createSword());
+        EditGUI.populateBaseLayout(session, settings);
+    }
+
+    @Benchmark
+    public ItemStack createEnchantmentBook() {
+        return EditGUI.createEnchantmentBook(Enchantment.SHARPNESS, session, settings, plugin, player);
+    }
+
+    @Benchmark
+    public void populateEnchantments() {
+        EditGUI.populateEnchantments(session, settings);
+    }
+}
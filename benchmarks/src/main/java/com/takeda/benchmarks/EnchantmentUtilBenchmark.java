@@ -0,0 +1,60 @@
+package com.takeda.benchmarks;
+
+import com.takeda.config.SettingsManager;
+import com.takeda.util.EnchantmentUtil;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Enchantment listing, conflict checks and single-enchantment writes. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnchantmentUtilBenchmark {
+
+    private Player player;
+    private SettingsManager settings;
+    private ItemStack sword;
+    private ItemStack applyTarget;
+    private int level;
+
+    @Setup
+    public void setup() {
+        player = BenchmarkServer.player();
+        settings = BenchmarkServer.settings();
+        sword = BenchmarkServer.createSword();
+        applyTarget = sword.clone();
+    }
+
+    @Benchmark
+    public List<Enchantment> getApplicableEnchantmentsForGui() {
+        return EnchantmentUtil.getApplicableEnchantmentsForGui(sword, player, settings);
+    }
+
+    @Benchmark
+    public boolean conflictsWithExisting() {
+        return EnchantmentUtil.conflictsWithExisting(Enchantment.SMITE, sword); // Conflicts with Sharpness
+    }
+
+    @Benchmark
+    public boolean applyEnchantment() {
+        level = level == 1 ? 2 : 1; // Alternate so every call is a real change and write
+        return EnchantmentUtil.applyEnchantment(applyTarget, Enchantment.SHARPNESS, level, player, settings);
+    }
+}
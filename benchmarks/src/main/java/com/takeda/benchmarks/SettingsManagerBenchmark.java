@@ -0,0 +1,54 @@
+package com.takeda.benchmarks;
+
+import com.takeda.config.SettingsManager;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/** Message rendering, the per-click slot lookup and a full configuration reload. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettingsManagerBenchmark {
+
+    private SettingsManager settings;
+    private int slot;
+
+    @Setup
+    public void setup() {
+        settings = BenchmarkServer.settings();
+    }
+
+    @Benchmark
+    public Component getMessageComponent() {
+        return settings.getMessageComponent("actionbar_enchant_set",
+                Placeholder.unparsed("enchantment", "Sharpness"),
+                Placeholder.parsed("level", "5"));
+    }
+
+    @Benchmark
+    public Optional<SettingsManager.GuiElementConfig> getGuiElementBySlot() {
+        slot = slot == 53 ? 0 : slot + 1; // Walk every slot: hits, misses and enchantment slots
+        return settings.getGuiElementBySlot(slot);
+    }
+
+    @Benchmark
+    public boolean load() {
+        return settings.load();
+    }
+}
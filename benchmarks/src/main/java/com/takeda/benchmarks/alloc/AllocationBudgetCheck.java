@@ -0,0 +1,200 @@
+package com.takeda.benchmarks.alloc;
+
+import com.takeda.benchmarks.BenchmarkServer;
+import com.takeda.config.SettingsManager;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.IntConsumer;
+
+/**
+ * Allocation-budget check for the click and render paths: measures bytes allocated on the calling thread per book
+ * click, page flip and {@code /edit} GUI open on the MockBukkit stand-in and compares them with the checked-in budgets
+ * ({@code allocation-budgets.properties}). Any operation above its budget plus the tolerance fails the run with a
+ * non-zero exit code and a report of what grew, which fails {@code mvn verify} in this module. An operation with no
+ * budget yet is reported with its measured value as a warning and does not fail the run.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.takeda.benchmarks.alloc.AllocationBudgetCheck <budgets file> [--update]}.
+ * {@code --update} writes the measured values as the new budgets instead of checking them.
+ */
+public final class AllocationBudgetCheck {
+
+    private static final int WARMUP_ITERATIONS = 2_000; // Lets the JIT settle; interpreted code allocates differently
+    private static final int MEASURED_ITERATIONS = 5_000;
+    private static final int DEFAULT_TOLERANCE_PERCENT = 10;
+
+    /** One measured operation. {@code body} receives the iteration index; {@code after} runs outside the measurement. */
+    private record Operation(@NotNull String key, @NotNull IntConsumer body, @NotNull IntConsumer after) {}
+
+    private record Result(@NotNull String key, long measured, long budget) {}
+
+    private final ServerMock server = BenchmarkServer.server();
+    private final SettingsManager settings = BenchmarkServer.settings();
+    private final com.sun.management.ThreadMXBean allocationBean;
+
+    private AllocationBudgetCheck() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) || !bean.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM cannot count per-thread allocations");
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        this.allocationBean = bean;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: AllocationBudgetCheck <budgets file> [--update]");
+            System.exit(2);
+        }
+        Path budgetsFile = Path.of(args[0]);
+        boolean update = args.length > 1 && args[1].equals("--update");
+        int failures = new AllocationBudgetCheck().run(budgetsFile, update);
+        System.exit(failures > 0 ? 1 : 0); // MockBukkit leaves non-daemon threads behind
+    }
+
+    private int run(@NotNull Path budgetsFile, boolean update) throws IOException {
+        Properties budgets = new Properties();
+        if (Files.exists(budgetsFile)) {
+            try (Reader reader = Files.newBufferedReader(budgetsFile, StandardCharsets.UTF_8)) {
+                budgets.load(reader);
+            }
+        } else if (!update) {
+            throw new IOException("Budgets file not found: " + budgetsFile.toAbsolutePath());
+        }
+        int tolerance = Integer.parseInt(budgets.getProperty("tolerance_percent", String.valueOf(DEFAULT_TOLERANCE_PERCENT)));
+
+        List<Result> results = new ArrayList<>();
+        for (Operation operation : createOperations()) {
+            long measured = measure(operation);
+            String budget = budgets.getProperty(operation.key());
+            results.add(new Result(operation.key(), measured, budget != null ? Long.parseLong(budget.trim()) : -1));
+        }
+
+        if (update) {
+            for (Result result : results) budgets.setProperty(result.key(), String.valueOf(result.measured()));
+            budgets.setProperty("tolerance_percent", String.valueOf(tolerance));
+            try (Writer writer = Files.newBufferedWriter(budgetsFile, StandardCharsets.UTF_8)) {
+                budgets.store(writer, "Bytes allocated per operation; regenerate with AllocationBudgetCheck --update");
+            }
+            System.out.println("Wrote " + results.size() + " budgets to " + budgetsFile);
+            report(results, tolerance);
+            return 0;
+        }
+        return report(results, tolerance);
+    }
+
+    /** The measured operations, each against its own player and open session. */
+    @NotNull
+    private List<Operation> createOperations() {
+        PlayerMock clicker = player("AllocClick", BenchmarkServer.createSword());
+        server.dispatchCommand(clicker, "edit");
+        int bookSlot = settings.getEnchantmentSlots().get(0);
+
+        // Enchanted books accept every enchantment, so the GUI has several pages to flip between
+        PlayerMock pager = player("AllocPage", new ItemStack(Material.ENCHANTED_BOOK));
+        server.dispatchCommand(pager, "edit");
+        int nextSlot = elementSlot("page_next");
+        int prevSlot = elementSlot("page_prev");
+
+        PlayerMock opener = player("AllocOpen", BenchmarkServer.createSword());
+
+        return List.of(
+                // Level up then down, so every click changes the item and re-renders the book
+                new Operation("book_click", i -> BenchmarkServer.click(clicker, bookSlot, (i & 1) == 0 ? ClickType.LEFT : ClickType.RIGHT),
+                        i -> drain(clicker)),
+                new Operation("page_flip", i -> BenchmarkServer.click(pager, (i & 1) == 0 ? nextSlot : prevSlot, ClickType.LEFT),
+                        i -> drain(pager)),
+                new Operation("gui_open", i -> server.dispatchCommand(opener, "edit"), i -> {
+                    opener.closeInventory();
+                    drain(opener);
+                })
+        );
+    }
+
+    @NotNull
+    private PlayerMock player(@NotNull String name, @NotNull ItemStack item) {
+        PlayerMock player = server.addPlayer(name);
+        player.setOp(true); // Every T-Edit permission defaults to op
+        player.getInventory().setItemInMainHand(item);
+        return player;
+    }
+
+    private int elementSlot(@NotNull String key) {
+        return settings.getGuiElement(key).filter(SettingsManager.GuiElementConfig::enabled).map(SettingsManager.GuiElementConfig::slot)
+                .orElseThrow(() -> new IllegalStateException("GUI element '" + key + "' is disabled in gui.yml"));
+    }
+
+    private static void drain(@NotNull PlayerMock player) {
+        while (player.nextComponentMessage() != null) {
+            // Discard; queued messages would otherwise count as retained, not per-operation, allocation
+        }
+    }
+
+    /** Mean bytes allocated on this thread per call of the operation's body, after warmup. */
+    private long measure(@NotNull Operation operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.body().accept(i);
+            operation.after().accept(i);
+        }
+        long threadId = Thread.currentThread().threadId();
+        long total = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = allocationBean.getThreadAllocatedBytes(threadId);
+            operation.body().accept(i);
+            total += allocationBean.getThreadAllocatedBytes(threadId) - start;
+            operation.after().accept(i);
+        }
+        return total / MEASURED_ITERATIONS;
+    }
+
+    /** Prints the result table and returns the number of operations over budget; missing budgets only warn. */
+    private static int report(@NotNull List<Result> results, int tolerance) {
+        int failures = 0;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-12s %12s %12s %10s  %s%n", "operation", "measured B", "budget B", "change", "status");
+        for (Result result : results) {
+            String change = result.budget() > 0 ? String.format(Locale.ROOT, "%+.1f%%", 100.0 * (result.measured() - result.budget()) / result.budget()) : "-";
+            String status;
+            if (result.budget() < 0) {
+                status = "no budget";
+            } else if (result.measured() > result.budget() * (100 + tolerance) / 100) {
+                status = "OVER BUDGET";
+                failures++;
+            } else {
+                status = "ok";
+            }
+            System.out.printf(Locale.ROOT, "%-12s %12d %12s %10s  %s%n", result.key(), result.measured(),
+                    result.budget() < 0 ? "-" : String.valueOf(result.budget()), change, status);
+        }
+        System.out.println();
+        for (Result result : results) {
+            if (result.budget() < 0) {
+                System.out.println("WARN " + result.key() + ": no budget in the budgets file, not checked; record the measured value with --update");
+            }
+        }
+        if (failures > 0) {
+            for (Result result : results) {
+                if (result.budget() >= 0 && result.measured() > result.budget() * (100 + tolerance) / 100) {
+                    System.out.printf(Locale.ROOT, "FAIL %s grew by %d B/op (%d -> %d, tolerance %d%%)%n",
+                            result.key(), result.measured() - result.budget(), result.budget(), result.measured(), tolerance);
+                }
+            }
+            System.out.println("If the growth is intended, re-baseline with --update and commit allocation-budgets.properties.");
+        }
+        return failures;
+    }
+}
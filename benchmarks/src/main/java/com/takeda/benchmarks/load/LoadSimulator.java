@@ -0,0 +1,257 @@
+package com.takeda.benchmarks.load;
+
+import com.takeda.TEditPlugin;
+import com.takeda.benchmarks.BenchmarkServer;
+import com.takeda.config.SettingsManager;
+import com.takeda.sessions.EditSession;
+import com.takeda.sessions.EditSessionManager;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless load test: N fake players on the MockBukkit stand-in open sessions with {@code /edit} (through
+ * EditCommand), then click according to a {@link Scenario} mix. Clicks are fired as InventoryClickEvents and chat as
+ * player chat, so they reach PlayerListener exactly as on a server. Reports per-tick cost, click latency, slot
+ * updates and messages sent (what the server would turn into packets) and heap retained by open sessions.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.takeda.benchmarks.load.LoadSimulator [scenario name or file]}
+ */
+public final class LoadSimulator {
+
+    private static final int PLAYER_INVENTORY_SLOTS = 36;
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Scenario scenario;
+    private final Random random;
+    private final ServerMock server;
+    private final TEditPlugin plugin;
+    private final SettingsManager settings;
+    private final EditSessionManager sessionManager;
+    private final List<PlayerMock> players = new ArrayList<>();
+    private final Set<UUID> awaitingChat = new HashSet<>();
+
+    private final Samples tickNanos = new Samples();
+    private final Samples clickNanos = new Samples();
+    private long slotUpdates, messages, chats, reopens;
+
+    private LoadSimulator(@NotNull Scenario scenario) {
+        this.scenario = scenario;
+        this.random = new Random(scenario.seed());
+        this.server = BenchmarkServer.server();
+        this.plugin = BenchmarkServer.plugin();
+        this.settings = plugin.getSettingsManager();
+        this.sessionManager = plugin.getSessionManager();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = Scenario.load(args.length > 0 ? args[0] : "default");
+        new LoadSimulator(scenario).run();
+    }
+
+    private void run() {
+        long heapBefore = usedHeapAfterGc();
+        for (int i = 0; i < scenario.players(); i++) {
+            PlayerMock player = server.addPlayer("LoadTest" + i);
+            player.setOp(true); // Every T-Edit permission defaults to op
+            player.getInventory().setItemInMainHand(BenchmarkServer.createSword());
+            players.add(player);
+            open(player);
+        }
+        long heapWithSessions = usedHeapAfterGc();
+        int openSessions = countSessions();
+
+        double clickChance = scenario.clicksPerSecond() / 20.0;
+        int totalTicks = scenario.warmupTicks() + scenario.ticks();
+        for (int tick = 0; tick < totalTicks; tick++) {
+            boolean measured = tick >= scenario.warmupTicks();
+            long tickStart = System.nanoTime();
+            for (PlayerMock player : players) {
+                UUID playerId = player.getUniqueId();
+                if (awaitingChat.remove(playerId)) {
+                    player.chat("<gold>Load test blade " + tick); // Handled by the listener on the next scheduler tick
+                    if (measured) chats++;
+                } else if (!sessionManager.isActive(playerId)) {
+                    open(player); // Session ended (e.g. closed by validation); editors come back
+                    if (measured) reopens++;
+                } else if (random.nextDouble() < clickChance) {
+                    click(player, scenario.pick(random), measured);
+                }
+            }
+            server.getScheduler().performOneTick();
+            if (measured) tickNanos.add(System.nanoTime() - tickStart);
+            drainMessages(measured);
+        }
+
+        sessionManager.closeAllSessions("Load test finished");
+        server.getScheduler().performOneTick();
+        drainMessages(false);
+        long heapAfterClose = usedHeapAfterGc();
+        report(openSessions, heapBefore, heapWithSessions, heapAfterClose);
+    }
+
+    private void open(@NotNull PlayerMock player) {
+        server.dispatchCommand(player, "edit");
+        if (scenario.stagedMode()) {
+            settings.getGuiElement("staged_toggle").ifPresent(config -> BenchmarkServer.click(player, config.slot(), ClickType.LEFT));
+        }
+    }
+
+    private void click(@NotNull PlayerMock player, @NotNull Scenario.Action action, boolean measured) {
+        Inventory top = player.getOpenInventory().getTopInventory();
+        ClickType type = ClickType.LEFT;
+        int rawSlot = switch (action) {
+            case ENCHANT_UP, ENCHANT_DOWN, ENCHANT_MAX, ENCHANT_REMOVE -> {
+                type = switch (action) {
+                    case ENCHANT_DOWN -> ClickType.RIGHT;
+                    case ENCHANT_MAX -> ClickType.SHIFT_LEFT;
+                    case ENCHANT_REMOVE -> ClickType.SHIFT_RIGHT;
+                    default -> ClickType.LEFT;
+                };
+                yield randomBookSlot(top);
+            }
+            case PAGE -> elementSlot(random.nextBoolean() ? "page_next" : "page_prev");
+            case REPAIR -> elementSlot("repair");
+            case COPY_PASTE -> elementSlot(random.nextBoolean() ? "copy" : "paste");
+            case PLAYER_INVENTORY -> top.getSize() + random.nextInt(PLAYER_INVENTORY_SLOTS);
+            case RENAME_CHAT -> elementSlot("rename");
+        };
+        if (rawSlot < 0) return; // Element disabled in gui.yml, or no book on this page
+
+        ItemStack[] before = measured ? top.getContents() : null;
+        long start = System.nanoTime();
+        BenchmarkServer.click(player, rawSlot, type);
+        long elapsed = System.nanoTime() - start;
+        if (measured) {
+            clickNanos.add(elapsed);
+            slotUpdates += countChangedSlots(before, top.getContents());
+        }
+
+        if (action == Scenario.Action.RENAME_CHAT && sessionManager.getSession(player.getUniqueId())
+                .map(session -> session.getCurrentState() == EditSession.EditActionState.WAITING_FOR_RENAME).orElse(false)) {
+            awaitingChat.add(player.getUniqueId());
+        }
+    }
+
+    private int randomBookSlot(@NotNull Inventory top) {
+        List<Integer> slots = settings.getEnchantmentSlots();
+        int start = random.nextInt(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            int slot = slots.get((start + i) % slots.size());
+            ItemStack item = top.getItem(slot);
+            if (item != null && !item.getType().isAir()) return slot;
+        }
+        return -1;
+    }
+
+    private int elementSlot(@NotNull String key) {
+        return settings.getGuiElement(key).filter(SettingsManager.GuiElementConfig::enabled).map(SettingsManager.GuiElementConfig::slot).orElse(-1);
+    }
+
+    /** Slots whose contents differ; each is one slot update the server sends to the viewer. */
+    private static int countChangedSlots(@NotNull ItemStack[] before, @NotNull ItemStack[] after) {
+        int changed = 0;
+        for (int slot = 0; slot < Math.min(before.length, after.length); slot++) {
+            if (!Objects.equals(before[slot], after[slot])) changed++;
+        }
+        return changed;
+    }
+
+    private void drainMessages(boolean measured) {
+        for (PlayerMock player : players) {
+            while (player.nextComponentMessage() != null) {
+                if (measured) messages++;
+            }
+        }
+    }
+
+    private int countSessions() {
+        int count = 0;
+        for (PlayerMock player : players) {
+            if (sessionManager.isActive(player.getUniqueId())) count++;
+        }
+        return count;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private void report(int openSessions, long heapBefore, long heapWithSessions, long heapAfterClose) {
+        long clicks = clickNanos.size();
+        long sessionBytes = Math.max(0, heapWithSessions - heapAfterClose);
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Scenario '%s': %d players, %d ticks (+%d warmup), %.1f clicks/s per player%s%n",
+                scenario.name(), scenario.players(), scenario.ticks(), scenario.warmupTicks(), scenario.clicksPerSecond(), scenario.stagedMode() ? ", staged mode" : "");
+        System.out.printf(Locale.ROOT, "Tick cost:      mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms (%.1f%% of the 50 ms budget at p99)%n",
+                tickNanos.mean() / 1e6, tickNanos.percentile(0.50) / 1e6, tickNanos.percentile(0.99) / 1e6, tickNanos.max() / 1e6,
+                100.0 * tickNanos.percentile(0.99) / TICK_BUDGET_NANOS);
+        System.out.printf(Locale.ROOT, "Click latency:  %d clicks, p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                clicks, clickNanos.percentile(0.50) / 1e3, clickNanos.percentile(0.99) / 1e3, clickNanos.max() / 1e3);
+        System.out.printf(Locale.ROOT, "Sent:           %d slot updates (%.2f per click), %d messages (%.2f per click)%n",
+                slotUpdates, clicks > 0 ? (double) slotUpdates / clicks : 0, messages, clicks > 0 ? (double) messages / clicks : 0);
+        System.out.printf(Locale.ROOT, "Other:          %d chat edits, %d sessions reopened%n", chats, reopens);
+        System.out.printf(Locale.ROOT, "Session heap:   %d KiB retained by %d open sessions (%.1f KiB each); %d KiB for players and items%n",
+                sessionBytes / 1024, openSessions, openSessions > 0 ? sessionBytes / 1024.0 / openSessions : 0, Math.max(0, heapAfterClose - heapBefore) / 1024);
+    }
+
+    /** Growable list of nanosecond samples. */
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long[] sorted;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+            sorted = null;
+        }
+
+        int size() { return size; }
+
+        double mean() {
+            if (size == 0) return 0;
+            long total = 0;
+            for (int i = 0; i < size; i++) total += values[i];
+            return (double) total / size;
+        }
+
+        long percentile(double fraction) {
+            if (size == 0) return 0;
+            if (sorted == null) {
+                sorted = Arrays.copyOf(values, size);
+                Arrays.sort(sorted);
+            }
+            int index = (int) Math.ceil(fraction * size) - 1;
+            return sorted[Math.max(0, Math.min(index, size - 1))];
+        }
+
+        long max() { return percentile(1.0); }
+    }
+}
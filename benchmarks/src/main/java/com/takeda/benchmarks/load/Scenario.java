@@ -0,0 +1,92 @@
+package com.takeda.benchmarks.load;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * A load-test scenario: how many editors, for how long, how often they click and what they click. Read from a
+ * properties file, or from a bundled {@code scenarios/<name>.properties}; see {@code scenarios/default.properties}
+ * for every key.
+ */
+public record Scenario(
+        @NotNull String name,
+        int players,
+        int ticks,
+        int warmupTicks,
+        double clicksPerSecond,
+        boolean stagedMode,
+        long seed,
+        @NotNull Map<Action, Integer> mix
+) {
+
+    /** What a simulated editor does on a click. Weights come from the {@code mix.<action>} keys. */
+    public enum Action {
+        ENCHANT_UP, ENCHANT_DOWN, ENCHANT_MAX, ENCHANT_REMOVE, PAGE, REPAIR, COPY_PASTE, PLAYER_INVENTORY, RENAME_CHAT;
+
+        @NotNull
+        String key() { return "mix." + name().toLowerCase(Locale.ROOT); }
+    }
+
+    public Scenario {
+        if (players < 1 || ticks < 1 || warmupTicks < 0 || clicksPerSecond < 0) throw new IllegalArgumentException("Scenario '" + name + "' has out-of-range values");
+        mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) throw new IllegalArgumentException("Scenario '" + name + "' has no click mix");
+    }
+
+    /** Loads a scenario from a file path, or a bundled scenario by name. */
+    @NotNull
+    public static Scenario load(@NotNull String source) throws IOException {
+        Properties properties = new Properties();
+        Path file = Path.of(source);
+        if (Files.isRegularFile(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            }
+        } else {
+            try (InputStream in = Scenario.class.getResourceAsStream("/scenarios/" + source + ".properties")) {
+                if (in == null) throw new IOException("No scenario file or bundled scenario named '" + source + "'");
+                properties.load(in);
+            }
+        }
+
+        Map<Action, Integer> mix = new EnumMap<>(Action.class);
+        for (Action action : Action.values()) {
+            int weight = Integer.parseInt(properties.getProperty(action.key(), "0").trim());
+            if (weight < 0) throw new IllegalArgumentException(action.key() + " must not be negative");
+            mix.put(action, weight);
+        }
+        return new Scenario(
+                properties.getProperty("name", source),
+                Integer.parseInt(properties.getProperty("players", "50").trim()),
+                Integer.parseInt(properties.getProperty("ticks", "1200").trim()),
+                Integer.parseInt(properties.getProperty("warmup_ticks", "200").trim()),
+                Double.parseDouble(properties.getProperty("clicks_per_player_per_second", "2").trim()),
+                Boolean.parseBoolean(properties.getProperty("staged_mode", "false").trim()),
+                Long.parseLong(properties.getProperty("seed", "42").trim()),
+                mix);
+    }
+
+    /** Picks an action according to the mix weights. */
+    @NotNull
+    public Action pick(@NotNull Random random) {
+        int total = 0;
+        for (int weight : mix.values()) total += weight;
+        int roll = random.nextInt(total);
+        for (Map.Entry<Action, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) return entry.getKey();
+        }
+        throw new IllegalStateException("Unreachable: roll exceeded mix total");
+    }
+}
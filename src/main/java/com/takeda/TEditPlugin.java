@@ -1,16 +1,27 @@
 package com.takeda;
 
+import com.takeda.audit.AuditLog;
+import com.takeda.audit.RollbackVault;
+import com.takeda.bench.Warmup;
 import com.takeda.commands.EditCommand;
 import com.takeda.commands.TEditAdminCommand; // Added
 import com.takeda.config.SettingsManager;
 import com.takeda.listeners.PlayerListener;
+import com.takeda.metrics.Metrics;
+import com.takeda.metrics.OpenMetricsExporter;
+import com.takeda.metrics.Tracer;
+import com.takeda.metrics.Watchdog;
+import com.takeda.presets.Clipboard;
+import com.takeda.presets.PresetStore;
 import com.takeda.sessions.EditSessionManager;
+import com.takeda.util.ItemDataBackend;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import org.bukkit.NamespacedKey;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
 import java.util.Objects;
 import java.util.logging.Level;
 
@@ -24,12 +35,25 @@ public final class TEditPlugin extends JavaPlugin {
     private BukkitAudiences adventure;
     private SettingsManager settingsManager;
     private EditSessionManager sessionManager;
+    private ItemDataBackend itemDataBackend;
+    private PresetStore presetStore;
+    private Clipboard clipboard;
+    private Metrics metrics;
+    private OpenMetricsExporter metricsExporter;
+    private Watchdog watchdog;
+    private Tracer tracer;
+    private AuditLog auditLog;
+    private RollbackVault rollbackVault;
     private NamespacedKey enchantKeyPDC; // Key used to identify enchantments on book items
+    private NamespacedKey pickerLevelPDC; // Key used to identify levels on level picker items
+    private NamespacedKey loreLinePDC; // Key used to identify line indices on lore editor items
 
     @Override
     public void onEnable() {
         instance = this;
         this.enchantKeyPDC = new NamespacedKey(this, "tedit_enchant_key"); // Initialize the key
+        this.pickerLevelPDC = new NamespacedKey(this, "tedit_picker_level");
+        this.loreLinePDC = new NamespacedKey(this, "tedit_lore_line");
 
         // 1. Initialize Adventure (Essential for modern text components)
         try {
@@ -52,8 +76,26 @@ public final class TEditPlugin extends JavaPlugin {
             return;
         }
 
+        // 2b. Select how item data is read and written (data components when available, ItemMeta otherwise)
+        this.itemDataBackend = ItemDataBackend.select(settingsManager.getItemDataBackendMode(), getLogger());
+        getLogger().info("Using '" + itemDataBackend.getName() + "' item data backend.");
+
         // 3. Initialize Session Manager (Tracks active GUIs)
         this.sessionManager = new EditSessionManager(this);
+        this.tracer = new Tracer(this);
+        this.metrics = new Metrics(sessionManager::getActiveSessionCount);
+        this.watchdog = new Watchdog(this, Thread.currentThread()); // onEnable runs on the main thread
+        this.watchdog.start();
+
+        // 3b. Preset store (nothing is read until presets are first used)
+        this.presetStore = new PresetStore(this, getDataFolder().toPath().resolve("presets.dat"));
+        this.clipboard = new Clipboard();
+
+        // 3c. Audit log of committed edits (written by a background thread) and pre-edit item snapshots
+        this.auditLog = new AuditLog(this);
+        this.auditLog.start(settingsManager);
+        this.rollbackVault = new RollbackVault(this, getDataFolder().toPath().resolve("vault"),
+                settingsManager.isVaultEnabled(), settingsManager.getVaultRetentionDays());
 
         // 4. Register Commands
         PluginCommand editCmd = getCommand("edit");
@@ -84,6 +126,18 @@ public final class TEditPlugin extends JavaPlugin {
             return;
         }
 
+        // 6. Optional metrics export (HTTP endpoint and/or textfile)
+        this.metricsExporter = new OpenMetricsExporter(this, metrics);
+        this.metricsExporter.start(settingsManager);
+        if (!new File(getDataFolder(), "tedit.jfc").exists()) {
+            saveResource("tedit.jfc", false); // Flight recorder profile for the T-Edit events, see README
+        }
+
+        // 7. Optional warmup, so the first /edit does not pay for cold caches and code
+        if (settingsManager.isWarmupEnabled()) {
+            new Warmup(this).start();
+        }
+
         // Success!
         getLogger().info("T-Edit v" + getDescription().getVersion() + " enabled successfully!");
         if (settingsManager.isDebugEnabled()) {
@@ -102,6 +156,25 @@ public final class TEditPlugin extends JavaPlugin {
             getLogger().warning("Session Manager was null during disable sequence.");
         }
 
+        // 1a. Stop serving metrics and the watchdog sampler
+        if (this.metricsExporter != null) {
+            this.metricsExporter.stop();
+        }
+        if (this.watchdog != null) {
+            this.watchdog.stop();
+        }
+
+        // 1b. Flush pending preset writes, audit records and item snapshots
+        if (this.presetStore != null) {
+            this.presetStore.close();
+        }
+        if (this.auditLog != null) {
+            this.auditLog.stop();
+        }
+        if (this.rollbackVault != null) {
+            this.rollbackVault.close();
+        }
+
         // 2. Shutdown Adventure resources
         if (this.adventure != null) {
             this.adventure.close();
@@ -114,7 +187,18 @@ public final class TEditPlugin extends JavaPlugin {
         // Nullify references to help GC and prevent accidental use after disable
         this.settingsManager = null;
         this.sessionManager = null;
+        this.itemDataBackend = null;
+        this.presetStore = null;
+        this.clipboard = null;
+        this.metrics = null;
+        this.metricsExporter = null;
+        this.watchdog = null;
+        this.tracer = null;
+        this.auditLog = null;
+        this.rollbackVault = null;
         this.enchantKeyPDC = null;
+        this.pickerLevelPDC = null;
+        this.loreLinePDC = null;
         instance = null;
     }
 
@@ -157,6 +241,78 @@ public final class TEditPlugin extends JavaPlugin {
         return this.sessionManager;
     }
 
+    /** Gets the backend used to read and write item enchantments, name, lore and damage. */
+    @NotNull
+    public ItemDataBackend getItemDataBackend() {
+        if (this.itemDataBackend == null) {
+            throw new IllegalStateException("ItemDataBackend is not available. Plugin might be disabled or initializing.");
+        }
+        return this.itemDataBackend;
+    }
+
+    /** Gets the store holding saved edit presets. */
+    @NotNull
+    public PresetStore getPresetStore() {
+        if (this.presetStore == null) {
+            throw new IllegalStateException("PresetStore is not available. Plugin might be disabled or initializing.");
+        }
+        return this.presetStore;
+    }
+
+    /** Gets the per-player copy/paste clipboard. */
+    @NotNull
+    public Clipboard getClipboard() {
+        if (this.clipboard == null) {
+            throw new IllegalStateException("Clipboard is not available. Plugin might be disabled or initializing.");
+        }
+        return this.clipboard;
+    }
+
+    /** Gets the latency and counter metrics shown by /tedit stats. */
+    @NotNull
+    public Metrics getMetrics() {
+        if (this.metrics == null) {
+            throw new IllegalStateException("Metrics are not available. Plugin might be disabled or initializing.");
+        }
+        return this.metrics;
+    }
+
+    /** Gets the per-player tracing behind /tedit trace. */
+    @NotNull
+    public Tracer getTracer() {
+        if (this.tracer == null) {
+            throw new IllegalStateException("Tracer is not available. Plugin might be disabled or initializing.");
+        }
+        return this.tracer;
+    }
+
+    /** Gets the audit log of committed edits behind /tedit audit. */
+    @NotNull
+    public AuditLog getAuditLog() {
+        if (this.auditLog == null) {
+            throw new IllegalStateException("AuditLog is not available. Plugin might be disabled or initializing.");
+        }
+        return this.auditLog;
+    }
+
+    /** Gets the vault of pre-edit item snapshots behind /tedit rollback. */
+    @NotNull
+    public RollbackVault getRollbackVault() {
+        if (this.rollbackVault == null) {
+            throw new IllegalStateException("RollbackVault is not available. Plugin might be disabled or initializing.");
+        }
+        return this.rollbackVault;
+    }
+
+    /** Gets the watchdog that reports slow operations. */
+    @NotNull
+    public Watchdog getWatchdog() {
+        if (this.watchdog == null) {
+            throw new IllegalStateException("Watchdog is not available. Plugin might be disabled or initializing.");
+        }
+        return this.watchdog;
+    }
+
     /** Gets the NamespacedKey used for storing enchantment identifiers on book items. */
     @NotNull
     public NamespacedKey getEnchantmentPDCKey() {
@@ -166,4 +322,22 @@ public final class TEditPlugin extends JavaPlugin {
         }
         return this.enchantKeyPDC;
     }
-}
\ No newline at end of file
+
+    /** Gets the NamespacedKey used for storing the target level on level picker items. */
+    @NotNull
+    public NamespacedKey getPickerLevelPDCKey() {
+        if (this.pickerLevelPDC == null) {
+            throw new IllegalStateException("Picker Level PDC Key is not available. Plugin might be disabled or initializing.");
+        }
+        return this.pickerLevelPDC;
+    }
+
+    /** Gets the NamespacedKey used for storing the line index on lore editor items. */
+    @NotNull
+    public NamespacedKey getLoreLinePDCKey() {
+        if (this.loreLinePDC == null) {
+            throw new IllegalStateException("Lore Line PDC Key is not available. Plugin might be disabled or initializing.");
+        }
+        return this.loreLinePDC;
+    }
+}
@@ -0,0 +1,458 @@
+package com.takeda.audit;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.util.ItemEditTransaction;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only log of committed edits and duplicates in {@code plugins/T-Edit/audit}. The main thread only adds a
+ * record to a lock-free queue; everything else happens on one writer thread. The writer formats whatever is queued
+ * and appends it with a single write once {@code audit.batch_size} records are waiting or {@code audit.flush_interval_ms}
+ * has passed (group commit), so a burst of edits costs one write rather than one per edit.
+ * <p>
+ * The log is split into segments. A segment is closed at {@code audit.segment_max_kb} and at startup, gzipped, and
+ * given a {@code .keys} file listing the players and items it mentions; {@link #lookup} only opens segments whose keys
+ * match. Closed segments past the retention limits are deleted.
+ * <p>
+ * Each record is one tab-separated line: the time, then {@code key=value} fields. Tabs, line breaks and backslashes
+ * in values are escaped; lore lines are joined with {@code \n}.
+ */
+public final class AuditLog {
+
+    private static final int MAX_PENDING = 65_536; // Records queued beyond this are dropped (and counted) rather than risk memory
+    private static final String PREFIX = "audit-", LOG = ".log", GZIP = ".log.gz", KEYS = ".keys";
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT)
+            .withZone(ZoneId.systemDefault());
+
+    /** One queued record. Components are serialized by the writer, not on the main thread. */
+    private record Entry(long timeMillis, @NotNull UUID playerId, @NotNull String playerName, @NotNull String action, int slot,
+                         @NotNull Material material, @NotNull ItemEditTransaction.Changes changes) {}
+
+    private final TEditPlugin plugin;
+    private final Path directory;
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    // Keys of closed segments by segment base name, and of the segment being written
+    private final Map<String, Set<String>> segmentKeys = new ConcurrentHashMap<>();
+    private volatile Set<String> currentKeys = ConcurrentHashMap.newKeySet();
+    private volatile Path currentSegment;
+
+    // Read at start; the writer is the only thread using them afterwards
+    private int batchSize;
+    private long flushIntervalNanos;
+    private boolean sync;
+    private long segmentMaxBytes;
+    private int retentionDays;
+    private int maxSegments;
+    private MiniMessage miniMessage;
+
+    @Nullable private volatile Thread writer;
+    private volatile boolean running;
+    @Nullable private FileChannel channel; // Writer thread only
+    private boolean errorLogged;
+
+    public AuditLog(@NotNull TEditPlugin plugin) {
+        this.plugin = plugin;
+        this.directory = plugin.getDataFolder().toPath().resolve("audit");
+    }
+
+    /** Starts the writer thread if {@code audit.enabled}. Segments left over from the last run are closed by it first. */
+    public void start(@NotNull SettingsManager settings) {
+        if (!settings.isAuditEnabled()) return;
+        batchSize = settings.getAuditBatchSize();
+        flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(settings.getAuditFlushIntervalMillis());
+        sync = settings.isAuditSync();
+        segmentMaxBytes = settings.getAuditSegmentMaxBytes();
+        retentionDays = settings.getAuditRetentionDays();
+        maxSegments = settings.getAuditMaxSegments();
+        miniMessage = settings.miniMessage();
+        running = true;
+        Thread thread = new Thread(this::run, "T-Edit Audit");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    /** Writes everything still queued and closes the current segment. Waits up to five seconds. */
+    public void stop() {
+        Thread thread = writer;
+        if (thread == null) return;
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) plugin.getLogger().warning("Audit writer did not finish in time; " + pending.get() + " records may be lost.");
+        writer = null;
+    }
+
+    public boolean isEnabled() { return running; }
+
+    /** Records what a committed transaction changed. Does nothing if the transaction has not committed. */
+    public void record(@NotNull Player player, @NotNull String action, int slot, @NotNull ItemEditTransaction transaction) {
+        ItemEditTransaction.Changes changes = transaction.getCommittedChanges();
+        if (changes != null) record(player, action, slot, transaction.getItemStack().getType(), changes);
+    }
+
+    /**
+     * Queues a record. Never blocks: the record is dropped (and counted) if the writer is this far behind.
+     * @param slot inventory slot of the item, -1 if unknown
+     */
+    public void record(@NotNull Player player, @NotNull String action, int slot, @NotNull Material material, @NotNull ItemEditTransaction.Changes changes) {
+        Thread thread = writer;
+        if (!running || thread == null) return;
+        if (pending.get() >= MAX_PENDING) {
+            dropped.increment();
+            return;
+        }
+        queue.offer(new Entry(System.currentTimeMillis(), player.getUniqueId(), player.getName(), action, slot, material, changes));
+        if (pending.incrementAndGet() == batchSize) LockSupport.unpark(thread); // Once per batch, not per record
+    }
+
+    // --- Writer ---
+
+    private void run() {
+        try {
+            Files.createDirectories(directory);
+            closeLeftoverSegments();
+            loadSegmentKeys();
+            enforceRetention();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not prepare the audit directory " + directory + ": " + e.getMessage());
+        }
+        while (running) {
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            long left;
+            while (running && pending.get() < batchSize && (left = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, left);
+            }
+            writeBatch();
+        }
+        writeBatch(); // Whatever was queued before stop()
+        try {
+            closeSegment();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not close the audit segment " + currentSegment + ": " + e.getMessage());
+        }
+    }
+
+    /** Appends everything queued with one write (group commit), then rotates the segment if it is full. */
+    private void writeBatch() {
+        int lostBefore = (int) dropped.sumThenReset();
+        if (lostBefore > 0) plugin.getLogger().warning("Audit writer fell behind; " + lostBefore + " records were dropped.");
+        if (queue.isEmpty()) return;
+
+        StringBuilder out = new StringBuilder(4096);
+        Set<String> keys = new HashSet<>();
+        int count = 0;
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            int start = out.length();
+            format(entry, out);
+            keysOf(out.substring(start), keys);
+            out.append('\n');
+            count++;
+        }
+        pending.addAndGet(-count);
+        try {
+            FileChannel target = openSegment();
+            currentKeys.addAll(keys); // Before the write, so a lookup never misses a line it could read
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(out.toString());
+            while (buffer.hasRemaining()) target.write(buffer);
+            if (sync) target.force(false);
+            errorLogged = false;
+            if (target.size() >= segmentMaxBytes) {
+                closeSegment();
+                enforceRetention();
+            }
+        } catch (IOException e) {
+            if (!errorLogged) { // Once per failure streak
+                plugin.getLogger().log(Level.WARNING, "Could not write " + count + " audit records to " + directory + ": " + e.getMessage());
+                errorLogged = true;
+            }
+        }
+    }
+
+    @NotNull
+    private FileChannel openSegment() throws IOException {
+        if (channel == null) {
+            Path segment = directory.resolve(PREFIX + LocalDateTime.now().format(SEGMENT_TIME) + LOG);
+            channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            currentKeys = ConcurrentHashMap.newKeySet();
+            currentSegment = segment;
+        }
+        return channel;
+    }
+
+    /** Closes the segment being written, if any, and compresses it. The next batch starts a new one. */
+    private void closeSegment() throws IOException {
+        if (channel == null) return;
+        channel.close();
+        channel = null;
+        compress(currentSegment, currentKeys);
+    }
+
+    /** Gzips a finished segment and writes its key file; the plain file is removed once both exist. */
+    private void compress(@NotNull Path segment, @NotNull Set<String> keys) throws IOException {
+        String base = baseName(segment);
+        Path gzip = directory.resolve(base + GZIP), temp = directory.resolve(base + GZIP + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            Files.copy(segment, out);
+        }
+        Files.move(temp, gzip, StandardCopyOption.REPLACE_EXISTING);
+        Files.write(directory.resolve(base + KEYS), new TreeSet<>(keys), StandardCharsets.UTF_8);
+        segmentKeys.put(base, Set.copyOf(keys));
+        Files.delete(segment);
+    }
+
+    /** Plain segments at startup were being written when the server stopped (or crashed); close them now. */
+    private void closeLeftoverSegments() throws IOException {
+        for (Path segment : segments(LOG)) {
+            Set<String> keys = new HashSet<>();
+            try (Stream<String> lines = Files.lines(segment, StandardCharsets.UTF_8)) {
+                lines.forEach(line -> keysOf(line, keys));
+            }
+            compress(segment, keys);
+        }
+    }
+
+    private void loadSegmentKeys() throws IOException {
+        for (Path gzip : segments(GZIP)) {
+            String base = baseName(gzip);
+            Path keyFile = directory.resolve(base + KEYS);
+            Set<String> keys = new HashSet<>();
+            if (Files.exists(keyFile)) {
+                keys.addAll(Files.readAllLines(keyFile, StandardCharsets.UTF_8));
+            } else { // Lost or deleted by hand; rebuild it from the segment
+                try (BufferedReader reader = open(gzip)) {
+                    reader.lines().forEach(line -> keysOf(line, keys));
+                }
+                Files.write(keyFile, new TreeSet<>(keys), StandardCharsets.UTF_8);
+            }
+            segmentKeys.put(base, Set.copyOf(keys));
+        }
+    }
+
+    /** Deletes closed segments older than {@code audit.retention_days} and the oldest beyond {@code audit.max_segments}. */
+    private void enforceRetention() throws IOException {
+        List<Path> closed = segments(GZIP); // Oldest first
+        long cutoffMillis = retentionDays > 0 ? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays) : Long.MIN_VALUE;
+        int excess = maxSegments > 0 ? closed.size() - maxSegments : 0;
+        for (int i = 0; i < closed.size(); i++) {
+            Path gzip = closed.get(i);
+            if (i >= excess && Files.getLastModifiedTime(gzip).toMillis() >= cutoffMillis) continue;
+            String base = baseName(gzip);
+            segmentKeys.remove(base);
+            Files.deleteIfExists(gzip);
+            Files.deleteIfExists(directory.resolve(base + KEYS));
+        }
+    }
+
+    // --- Lookup ---
+
+    /**
+     * Finds the newest records for a player name or item type, newest first. Reads files, so call it off the main thread.
+     * Only the segment being written and closed segments whose key file matches are read.
+     */
+    @NotNull
+    public List<String> lookup(@NotNull String query, int limit) throws IOException {
+        Set<String> wanted = new HashSet<>();
+        wanted.add("player:" + query.toLowerCase(Locale.ROOT));
+        Material material = Material.matchMaterial(query);
+        if (material != null) wanted.add("item:" + material.name().toLowerCase(Locale.ROOT));
+
+        List<String> found = new ArrayList<>(limit);
+        Path current = currentSegment;
+        if (current != null && !Collections.disjoint(currentKeys, wanted)) {
+            try (BufferedReader reader = Files.newBufferedReader(current, StandardCharsets.UTF_8)) {
+                collect(reader, wanted, limit, found);
+            } catch (NoSuchFileException e) {
+                // Rotated while we looked; its records are in the newest closed segment now
+            }
+        }
+        List<String> bases = new ArrayList<>(segmentKeys.keySet());
+        bases.sort(Collections.reverseOrder()); // Segment names sort by time
+        for (String base : bases) {
+            if (found.size() >= limit) break;
+            Set<String> keys = segmentKeys.get(base);
+            if (keys == null || Collections.disjoint(keys, wanted)) continue;
+            try (BufferedReader reader = open(directory.resolve(base + GZIP))) {
+                collect(reader, wanted, limit, found);
+            } catch (NoSuchFileException e) {
+                // Deleted by retention meanwhile
+            }
+        }
+        return found;
+    }
+
+    /** Appends the segment's last matching lines, newest first, until {@code found} holds {@code limit}. */
+    private static void collect(@NotNull BufferedReader reader, @NotNull Set<String> wanted, int limit, @NotNull List<String> found) throws IOException {
+        int room = limit - found.size();
+        if (room <= 0) return;
+        Deque<String> newest = new ArrayDeque<>(room);
+        Set<String> keys = new HashSet<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            keys.clear();
+            keysOf(line, keys);
+            if (Collections.disjoint(keys, wanted)) continue;
+            if (newest.size() == room) newest.removeFirst();
+            newest.addLast(line);
+        }
+        newest.descendingIterator().forEachRemaining(found::add);
+    }
+
+    // --- Format ---
+
+    private void format(@NotNull Entry entry, @NotNull StringBuilder out) {
+        ItemEditTransaction.Changes changes = entry.changes();
+        out.append(TIME_FORMAT.format(Instant.ofEpochMilli(entry.timeMillis())));
+        field(out, "player", entry.playerName());
+        field(out, "uuid", entry.playerId().toString());
+        field(out, "action", entry.action());
+        if (entry.slot() >= 0) field(out, "slot", String.valueOf(entry.slot()));
+        field(out, "item", entry.material().name());
+        if (changes.enchantmentsAfter() != null && changes.enchantmentsBefore() != null) {
+            field(out, "enchants", enchantmentDiff(changes.enchantmentsBefore(), changes.enchantmentsAfter()));
+        }
+        if (changes.nameChanged()) {
+            field(out, "name_before", serialize(changes.nameBefore()));
+            field(out, "name_after", serialize(changes.nameAfter()));
+        }
+        if (changes.loreAfter() != null && changes.loreBefore() != null) {
+            field(out, "lore_before", serialize(changes.loreBefore()));
+            field(out, "lore_after", serialize(changes.loreAfter()));
+        }
+        if (changes.repaired()) field(out, "repaired", "true");
+    }
+
+    /** Changed levels only, as {@code key before->after}; 0 means absent. */
+    @NotNull
+    private static String enchantmentDiff(@NotNull Map<Enchantment, Integer> before, @NotNull Map<Enchantment, Integer> after) {
+        Set<Enchantment> all = new LinkedHashSet<>(before.keySet());
+        all.addAll(after.keySet());
+        StringBuilder diff = new StringBuilder();
+        for (Enchantment enchantment : all) {
+            int from = before.getOrDefault(enchantment, 0), to = after.getOrDefault(enchantment, 0);
+            if (from == to) continue;
+            if (!diff.isEmpty()) diff.append(", ");
+            diff.append(enchantment.getKey()).append(' ').append(from).append("->").append(to);
+        }
+        return diff.toString();
+    }
+
+    @NotNull
+    private String serialize(@Nullable Component component) {
+        return component == null ? "-" : miniMessage.serialize(component);
+    }
+
+    @NotNull
+    private String serialize(@NotNull List<Component> lore) {
+        if (lore.isEmpty()) return "-";
+        StringBuilder joined = new StringBuilder();
+        for (Component line : lore) {
+            if (!joined.isEmpty()) joined.append('\n');
+            joined.append(miniMessage.serialize(line));
+        }
+        return joined.toString();
+    }
+
+    private static void field(@NotNull StringBuilder out, @NotNull String key, @NotNull String value) {
+        out.append('\t').append(key).append('=');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    /** Index keys of a record line: {@code player:<name>}, {@code uuid:<uuid>} and {@code item:<material>}, lower case. */
+    private static void keysOf(@NotNull String line, @NotNull Set<String> keys) {
+        for (String field : line.split("\t")) {
+            if (field.startsWith("player=")) keys.add("player:" + field.substring(7).toLowerCase(Locale.ROOT));
+            else if (field.startsWith("uuid=")) keys.add("uuid:" + field.substring(5));
+            else if (field.startsWith("item=")) keys.add("item:" + field.substring(5).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // --- Files ---
+
+    /** Segment files with the given suffix, oldest first. */
+    @NotNull
+    private List<Path> segments(@NotNull String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(suffix);
+            }).sorted().toList();
+        }
+    }
+
+    @NotNull
+    private static String baseName(@NotNull Path segment) {
+        String name = segment.getFileName().toString();
+        return name.substring(0, name.indexOf('.'));
+    }
+
+    @NotNull
+    private static BufferedReader open(@NotNull Path gzip) throws IOException {
+        InputStream in = new GZIPInputStream(Files.newInputStream(gzip));
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
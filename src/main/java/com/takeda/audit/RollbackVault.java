@@ -0,0 +1,287 @@
+package com.takeda.audit;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Snapshots of items taken before they are edited, so {@code /tedit rollback} can restore them after the session is
+ * gone. Lives in {@code plugins/T-Edit/vault}.
+ * <p>
+ * Item contents are stored once per distinct content: each snapshot is the item's serialized form (compressed NBT),
+ * kept in {@code objects/<xx>/<sha-256>.nbt}, so the same item snapshotted again costs one index line. The index,
+ * {@code index.log}, gets one tab-separated line per snapshot. Snapshots older than {@code vault.retention_days} are
+ * dropped on load, hourly and on shutdown; the index is then rewritten and contents nothing refers to are deleted.
+ * <p>
+ * Items are serialized on the caller's (main) thread. Hashing and all file access and index state live on one IO
+ * thread; methods return futures and never block the caller. Use {@link #mainThread()} to continue on the server thread.
+ * <pre>
+ * index line = id  time(ms)  playerUuid  playerName  slot  material  sha256   (tab-separated)
+ * </pre>
+ */
+public final class RollbackVault {
+
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final HexFormat HEX = HexFormat.of();
+
+    /** One snapshot in the index. Slot is -1 if unknown. */
+    public record Snapshot(long id, long timeMillis, @NotNull UUID playerId, @NotNull String playerName, int slot,
+                           @NotNull Material material, @NotNull String hash) {}
+
+    /** A snapshot with its serialized item, ready for {@link ItemStack#deserializeBytes(byte[])} on the main thread. */
+    public record Loaded(@NotNull Snapshot snapshot, @NotNull byte[] data) {}
+
+    private final Logger logger;
+    private final Path directory;
+    private final Path indexFile;
+    private final boolean enabled;
+    private final long retentionMillis;
+    private final ExecutorService ioExecutor;
+    private final Executor mainThread;
+
+    // IO thread only
+    private List<Snapshot> snapshots; // Oldest first; null until first use
+    private Map<String, Integer> references; // Snapshots per content hash
+    private long nextId = 1;
+    private long lastPruneMillis;
+
+    public RollbackVault(@NotNull Plugin plugin, @NotNull Path directory, boolean enabled, int retentionDays) {
+        Objects.requireNonNull(plugin, "plugin cannot be null");
+        this.logger = plugin.getLogger();
+        this.directory = Objects.requireNonNull(directory, "directory cannot be null");
+        this.indexFile = directory.resolve("index.log");
+        this.enabled = enabled;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(Math.max(1, retentionDays));
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "T-Edit Vault IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.mainThread = runnable -> plugin.getServer().getScheduler().runTask(plugin, runnable);
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /** Executor that runs tasks on the server thread, for continuing after a vault operation. */
+    @NotNull
+    public Executor mainThread() { return mainThread; }
+
+    // --- Operations ---
+
+    /**
+     * Snapshots an item as it is now. Call on the main thread before the edit is written; the item is serialized here
+     * and everything else happens on the IO thread. Does nothing (completes with -1) when the vault is disabled.
+     * @param slot inventory slot the item is in, -1 if unknown
+     * @return the snapshot id
+     */
+    @NotNull
+    public CompletableFuture<Long> save(@NotNull Player player, int slot, @NotNull ItemStack item) {
+        if (!enabled || item.getType().isAir()) return CompletableFuture.completedFuture(-1L);
+        byte[] data = item.serializeAsBytes(); // Compressed NBT; must read the item on the main thread
+        UUID playerId = player.getUniqueId();
+        String playerName = player.getName();
+        Material material = item.getType();
+        long timeMillis = System.currentTimeMillis();
+        return submit(() -> {
+            List<Snapshot> index = index();
+            String hash = sha256(data);
+            if (!references.containsKey(hash)) writeObject(hash, data); // Content first, so the index never points at nothing
+            Snapshot snapshot = new Snapshot(nextId++, timeMillis, playerId, playerName, slot, material, hash);
+            Files.writeString(indexFile, format(snapshot) + '\n', StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            index.add(snapshot);
+            references.merge(hash, 1, Integer::sum);
+            if (timeMillis - lastPruneMillis >= PRUNE_INTERVAL_MILLIS) prune();
+            return snapshot.id();
+        });
+    }
+
+    /** A player's snapshots by name (any case), newest first, at most {@code limit}. */
+    @NotNull
+    public CompletableFuture<List<Snapshot>> list(@NotNull String playerName, int limit) {
+        return submit(() -> {
+            List<Snapshot> index = index();
+            List<Snapshot> found = new ArrayList<>(Math.min(limit, 16));
+            for (int i = index.size() - 1; i >= 0 && found.size() < limit; i--) {
+                Snapshot snapshot = index.get(i);
+                if (snapshot.playerName().equalsIgnoreCase(playerName)) found.add(snapshot);
+            }
+            return found;
+        });
+    }
+
+    /** Loads a snapshot and its item data. Completes with null if there is no such snapshot (or it expired). */
+    @NotNull
+    public CompletableFuture<Loaded> load(long id) {
+        return submit(() -> {
+            for (Snapshot snapshot : index()) {
+                if (snapshot.id() == id) return new Loaded(snapshot, Files.readAllBytes(objectPath(snapshot.hash())));
+            }
+            return null;
+        });
+    }
+
+    /** Drops expired snapshots and stops the IO thread, waiting briefly for pending writes. */
+    public void close() {
+        ioExecutor.execute(() -> {
+            try {
+                if (snapshots != null) prune();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to prune rollback vault " + directory, e);
+            }
+        });
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Rollback vault did not finish pending writes in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- IO thread internals ---
+
+    private interface IoTask<T> { T run() throws IOException; }
+
+    @NotNull
+    private <T> CompletableFuture<T> submit(@NotNull IoTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.run();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Rollback vault I/O failed in " + directory, e);
+                throw new UncheckedIOException(e);
+            }
+        }, ioExecutor);
+    }
+
+    /** Returns the index, reading it the first time and dropping expired snapshots. */
+    @NotNull
+    private List<Snapshot> index() throws IOException {
+        if (snapshots != null) return snapshots;
+        List<Snapshot> loaded = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+        Files.createDirectories(directory);
+        if (Files.exists(indexFile)) {
+            int malformed = 0;
+            for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+                Snapshot snapshot = parse(line);
+                if (snapshot == null) {
+                    if (!line.isBlank()) malformed++;
+                    continue;
+                }
+                loaded.add(snapshot);
+                counts.merge(snapshot.hash(), 1, Integer::sum);
+                nextId = Math.max(nextId, snapshot.id() + 1);
+            }
+            if (malformed > 0) logger.warning("Rollback vault index has " + malformed + " unreadable lines (cut off by a crash?); skipping them.");
+        }
+        snapshots = loaded;
+        references = counts;
+        prune();
+        return snapshots;
+    }
+
+    /** Drops snapshots past the retention time, rewrites the index and deletes contents no snapshot refers to. */
+    private void prune() throws IOException {
+        long now = System.currentTimeMillis();
+        lastPruneMillis = now;
+        long cutoff = now - retentionMillis;
+        int expired = 0;
+        while (expired < snapshots.size() && snapshots.get(expired).timeMillis() < cutoff) expired++;
+        if (expired == 0) return;
+
+        List<Snapshot> removed = new ArrayList<>(snapshots.subList(0, expired));
+        snapshots.subList(0, expired).clear();
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Snapshot snapshot : snapshots) {
+                out.write(format(snapshot));
+                out.write('\n');
+            }
+        }
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        int deleted = 0;
+        for (Snapshot snapshot : removed) {
+            if (references.merge(snapshot.hash(), -1, Integer::sum) > 0) continue;
+            references.remove(snapshot.hash());
+            if (Files.deleteIfExists(objectPath(snapshot.hash()))) deleted++;
+        }
+        logger.info("Rollback vault: " + expired + " expired snapshots dropped, " + deleted + " item contents deleted, "
+                + snapshots.size() + " snapshots kept.");
+    }
+
+    private void writeObject(@NotNull String hash, @NotNull byte[] data) throws IOException {
+        Path object = objectPath(hash);
+        if (Files.exists(object)) return; // Left from before a crash, same content by definition
+        Files.createDirectories(object.getParent());
+        Path temp = object.resolveSibling(object.getFileName() + ".tmp");
+        Files.write(temp, data);
+        Files.move(temp, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @NotNull
+    private Path objectPath(@NotNull String hash) {
+        return directory.resolve("objects").resolve(hash.substring(0, 2)).resolve(hash + ".nbt");
+    }
+
+    @NotNull
+    private static String sha256(@NotNull byte[] data) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java runtime", e);
+        }
+    }
+
+    // --- Index lines ---
+
+    @NotNull
+    private static String format(@NotNull Snapshot snapshot) {
+        return snapshot.id() + "\t" + snapshot.timeMillis() + "\t" + snapshot.playerId() + "\t" + snapshot.playerName()
+                + "\t" + snapshot.slot() + "\t" + snapshot.material().name() + "\t" + snapshot.hash();
+    }
+
+    @Nullable
+    private static Snapshot parse(@NotNull String line) {
+        String[] fields = line.split("\t");
+        if (fields.length != 7 || fields[6].length() != 64) return null;
+        try {
+            Material material = Material.matchMaterial(fields[5]);
+            if (material == null) return null;
+            return new Snapshot(Long.parseLong(fields[0]), Long.parseLong(fields[1]), UUID.fromString(fields[2]), fields[3],
+                    Integer.parseInt(fields[4]), material, fields[6]);
+        } catch (IllegalArgumentException e) { // Also covers NumberFormatException
+            return null;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.takeda.bench;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.gui.EditGUI;
+import com.takeda.sessions.EditSession;
+import com.takeda.util.EnchantmentUtil;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Measures T-Edit's hot paths on the running server (its JVM, config and enchantment registry) against a synthetic
+ * item and an inventory that is never opened. Each operation gets a warmup, then every iteration is timed on its own;
+ * allocation per operation comes from the thread's allocated-bytes counter. Work is split across ticks so the
+ * benchmark never holds the server thread longer than {@link #TICK_BUDGET_MILLIS}.
+ */
+public final class BenchmarkTask extends BukkitRunnable {
+
+    private static final long TICK_BUDGET_MILLIS = 10; // Leaves most of the 50 ms tick to the server
+
+    /** One benchmarked operation. Receives the iteration index (negative during warmup). */
+    private record Operation(@NotNull String name, @NotNull IntConsumer body) {}
+
+    private final TEditPlugin plugin;
+    private final SettingsManager settings;
+    private final Player player;
+    private final int iterations;
+    private final int warmup;
+    private final Runnable onFinish;
+    private final List<Operation> operations;
+    private final com.sun.management.ThreadMXBean allocationBean; // null if the JVM cannot count allocations
+
+    private int operationIndex;
+    private int iteration;
+    private final long[] samples;
+    private long allocatedBytes;
+    private int allocationSamples; // Iterations covered by allocatedBytes (warmup ticks are left out)
+
+    public BenchmarkTask(@NotNull TEditPlugin plugin, @NotNull Player player, int iterations, @NotNull Runnable onFinish) {
+        this.plugin = plugin;
+        this.settings = plugin.getSettingsManager();
+        this.player = player;
+        this.iterations = iterations;
+        this.warmup = Math.max(10, iterations / 10);
+        this.onFinish = onFinish;
+        this.samples = new long[iterations];
+        this.iteration = -warmup;
+
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        this.allocationBean = threadBean instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()
+                ? bean : null;
+        this.operations = createOperations();
+    }
+
+    /** Builds the synthetic item and session the operations run against. Nothing is shown to the player. */
+    @NotNull
+    private List<Operation> createOperations() {
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+        ItemMeta meta = item.getItemMeta();
+        meta.displayName(settings.miniMessage().deserialize("<gradient:#AA00FF:#DD55FF>Benchmark Blade"));
+        meta.lore(List.of(Component.text("Synthetic item for /tedit bench"), Component.text("Second lore line")));
+        meta.addEnchant(Enchantment.SHARPNESS, 3, true);
+        meta.addEnchant(Enchantment.UNBREAKING, 2, true);
+        item.setItemMeta(meta);
+
+        EditSession session = new EditSession(player, item.clone(), -1,
+                Bukkit.createInventory(null, settings.getGuiSize(), settings.getGuiTitleComponent()));
+        List<Enchantment> applicable = EnchantmentUtil.getApplicableEnchantmentsForGui(item, player, settings);
+        List<Enchantment> page = applicable.subList(0, Math.min(applicable.size(), settings.getEnchantmentSlots().size()));
+        ItemStack applyTarget = item.clone();
+
+        return List.of(
+                new Operation("getApplicableEnchantmentsForGui", i -> EnchantmentUtil.getApplicableEnchantmentsForGui(item, player, settings)),
+                new Operation("createEnchantmentBook (page of " + page.size() + ")", i -> {
+                    // One enchantment read per page, as populateEnchantments does
+                    Map<Enchantment, Integer> current = plugin.getItemDataBackend().open(session.getPreviewItem()).getEnchantments();
+                    for (Enchantment enchantment : page) EditGUI.createEnchantmentBook(enchantment, session, settings, plugin, player, current);
+                }),
+                new Operation("populateBaseLayout", i -> EditGUI.populateBaseLayout(session, settings)),
+                // Alternate levels so every call is a real change and write
+                new Operation("applyEnchantment", i -> EnchantmentUtil.applyEnchantment(applyTarget, Enchantment.SHARPNESS, (i & 1) + 1, player, settings))
+        );
+    }
+
+    public void start() {
+        settings.sendMessage(player, "bench_started",
+                Placeholder.unparsed("operations", String.valueOf(operations.size())),
+                Placeholder.unparsed("iterations", String.valueOf(iterations)),
+                Placeholder.unparsed("warmup", String.valueOf(warmup)));
+        runTaskTimer(plugin, 1L, 1L);
+    }
+
+    @Override
+    public void run() {
+        if (!player.isOnline()) { // Operations need a live player for permission checks
+            stop();
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TICK_BUDGET_MILLIS);
+        while (System.nanoTime() < deadline) {
+            if (operationIndex >= operations.size()) {
+                finish();
+                return;
+            }
+            runSlice(operations.get(operationIndex), deadline);
+            if (iteration >= iterations) {
+                report(operations.get(operationIndex));
+                operationIndex++;
+                iteration = -warmup;
+                allocatedBytes = 0;
+                allocationSamples = 0;
+            }
+        }
+    }
+
+    /** Runs iterations of one operation until it is done or the tick budget is spent. */
+    private void runSlice(@NotNull Operation operation, long deadline) {
+        boolean measuredOnly = iteration >= 0; // Allocation is attributed only to slices without warmup iterations
+        long allocationStart = allocatedBytes();
+        int sliceStart = iteration;
+        while (iteration < iterations && System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            operation.body().accept(iteration);
+            long elapsed = System.nanoTime() - start;
+            if (iteration >= 0) samples[iteration] = elapsed;
+            iteration++;
+        }
+        if (measuredOnly && allocationStart >= 0) {
+            allocatedBytes += allocatedBytes() - allocationStart;
+            allocationSamples += iteration - sliceStart;
+        }
+    }
+
+    private long allocatedBytes() {
+        return allocationBean != null ? allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    private void report(@NotNull Operation operation) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long sample : sorted) total += sample;
+        String allocation = allocationSamples > 0 ? String.valueOf(allocatedBytes / allocationSamples) : "n/a";
+
+        settings.sendMessage(player, "bench_result",
+                Placeholder.unparsed("operation", operation.name()),
+                Placeholder.unparsed("mean", String.valueOf(total / sorted.length)),
+                Placeholder.unparsed("p50", String.valueOf(percentile(sorted, 0.50))),
+                Placeholder.unparsed("p90", String.valueOf(percentile(sorted, 0.90))),
+                Placeholder.unparsed("p99", String.valueOf(percentile(sorted, 0.99))),
+                Placeholder.unparsed("max", String.valueOf(sorted[sorted.length - 1])),
+                Placeholder.unparsed("bytes", allocation));
+        plugin.getLogger().info("[Bench] " + operation.name() + ": mean " + (total / sorted.length) + " ns, p50 " + percentile(sorted, 0.50)
+                + " ns, p90 " + percentile(sorted, 0.90) + " ns, p99 " + percentile(sorted, 0.99) + " ns, max " + sorted[sorted.length - 1]
+                + " ns, " + allocation + " B/op (" + iterations + " iterations)");
+    }
+
+    private static long percentile(@NotNull long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private void finish() {
+        cancel();
+        settings.sendMessage(player, "bench_complete");
+        onFinish.run();
+    }
+
+    /** Stops early, e.g. when the player leaves. */
+    public void stop() {
+        if (!isCancelled()) cancel();
+        onFinish.run();
+    }
+}
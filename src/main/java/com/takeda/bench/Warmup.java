@@ -0,0 +1,142 @@
+package com.takeda.bench;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.gui.EditGUI;
+import com.takeda.sessions.EditSession;
+import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.ItemDataBackend;
+import com.takeda.util.ItemSizeBudget;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Startup warmup ({@code performance.warmup}), so the first {@code /edit} after a restart does not pay for class
+ * loading, the enchantment registry scan and cold code. Building the enchantment indexes and parsing every message
+ * and book template runs on a background thread. Then GUI renders against a synthetic item and session run on the
+ * main thread, because they touch inventories and item data: the base layout, the preview and a page of enchantment
+ * books. Nobody is online at startup, so books are rendered without bypass permissions. Nothing is shown to anyone.
+ */
+public final class Warmup {
+
+    private static final int RENDER_ROUNDS = 20; // Enough to get the render path past the interpreter
+    private static final UUID NOBODY = new UUID(0, 0);
+
+    private final TEditPlugin plugin;
+    private final SettingsManager settings;
+
+    public Warmup(@NotNull TEditPlugin plugin) {
+        this.plugin = plugin;
+        this.settings = plugin.getSettingsManager();
+    }
+
+    /** Starts the background part; the main-thread part is scheduled when it is done. Call at the end of onEnable. */
+    public void start() {
+        List<String> templates = settings.getTemplateFormats(); // Copied here, a reload could change them meanwhile
+        long start = System.nanoTime();
+        Thread thread = new Thread(() -> {
+            int enchantments = 0;
+            try {
+                enchantments = warmIndexes();
+                warmTemplates(templates);
+            } catch (Exception e) { // Warmup is best effort, the caches fill on first use anyway
+                plugin.getLogger().log(Level.WARNING, "Warmup stopped early: " + e.getMessage());
+            }
+            long backgroundNanos = System.nanoTime() - start;
+            int enchantmentCount = enchantments;
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> finish(start, backgroundNanos, enchantmentCount, templates.size()));
+            }
+        }, "T-Edit Warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Sorted registry, key prefix index and the display names books are built from. */
+    private int warmIndexes() {
+        List<Enchantment> enchantments = EnchantmentUtil.getSortedEnchantments();
+        EnchantmentUtil.getEnchantmentKeysByPrefix("");
+        MiniMessage miniMessage = settings.miniMessage();
+        for (Enchantment enchantment : enchantments) {
+            miniMessage.serialize(EnchantmentUtil.getFriendlyName(enchantment));
+        }
+        return enchantments.size();
+    }
+
+    /** Parses every template once; MiniMessage is thread-safe and unknown placeholder tags are kept as text. */
+    private void warmTemplates(@NotNull List<String> templates) {
+        MiniMessage miniMessage = settings.miniMessage();
+        for (String template : templates) {
+            miniMessage.deserialize(template);
+        }
+    }
+
+    private void finish(long start, long backgroundNanos, int enchantments, int templates) {
+        long mainStart = System.nanoTime();
+        int books;
+        try {
+            books = renderSynthetic();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Warmup renders failed: " + e.getMessage());
+            return;
+        }
+        long end = System.nanoTime();
+        plugin.getLogger().info(String.format(Locale.ROOT, "Warmup done in %.1f ms (%.1f ms in the background, %.1f ms on the main thread): "
+                        + "%d enchantments, %d templates, %d synthetic renders (layout, preview and %d books).",
+                (end - start) / 1e6, backgroundNanos / 1e6, (end - mainStart) / 1e6, enchantments, templates, RENDER_ROUNDS, books));
+    }
+
+    /**
+     * Base layout, preview, a page of enchantment books, applicability, policy check and size measurement for a sword
+     * with a name, lore and enchantments.
+     * @return the number of books rendered per round
+     */
+    private int renderSynthetic() {
+        ItemStack item = new ItemStack(Material.DIAMOND_SWORD);
+        ItemMeta meta = item.getItemMeta();
+        meta.displayName(settings.miniMessage().deserialize("<gradient:#AA00FF:#DD55FF>Warmup Blade"));
+        meta.lore(List.of(Component.text("Synthetic item for the startup warmup")));
+        meta.addEnchant(Enchantment.SHARPNESS, 3, true);
+        meta.addEnchant(Enchantment.UNBREAKING, 2, true);
+        item.setItemMeta(meta);
+
+        EditSession session = new EditSession(NOBODY, item, -1,
+                Bukkit.createInventory(null, settings.getGuiSize(), settings.getGuiTitleComponent()));
+        ItemDataBackend backend = plugin.getItemDataBackend();
+        List<Enchantment> enchantments = EnchantmentUtil.getSortedEnchantments();
+        // First page of books as a player would see it; populateEnchantments itself needs an online player
+        List<Integer> bookSlots = settings.getEnchantmentSlots();
+        List<Enchantment> page = new ArrayList<>(bookSlots.size());
+        for (Enchantment enchantment : enchantments) {
+            if (page.size() == bookSlots.size()) break;
+            if (EnchantmentUtil.isApplicableTo(enchantment, item)) page.add(enchantment);
+        }
+        for (int round = 0; round < RENDER_ROUNDS; round++) {
+            EditGUI.populateBaseLayout(session, settings);
+            EditGUI.placePreviewItem(session);
+            Map<Enchantment, Integer> current = backend.open(item).getEnchantments();
+            for (int i = 0; i < page.size(); i++) {
+                ItemStack book = EditGUI.createEnchantmentBook(page.get(i), session, settings, plugin, current, false, false, null);
+                int slot = bookSlots.get(i);
+                if (slot >= 0 && slot < session.getGuiInventory().getSize()) session.getGuiInventory().setItem(slot, book);
+            }
+            for (Enchantment enchantment : enchantments) EnchantmentUtil.isApplicableTo(enchantment, item);
+            EnchantmentUtil.enforcePolicy(current, false, settings, null);
+            ItemSizeBudget.measure(item);
+        }
+        return page.size();
+    }
+}
@@ -3,30 +3,72 @@ package com.takeda.commands;
 import com.takeda.TEditPlugin;
 import com.takeda.config.SettingsManager;
 import com.takeda.gui.EditGUI;
+import com.takeda.gui.InspectGUI;
+import com.takeda.gui.PresetGUI;
+import com.takeda.presets.Preset;
+import com.takeda.presets.PresetStore;
 import com.takeda.sessions.EditSessionManager;
 import com.takeda.util.EnchantmentUtil; // Added
+import com.takeda.util.ItemEditTransaction;
+import com.takeda.util.ItemSizeBudget;
+import com.takeda.util.ItemUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.command.ProxiedCommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 /**
  * Handles the /edit command execution, performing initial checks and opening the GUI.
+ * <p>
+ * With arguments, edits the held item directly without a GUI or session:
+ * {@code enchant <key> <level>}, {@code rename <text>}, {@code lore add|set|insert|remove ...},
+ * {@code repair} and {@code clear enchants|lore}. Console/scripts can run these through {@code /execute as <player> run edit ...}:
+ * the command then acts on that player's held item, with that player's permissions.
+ * {@code batch <slots...>|type [material]} opens the GUI for several items at once.
+ * {@code preset [save|apply|delete|list]} manages saved presets; without an action it opens the preset browser.
+ * {@code copy} and {@code paste [all|enchants|name|lore]} move properties between items through the player's clipboard.
+ * {@code inspect [player]} shows a read-only view of a held item and only needs {@code tedit.inspect}.
  */
-public class EditCommand implements CommandExecutor {
+public class EditCommand implements CommandExecutor, TabCompleter {
 
     private final TEditPlugin plugin;
     private final SettingsManager settings;
     private final EditSessionManager sessionManager;
 
+    private static final List<String> SUBCOMMANDS = List.of("enchant", "rename", "lore", "repair", "clear", "batch", "preset", "copy", "paste", "inspect");
+    private static final List<String> LORE_ACTIONS = List.of("add", "set", "insert", "remove");
+    private static final List<String> CLEAR_TARGETS = List.of("enchants", "lore");
+    private static final List<String> PRESET_ACTIONS = List.of("save", "apply", "delete", "list");
+    private static final List<String> PASTE_PARTS = List.of("all", "enchants", "name", "lore");
+    private static final int MAX_LEVEL_SUGGESTIONS = 10;
+    // Named player inventory slots for /edit batch (numbers 0-40 work as well)
+    private static final Map<String, Integer> NAMED_SLOTS = Map.of("offhand", 40, "head", 39, "chest", 38, "legs", 37, "feet", 36);
+
     public EditCommand(@NotNull TEditPlugin plugin) {
         this.plugin = Objects.requireNonNull(plugin, "Plugin instance cannot be null");
         // Managers are guaranteed non-null by plugin enable sequence if successful
@@ -36,13 +78,26 @@ public class EditCommand implements CommandExecutor {
 
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
-        if (!(sender instanceof Player player)) {
+        // /execute as <player> delivers a proxy; act as the player it targets
+        CommandSender target = sender instanceof ProxiedCommandSender proxied ? proxied.getCallee() : sender;
+        if (!(target instanceof Player player)) {
             Component message = settings.getMessageComponent("error_player_only");
             plugin.adventure().sender(sender).sendMessage(message);
             return true;
         }
 
-        // Base permission 'tedit.use' is handled by Bukkit based on plugin.yml
+        // 'tedit.use' is checked here rather than on the command, so moderators with only 'tedit.inspect' can inspect
+        boolean inspect = args.length > 0 && args[0].equalsIgnoreCase("inspect");
+        if (!inspect && !player.hasPermission("tedit.use")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.use"));
+            settings.playSound(player, "action_fail");
+            return true;
+        }
+
+        if (args.length > 0) {
+            handleDirectEdit(player, args);
+            return true;
+        }
 
         if (sessionManager.isActive(player.getUniqueId())) {
             settings.sendMessage(player, "error_already_editing");
@@ -98,4 +153,535 @@ public class EditCommand implements CommandExecutor {
         }
         return true;
     }
-}
\ No newline at end of file
+
+    // --- Direct Edits (no GUI, no session) ---
+
+    private void handleDirectEdit(@NotNull Player player, @NotNull String[] args) {
+        String subCommand = args[0].toLowerCase();
+        if (!SUBCOMMANDS.contains(subCommand)) {
+            settings.sendMessage(player, "usage_edit");
+            return;
+        }
+        if (subCommand.equals("batch")) {
+            handleBatch(player, args);
+            return;
+        }
+        if (subCommand.equals("preset")) {
+            handlePreset(player, args);
+            return;
+        }
+        if (subCommand.equals("inspect")) {
+            handleInspect(player, args);
+            return;
+        }
+
+        if ((subCommand.equals("copy") || subCommand.equals("paste")) && !player.hasPermission("tedit.clipboard")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.clipboard"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        // A GUI session keeps its own preview of the item; editing underneath it would desync the two
+        if (sessionManager.isActive(player.getUniqueId())) {
+            settings.sendMessage(player, "error_already_editing");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        ItemStack itemInHand = player.getInventory().getItemInMainHand();
+        if (itemInHand.getType().isAir()) {
+            settings.sendMessage(player, "error_no_item_in_hand");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (settings.isItemBlacklisted(itemInHand.getType())) {
+            settings.sendMessage(player, "error_item_blacklisted",
+                    Placeholder.unparsed("item", itemInHand.getType().getKey().toString()));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        // Edits the held stack in place: same permission, cap and conflict rules as the GUI
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemInHand, player, settings);
+        if (transaction == null) return;
+
+        switch (subCommand) {
+            case "enchant" -> handleEnchant(player, transaction, args);
+            case "rename" -> {
+                if (args.length < 2) { settings.sendMessage(player, "usage_edit"); return; }
+                Component name = settings.miniMessage().deserialize(joinArgs(args, 1));
+                finish(player, transaction, transaction.setName(name), "tedit.rename", "success_item_renamed", null);
+            }
+            case "lore" -> handleLore(player, transaction, args);
+            case "repair" -> finish(player, transaction, transaction.repair(), "tedit.repair", "actionbar_item_repaired", "actionbar_item_not_repairable");
+            case "clear" -> {
+                String target = args.length > 1 ? args[1].toLowerCase() : "";
+                switch (target) {
+                    case "enchants" -> finish(player, transaction, transaction.removeAllEnchantments(), "tedit.enchant.base", "actionbar_enchants_cleared", "actionbar_no_enchants_to_clear");
+                    case "lore" -> finish(player, transaction, transaction.clearLore(), "tedit.lore.clear", "actionbar_lore_cleared", "actionbar_no_lore_to_clear");
+                    default -> settings.sendMessage(player, "usage_edit");
+                }
+            }
+            case "copy" -> {
+                Preset entry = plugin.getClipboard().copy(player.getUniqueId(), transaction); // Read only, nothing to commit
+                settings.sendMessage(player, "actionbar_clipboard_copied",
+                        Placeholder.unparsed("enchant_count", String.valueOf(entry.enchantments().size())),
+                        Placeholder.unparsed("lore_lines", String.valueOf(entry.lore().size())));
+                settings.playSound(player, "action_success");
+            }
+            case "paste" -> handlePaste(player, transaction, args);
+            default -> settings.sendMessage(player, "usage_edit");
+        }
+    }
+
+    private void handleEnchant(@NotNull Player player, @NotNull ItemEditTransaction transaction, @NotNull String[] args) {
+        if (args.length < 3) {
+            settings.sendMessage(player, "usage_edit");
+            return;
+        }
+        Enchantment enchantment = EnchantmentUtil.getEnchantmentByKey(args[1]);
+        if (enchantment == null) {
+            settings.sendMessage(player, "error_unknown_enchantment", Placeholder.unparsed("input", args[1]));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        Integer level = parseNumber(player, args[2]);
+        if (level == null) return;
+
+        int maxLevel = EnchantmentUtil.getMaxLevel(enchantment, player, settings);
+        if (level > maxLevel) { // Explicit request above the cap: refuse rather than silently clamping
+            settings.sendMessage(player, "error_invalid_level", Placeholder.unparsed("input", args[2]), Placeholder.unparsed("max_level", String.valueOf(maxLevel)));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        ItemEditTransaction.Result result = transaction.setEnchantment(enchantment, level);
+        if (result == ItemEditTransaction.Result.CONFLICT) {
+            Enchantment conflicting = transaction.findConflict(enchantment);
+            settings.sendMessage(player, "actionbar_error_conflict",
+                    Placeholder.component("enchantment", EnchantmentUtil.getFriendlyName(enchantment)),
+                    Placeholder.component("conflicting", conflicting != null ? EnchantmentUtil.getFriendlyName(conflicting) : Component.empty()));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        String successKey = level <= 0 ? "actionbar_enchant_removed" : "actionbar_enchant_set";
+        finish(player, transaction, result, "tedit.enchant.base", successKey, null,
+                Placeholder.component("enchantment", EnchantmentUtil.getFriendlyName(enchantment)),
+                Placeholder.parsed("level", String.valueOf(transaction.getEnchantmentLevel(enchantment))));
+    }
+
+    private void handleLore(@NotNull Player player, @NotNull ItemEditTransaction transaction, @NotNull String[] args) {
+        String action = args.length > 1 ? args[1].toLowerCase() : "";
+        if (action.equals("add")) {
+            if (args.length < 3) { settings.sendMessage(player, "usage_edit"); return; }
+            finish(player, transaction, transaction.addLoreLine(settings.miniMessage().deserialize(joinArgs(args, 2))), "tedit.lore.edit", "success_lore_added", null);
+            return;
+        }
+        if (!LORE_ACTIONS.contains(action) || args.length < 3 || (!action.equals("remove") && args.length < 4)) {
+            settings.sendMessage(player, "usage_edit");
+            return;
+        }
+
+        Integer line = parseNumber(player, args[2]);
+        if (line == null) return;
+        int index = line - 1; // Players count lines from 1
+        TagResolver linePlaceholder = Placeholder.unparsed("line", String.valueOf(line));
+        switch (action) {
+            case "set" -> finish(player, transaction, transaction.setLoreLine(index, settings.miniMessage().deserialize(joinArgs(args, 3))),
+                    "tedit.lore.edit", "success_lore_line_updated", null, linePlaceholder);
+            case "insert" -> finish(player, transaction, transaction.insertLoreLine(index, settings.miniMessage().deserialize(joinArgs(args, 3))),
+                    "tedit.lore.edit", "success_lore_line_inserted", null, linePlaceholder);
+            default -> finish(player, transaction, transaction.removeLoreLine(index),
+                    "tedit.lore.edit", "actionbar_lore_line_removed", null, linePlaceholder);
+        }
+    }
+
+    /** Pastes all or part of the clipboard in one transaction, reporting what the held item could not take. */
+    private void handlePaste(@NotNull Player player, @NotNull ItemEditTransaction transaction, @NotNull String[] args) {
+        Preset entry = plugin.getClipboard().get(player.getUniqueId());
+        if (entry == null) {
+            settings.sendMessage(player, "actionbar_clipboard_empty");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        Set<Preset.Part> parts = args.length > 1 ? Preset.Part.parse(args[1]) : EnumSet.allOf(Preset.Part.class);
+        if (parts == null) {
+            settings.sendMessage(player, "usage_edit");
+            return;
+        }
+
+        List<String> skipped = entry.applyTo(transaction, parts);
+        if (!skipped.isEmpty()) {
+            settings.sendMessage(player, "clipboard_skipped", Placeholder.unparsed("skipped", String.join(", ", skipped)));
+        }
+        ItemEditTransaction.Result result = transaction.isDirty() ? ItemEditTransaction.Result.CHANGED : ItemEditTransaction.Result.UNCHANGED;
+        finish(player, transaction, result, "tedit.clipboard", "actionbar_clipboard_pasted", "actionbar_clipboard_unchanged");
+    }
+
+    /**
+     * Commits a direct edit and reports the outcome. The held item is measured only when the size budget is enabled
+     * and the edit grows the item.
+     */
+    private void finish(@NotNull Player player, @NotNull ItemEditTransaction transaction, @NotNull ItemEditTransaction.Result result,
+                        @NotNull String permission, @NotNull String successKey, @Nullable String unchangedKey, @NotNull TagResolver... resolvers) {
+        switch (result) {
+            case NO_PERMISSION -> {
+                settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", permission));
+                settings.playSound(player, "action_fail");
+            }
+            case FAILED -> {
+                settings.sendMessage(player, "error_lore_line_missing"); // Only lore line ops report FAILED
+                settings.playSound(player, "action_fail");
+            }
+            case UNCHANGED, CONFLICT -> {
+                settings.sendMessage(player, unchangedKey != null ? unchangedKey : "info_no_changes");
+                settings.playSound(player, "action_fail");
+            }
+            case CHANGED -> {
+                int maxBytes = settings.getMaxItemBytes();
+                int delta = transaction.estimateSizeDelta();
+                if (maxBytes > 0 && delta > 0) {
+                    int size = ItemSizeBudget.measure(transaction.getItemStack());
+                    if (size + delta > maxBytes) {
+                        settings.sendMessage(player, "actionbar_error_size_budget",
+                                Placeholder.unparsed("size", String.valueOf(size)),
+                                Placeholder.unparsed("new_size", String.valueOf(size + delta)),
+                                Placeholder.unparsed("max_size", String.valueOf(maxBytes)));
+                        settings.playSound(player, "action_fail");
+                        return;
+                    }
+                }
+                plugin.getRollbackVault().save(player, player.getInventory().getHeldItemSlot(), transaction.getItemStack());
+                if (!transaction.commit()) {
+                    settings.sendMessage(player, "actionbar_error_enchant_failed");
+                    settings.playSound(player, "action_fail");
+                    return;
+                }
+                plugin.getAuditLog().record(player, "command", player.getInventory().getHeldItemSlot(), transaction);
+                settings.sendMessage(player, successKey, resolvers);
+                settings.playSound(player, "action_success");
+            }
+        }
+    }
+
+    // --- Batch Sessions ---
+
+    /** Opens a batch GUI over the given slots, or every inventory item of a type. The held item (if selected) is the primary. */
+    private void handleBatch(@NotNull Player player, @NotNull String[] args) {
+        if (!player.hasPermission("tedit.batch")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.batch"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (args.length < 2) {
+            settings.sendMessage(player, "usage_edit_batch");
+            return;
+        }
+        if (sessionManager.isActive(player.getUniqueId())) {
+            settings.sendMessage(player, "error_already_editing");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        PlayerInventory inventory = player.getInventory();
+        Set<Integer> slots = new LinkedHashSet<>(); // Keeps selection order, drops duplicates
+        if (args[1].equalsIgnoreCase("type")) {
+            Material type = args.length > 2 ? Material.matchMaterial(args[2]) : inventory.getItemInMainHand().getType();
+            if (type == null || type.isAir()) {
+                settings.sendMessage(player, "error_unknown_material", Placeholder.unparsed("input", args.length > 2 ? args[2] : "-"));
+                settings.playSound(player, "action_fail");
+                return;
+            }
+            for (int slot = 0; slot < inventory.getSize(); slot++) {
+                ItemStack item = inventory.getItem(slot);
+                if (item != null && item.getType() == type) slots.add(slot);
+            }
+        } else {
+            for (int i = 1; i < args.length; i++) {
+                int slot = parseSlot(args[i], inventory);
+                if (slot < 0) {
+                    settings.sendMessage(player, "error_invalid_slot", Placeholder.unparsed("input", args[i]));
+                    settings.playSound(player, "action_fail");
+                    return;
+                }
+                slots.add(slot);
+            }
+        }
+
+        // Only real, editable items take part
+        slots.removeIf(slot -> {
+            ItemStack item = inventory.getItem(slot);
+            return item == null || item.getType().isAir() || settings.isItemBlacklisted(item.getType());
+        });
+        if (slots.isEmpty()) {
+            settings.sendMessage(player, "error_batch_empty");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        int heldSlot = inventory.getHeldItemSlot();
+        int primarySlot = slots.contains(heldSlot) ? heldSlot : slots.iterator().next();
+        int[] batchSlots = new int[slots.size()];
+        Material[] batchTypes = new Material[slots.size()];
+        int index = 0;
+        for (int slot : slots) {
+            batchSlots[index] = slot;
+            batchTypes[index++] = Objects.requireNonNull(inventory.getItem(slot)).getType();
+        }
+
+        try {
+            EditGUI.createAndOpen(player, Objects.requireNonNull(inventory.getItem(primarySlot)), primarySlot, batchSlots, batchTypes, plugin);
+            settings.playSound(player, "gui_open");
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to create and open T-Edit batch GUI for " + player.getName(), e);
+            settings.sendMessage(player, "error_gui_open_failed");
+            settings.playSound(player, "action_fail");
+            sessionManager.closeSession(player.getUniqueId(), "Batch GUI creation failed in command");
+        }
+    }
+
+    // --- Inspect ---
+
+    /** Opens the read-only inspect view of the player's held item, or of another online player's held item. */
+    private void handleInspect(@NotNull Player player, @NotNull String[] args) {
+        if (!player.hasPermission("tedit.inspect")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.inspect"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        Player target = player;
+        if (args.length > 1) {
+            if (!player.hasPermission("tedit.inspect.others")) {
+                settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.inspect.others"));
+                settings.playSound(player, "action_fail");
+                return;
+            }
+            target = Bukkit.getPlayerExact(args[1]);
+            if (target == null) {
+                settings.sendMessage(player, "error_player_not_found", Placeholder.unparsed("input", args[1]));
+                settings.playSound(player, "action_fail");
+                return;
+            }
+        }
+        // Opening another inventory would close the edit GUI underneath
+        if (sessionManager.isActive(player.getUniqueId())) {
+            settings.sendMessage(player, "error_already_editing");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        ItemStack item = target.getInventory().getItemInMainHand();
+        if (item.getType().isAir()) {
+            if (target == player) settings.sendMessage(player, "error_no_item_in_hand");
+            else settings.sendMessage(player, "error_target_no_item", Placeholder.unparsed("player", target.getName()));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        InspectGUI.open(player, target, item, plugin);
+    }
+
+    // --- Presets ---
+
+    /** Preset actions run against the store off-thread; results are reported back on the server thread. */
+    private void handlePreset(@NotNull Player player, @NotNull String[] args) {
+        if (!player.hasPermission("tedit.preset")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.preset"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (args.length < 2) {
+            if (sessionManager.isActive(player.getUniqueId())) {
+                settings.sendMessage(player, "error_already_editing");
+                settings.playSound(player, "action_fail");
+                return;
+            }
+            PresetGUI.open(player, plugin);
+            return;
+        }
+
+        String action = args[1].toLowerCase();
+        PresetStore store = plugin.getPresetStore();
+        UUID playerId = player.getUniqueId();
+        if (action.equals("list")) {
+            store.list(playerId).whenCompleteAsync((entries, error) -> {
+                if (error != null) { reportStoreError(player); return; }
+                if (entries.isEmpty()) {
+                    settings.sendMessage(player, "preset_list_empty");
+                    return;
+                }
+                String names = entries.stream()
+                        .map(entry -> entry.isGlobal() ? entry.name() + " (" + settings.getRawMessageWithoutPrefix("preset_scope_global") + ")" : entry.name())
+                        .collect(Collectors.joining(", "));
+                settings.sendMessage(player, "preset_list", Placeholder.unparsed("presets", names));
+            }, store.mainThread());
+            return;
+        }
+        if (!PRESET_ACTIONS.contains(action) || args.length < 3) {
+            settings.sendMessage(player, "usage_edit_preset");
+            return;
+        }
+        String name = args[2];
+        if (!PresetStore.isValidName(name)) {
+            settings.sendMessage(player, "error_preset_invalid_name");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        boolean global = args.length > 3 && args[3].equalsIgnoreCase("global");
+        if (global && !player.hasPermission("tedit.preset.global")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.preset.global"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        TagResolver presetPlaceholder = Placeholder.unparsed("preset", name);
+
+        switch (action) {
+            case "save" -> {
+                ItemEditTransaction transaction = ItemEditTransaction.open(player.getInventory().getItemInMainHand());
+                if (transaction == null) {
+                    settings.sendMessage(player, "error_no_item_in_hand");
+                    settings.playSound(player, "action_fail");
+                    return;
+                }
+                // Captured on the server thread; only the write happens off-thread
+                Preset preset = Preset.capture(global ? null : playerId, name, transaction);
+                store.save(preset).whenCompleteAsync((ignored, error) -> {
+                    if (error != null) { reportStoreError(player); return; }
+                    settings.sendMessage(player, "preset_saved", presetPlaceholder);
+                    settings.playSound(player, "action_success");
+                }, store.mainThread());
+            }
+            case "apply" -> store.find(playerId, name).whenCompleteAsync((preset, error) -> {
+                if (!player.isOnline()) return;
+                if (error != null) { reportStoreError(player); return; }
+                if (preset == null) {
+                    settings.sendMessage(player, "error_preset_not_found", presetPlaceholder);
+                    settings.playSound(player, "action_fail");
+                    return;
+                }
+                PresetGUI.applyToHeldItem(player, preset, plugin);
+            }, store.mainThread());
+            default -> store.delete(global ? null : playerId, name).whenCompleteAsync((deleted, error) -> {
+                if (error != null) { reportStoreError(player); return; }
+                settings.sendMessage(player, deleted ? "preset_deleted" : "error_preset_not_found", presetPlaceholder);
+                settings.playSound(player, deleted ? "action_success" : "action_fail");
+            }, store.mainThread());
+        }
+    }
+
+    private void reportStoreError(@NotNull Player player) {
+        if (!player.isOnline()) return;
+        settings.sendMessage(player, "error_preset_store");
+        settings.playSound(player, "action_fail");
+    }
+
+    /** Parses a player inventory slot number (0-40), "hand" or a named armor/offhand slot. Returns -1 if invalid. */
+    private static int parseSlot(@NotNull String input, @NotNull PlayerInventory inventory) {
+        String lowerInput = input.toLowerCase();
+        if (lowerInput.equals("hand")) return inventory.getHeldItemSlot();
+        Integer named = NAMED_SLOTS.get(lowerInput);
+        if (named != null) return named;
+        try {
+            int slot = Integer.parseInt(input);
+            return slot >= 0 && slot < inventory.getSize() ? slot : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Nullable
+    private Integer parseNumber(@NotNull Player player, @NotNull String input) {
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            settings.sendMessage(player, "error_invalid_number", Placeholder.unparsed("input", input));
+            settings.playSound(player, "action_fail");
+            return null;
+        }
+    }
+
+    @NotNull
+    private static String joinArgs(@NotNull String[] args, int from) {
+        return String.join(" ", Arrays.copyOfRange(args, from, args.length));
+    }
+
+    // --- Tab Completion ---
+
+    @Nullable
+    @Override
+    public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) return Collections.emptyList();
+
+        if (args.length == 1) {
+            if (player.hasPermission("tedit.use")) return filterPrefix(SUBCOMMANDS, args[0]);
+            return player.hasPermission("tedit.inspect") ? filterPrefix(List.of("inspect"), args[0]) : Collections.emptyList();
+        }
+        String subCommand = args[0].toLowerCase();
+        if (subCommand.equals("enchant")) {
+            if (args.length == 2) {
+                // Prefix index lookup, then keep only enchantments this player may apply
+                return EnchantmentUtil.getEnchantmentKeysByPrefix(args[1]).stream()
+                        .filter(key -> {
+                            Enchantment enchantment = EnchantmentUtil.getEnchantmentByKey(key);
+                            return enchantment != null && EnchantmentUtil.canPlayerApply(player, enchantment, settings);
+                        })
+                        .collect(Collectors.toList());
+            }
+            if (args.length == 3) {
+                Enchantment enchantment = EnchantmentUtil.getEnchantmentByKey(args[1]);
+                if (enchantment == null) return Collections.emptyList();
+                int maxLevel = Math.min(EnchantmentUtil.getMaxLevel(enchantment, player, settings), MAX_LEVEL_SUGGESTIONS);
+                List<String> levels = new ArrayList<>(maxLevel + 1);
+                for (int level = 0; level <= maxLevel; level++) levels.add(String.valueOf(level));
+                return filterPrefix(levels, args[2]);
+            }
+        } else if (subCommand.equals("lore")) {
+            if (args.length == 2) return filterPrefix(LORE_ACTIONS, args[1]);
+            if (args.length == 3 && !args[1].equalsIgnoreCase("add")) {
+                int lineCount = ItemUtil.getLore(player.getInventory().getItemInMainHand()).size();
+                if (args[1].equalsIgnoreCase("insert")) lineCount++; // Can insert after the last line
+                List<String> lines = new ArrayList<>(lineCount);
+                for (int line = 1; line <= lineCount; line++) lines.add(String.valueOf(line));
+                return filterPrefix(lines, args[2]);
+            }
+        } else if (subCommand.equals("clear") && args.length == 2) {
+            return filterPrefix(CLEAR_TARGETS, args[1]);
+        } else if (subCommand.equals("inspect") && args.length == 2) {
+            if (!player.hasPermission("tedit.inspect.others")) return Collections.emptyList();
+            List<String> names = new ArrayList<>();
+            for (Player online : Bukkit.getOnlinePlayers()) {
+                if (player.canSee(online)) names.add(online.getName());
+            }
+            return filterPrefix(names, args[1]);
+        } else if (subCommand.equals("paste") && args.length == 2) {
+            return filterPrefix(PASTE_PARTS, args[1]);
+        } else if (subCommand.equals("preset")) {
+            if (args.length == 2) return filterPrefix(PRESET_ACTIONS, args[1]);
+            if (args.length == 4 && (args[1].equalsIgnoreCase("save") || args[1].equalsIgnoreCase("delete")) && player.hasPermission("tedit.preset.global")) {
+                return filterPrefix(List.of("global"), args[3]);
+            }
+        } else if (subCommand.equals("batch")) {
+            if (args.length == 3 && args[1].equalsIgnoreCase("type")) {
+                // Types the player actually carries
+                List<String> types = new ArrayList<>();
+                for (ItemStack item : player.getInventory().getContents()) {
+                    if (item == null || item.getType().isAir()) continue;
+                    String name = item.getType().name().toLowerCase();
+                    if (!types.contains(name)) types.add(name);
+                }
+                return filterPrefix(types, args[2]);
+            }
+            List<String> options = new ArrayList<>(NAMED_SLOTS.keySet());
+            options.add("hand");
+            if (args.length == 2) options.add("type");
+            Collections.sort(options);
+            return filterPrefix(options, args[args.length - 1]);
+        }
+        return Collections.emptyList();
+    }
+
+    @NotNull
+    private static List<String> filterPrefix(@NotNull List<String> options, @NotNull String input) {
+        String lowerInput = input.toLowerCase();
+        return options.stream().filter(option -> option.startsWith(lowerInput)).collect(Collectors.toList());
+    }
+}
@@ -1,32 +1,68 @@
 package com.takeda.commands;
 
 import com.takeda.TEditPlugin;
+import com.takeda.audit.AuditLog;
+import com.takeda.audit.RollbackVault;
+import com.takeda.bench.BenchmarkTask;
 import com.takeda.config.SettingsManager;
+import com.takeda.metrics.LatencyHistogram;
+import com.takeda.metrics.Metrics;
+import com.takeda.metrics.TraceBuffer;
+import com.takeda.metrics.Tracer;
+import com.takeda.metrics.Watchdog;
+import com.takeda.scan.InventoryScanTask;
+import com.takeda.scan.OfflineScanTask;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /**
- * Handles administrative commands for T-Edit, like reloading configurations.
+ * Handles administrative commands for T-Edit, like reloading configurations, policy scans, the self-benchmark and metrics.
  */
 public class TEditAdminCommand implements CommandExecutor, TabCompleter {
 
     private final TEditPlugin plugin;
     private final SettingsManager settings;
 
-    private static final List<String> SUBCOMMANDS = List.of("reload");
+    private static final List<String> SUBCOMMANDS = List.of("reload", "scan", "offline-scan", "bench", "stats", "trace", "audit", "rollback");
+    private static final int DEFAULT_BENCH_ITERATIONS = 1000;
+    private static final int MAX_BENCH_ITERATIONS = 100_000;
+    private static final List<String> SCAN_OPTIONS = List.of("fix", "cancel");
+    private static final List<String> STATS_OPTIONS = List.of("reset");
+    private static final List<String> TRACE_OPTIONS = List.of("dump");
+    private static final int AUDIT_LOOKUP_LIMIT = 10;
+    private static final int ROLLBACK_LIST_LIMIT = 10;
+    private static final DateTimeFormatter ROLLBACK_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ROOT).withZone(ZoneId.systemDefault());
+
+    @Nullable private InventoryScanTask activeScan; // One scan at a time
+    @Nullable private OfflineScanTask activeOfflineScan;
+    @Nullable private BenchmarkTask activeBench;
 
     public TEditAdminCommand(@NotNull TEditPlugin plugin) {
         this.plugin = Objects.requireNonNull(plugin, "Plugin instance cannot be null");
@@ -46,6 +82,20 @@ public class TEditAdminCommand implements CommandExecutor, TabCompleter {
         switch (subCommand) {
             case "reload":
                 return handleReload(sender);
+            case "scan":
+                return handleScan(sender, args);
+            case "offline-scan":
+                return handleOfflineScan(sender, args);
+            case "bench":
+                return handleBench(sender, args);
+            case "stats":
+                return handleStats(sender, args);
+            case "trace":
+                return handleTrace(sender, args);
+            case "audit":
+                return handleAudit(sender, args);
+            case "rollback":
+                return handleRollback(sender, args);
             default:
                 sender.sendMessage(Component.text("Unknown subcommand: " + subCommand, NamedTextColor.RED));
                 return true;
@@ -66,7 +116,9 @@ public class TEditAdminCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Component.text("Reloading T-Edit configurations...", NamedTextColor.YELLOW));
         plugin.getLogger().info("Reloading T-Edit configurations requested by " + sender.getName() + "...");
 
+        boolean watched = plugin.getWatchdog().begin(Watchdog.Operation.RELOAD);
         boolean success = settings.load(); // Call the main load method which reloads all files
+        plugin.getWatchdog().end(watched, null);
 
         if (success) {
             sender.sendMessage(Component.text("T-Edit configurations reloaded successfully.", NamedTextColor.GREEN));
@@ -80,6 +132,340 @@ public class TEditAdminCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    /** /tedit scan [fix|cancel]: checks loaded inventories against the current enchantment policy, a slice per tick. */
+    private boolean handleScan(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("tedit.scan")) {
+            sender.sendMessage(settings.getMessageComponent("error_no_permission", Placeholder.unparsed("permission", "tedit.scan")));
+            return true;
+        }
+        String option = args.length > 1 ? args[1].toLowerCase() : "";
+        if (option.equals("cancel")) {
+            if (activeScan == null) {
+                sender.sendMessage(settings.getMessageComponent("error_no_scan_running"));
+            } else {
+                activeScan.stop();
+                sender.sendMessage(settings.getMessageComponent("scan_cancelled"));
+            }
+            return true;
+        }
+        if (activeScan != null) {
+            sender.sendMessage(settings.getMessageComponent("error_scan_running"));
+            return true;
+        }
+
+        boolean fix = option.equals("fix");
+        plugin.getLogger().info("Policy scan" + (fix ? " (fix mode)" : "") + " started by " + sender.getName() + ".");
+        InventoryScanTask scan = new InventoryScanTask(plugin, sender, fix, () -> activeScan = null);
+        activeScan = scan;
+        scan.start();
+        return true;
+    }
+
+    /** /tedit offline-scan [fix|cancel]: checks saved player data files on a worker pool and writes a report. */
+    private boolean handleOfflineScan(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("tedit.offline-scan")) {
+            sender.sendMessage(settings.getMessageComponent("error_no_permission", Placeholder.unparsed("permission", "tedit.offline-scan")));
+            return true;
+        }
+        String option = args.length > 1 ? args[1].toLowerCase() : "";
+        if (option.equals("cancel")) {
+            if (activeOfflineScan == null) {
+                sender.sendMessage(settings.getMessageComponent("error_no_scan_running"));
+            } else {
+                activeOfflineScan.stop(); // Completion message follows once in-flight files are done
+                sender.sendMessage(settings.getMessageComponent("scan_cancelled"));
+            }
+            return true;
+        }
+        if (activeOfflineScan != null) {
+            sender.sendMessage(settings.getMessageComponent("error_scan_running"));
+            return true;
+        }
+
+        boolean fix = option.equals("fix");
+        plugin.getLogger().info("Offline policy scan" + (fix ? " (fix mode)" : "") + " started by " + sender.getName() + ".");
+        OfflineScanTask scan = new OfflineScanTask(plugin, sender, fix, () -> activeOfflineScan = null);
+        activeOfflineScan = scan;
+        scan.start();
+        return true;
+    }
+
+    /** /tedit bench [iterations]: times the GUI render and apply paths on this server against a synthetic item. */
+    private boolean handleBench(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(settings.getMessageComponent("error_player_only"));
+            return true;
+        }
+        if (!sender.hasPermission("tedit.bench")) {
+            sender.sendMessage(settings.getMessageComponent("error_no_permission", Placeholder.unparsed("permission", "tedit.bench")));
+            return true;
+        }
+        if (activeBench != null) {
+            sender.sendMessage(settings.getMessageComponent("error_bench_running"));
+            return true;
+        }
+        int iterations = DEFAULT_BENCH_ITERATIONS;
+        if (args.length > 1) {
+            try {
+                iterations = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(settings.getMessageComponent("error_invalid_number", Placeholder.unparsed("input", args[1])));
+                return true;
+            }
+            iterations = Math.max(1, Math.min(iterations, MAX_BENCH_ITERATIONS));
+        }
+
+        plugin.getLogger().info("Self-benchmark (" + iterations + " iterations) started by " + sender.getName() + ".");
+        BenchmarkTask bench = new BenchmarkTask(plugin, player, iterations, () -> activeBench = null);
+        activeBench = bench;
+        bench.start();
+        return true;
+    }
+
+    /** /tedit stats [reset]: live counters and latency percentiles over the last minute and hour. */
+    private boolean handleStats(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("tedit.stats")) {
+            sender.sendMessage(settings.getMessageComponent("error_no_permission", Placeholder.unparsed("permission", "tedit.stats")));
+            return true;
+        }
+        Metrics metrics = plugin.getMetrics();
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            plugin.getLogger().info("Metrics reset by " + sender.getName() + ".");
+            sender.sendMessage(settings.getMessageComponent("stats_reset"));
+            return true;
+        }
+
+        long sinceSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - metrics.getResetAtMillis());
+        sender.sendMessage(settings.getMessageComponent("stats_header",
+                Placeholder.unparsed("since", sinceSeconds / 3600 + "h " + sinceSeconds / 60 % 60 + "m " + sinceSeconds % 60 + "s")));
+        for (LatencyHistogram latency : metrics.getLatencies()) {
+            long[] minute = latency.minutePercentiles(0.50, 0.99);
+            long[] hour = latency.hourPercentiles(0.50, 0.99);
+            sender.sendMessage(settings.getMessageComponent("stats_latency",
+                    Placeholder.unparsed("name", latency.getName()),
+                    Placeholder.unparsed("count", String.valueOf(latency.getCount())),
+                    Placeholder.unparsed("mean", formatMillis(latency.getMeanNanos())),
+                    Placeholder.unparsed("p50_1m", formatMillis(minute[0])),
+                    Placeholder.unparsed("p99_1m", formatMillis(minute[1])),
+                    Placeholder.unparsed("p50_1h", formatMillis(hour[0])),
+                    Placeholder.unparsed("p99_1h", formatMillis(hour[1])),
+                    Placeholder.unparsed("max", formatMillis(latency.getMaxNanos()))));
+        }
+        sender.sendMessage(settings.getMessageComponent("stats_counters",
+                Placeholder.unparsed("sessions", String.valueOf(metrics.getActiveSessions())),
+                Placeholder.unparsed("rejected", String.valueOf(metrics.rejectedClicks.sum())),
+                Placeholder.unparsed("validation", String.valueOf(metrics.validationFailures.sum()))));
+        for (Metrics.Cache cache : metrics.getCaches()) {
+            sender.sendMessage(settings.getMessageComponent("stats_cache",
+                    Placeholder.unparsed("name", cache.getName()),
+                    Placeholder.unparsed("ratio", String.format(Locale.ROOT, "%.1f", cache.getHitRatio() * 100)),
+                    Placeholder.unparsed("hits", String.valueOf(cache.getHits())),
+                    Placeholder.unparsed("misses", String.valueOf(cache.getMisses()))));
+        }
+        return true;
+    }
+
+    /** /tedit trace <player> [dump]: toggles tracing for one player, or writes their trace records to a file. */
+    private boolean handleTrace(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("tedit.trace")) {
+            sender.sendMessage(settings.getMessageComponent("error_no_permission", Placeholder.unparsed("permission", "tedit.trace")));
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(settings.getMessageComponent("usage_tedit_trace"));
+            return true;
+        }
+        Player target = Bukkit.getPlayerExact(args[1]);
+        if (target == null) {
+            sender.sendMessage(settings.getMessageComponent("error_player_not_found", Placeholder.unparsed("input", args[1])));
+            return true;
+        }
+        Tracer tracer = plugin.getTracer();
+
+        if (args.length > 2 && args[2].equalsIgnoreCase("dump")) {
+            TraceBuffer buffer = tracer.getBuffer(target.getUniqueId());
+            if (buffer == null) {
+                sender.sendMessage(settings.getMessageComponent("error_trace_not_enabled", Placeholder.unparsed("player", target.getName())));
+                return true;
+            }
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> { // The buffer can be read while it is still recording
+                try {
+                    Path file = tracer.dump(buffer);
+                    plugin.getLogger().info("Trace for " + buffer.getPlayerName() + " written to " + file + " by " + sender.getName() + ".");
+                    Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(settings.getMessageComponent("trace_dumped",
+                            Placeholder.unparsed("player", buffer.getPlayerName()),
+                            Placeholder.unparsed("file", plugin.getDataFolder().toPath().relativize(file).toString()))));
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Could not write trace for " + buffer.getPlayerName(), e);
+                    Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(settings.getMessageComponent("error_trace_dump_failed")));
+                }
+            });
+            return true;
+        }
+
+        boolean enabled = tracer.toggle(target);
+        plugin.getLogger().info("Tracing " + (enabled ? "enabled" : "disabled") + " for " + target.getName() + " by " + sender.getName() + ".");
+        sender.sendMessage(settings.getMessageComponent(enabled ? "trace_enabled" : "trace_disabled", Placeholder.unparsed("player", target.getName())));
+        return true;
+    }
+
+    /** /tedit audit <player|item>: the latest audit records for a player name or item type, read off the main thread. */
+    private boolean handleAudit(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("tedit.audit")) {
+            sender.sendMessage(settings.getMessageComponent("error_no_permission", Placeholder.unparsed("permission", "tedit.audit")));
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(settings.getMessageComponent("usage_tedit_audit"));
+            return true;
+        }
+        AuditLog auditLog = plugin.getAuditLog();
+        if (!auditLog.isEnabled()) {
+            sender.sendMessage(settings.getMessageComponent("error_audit_disabled"));
+            return true;
+        }
+        String query = args[1];
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                List<String> entries = auditLog.lookup(query, AUDIT_LOOKUP_LIMIT);
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (entries.isEmpty()) {
+                        sender.sendMessage(settings.getMessageComponent("audit_none", Placeholder.unparsed("query", query)));
+                        return;
+                    }
+                    sender.sendMessage(settings.getMessageComponent("audit_header",
+                            Placeholder.unparsed("query", query), Placeholder.unparsed("count", String.valueOf(entries.size()))));
+                    for (String entry : entries) {
+                        sender.sendMessage(settings.getMessageComponent("audit_entry", Placeholder.unparsed("entry", entry.replace('\t', ' '))));
+                    }
+                });
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not look up audit records for " + query, e);
+                Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(settings.getMessageComponent("error_audit_lookup_failed")));
+            }
+        });
+        return true;
+    }
+
+    /** /tedit rollback <player> [id]: lists a player's pre-edit item snapshots, or restores one into their inventory. */
+    private boolean handleRollback(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission("tedit.rollback")) {
+            sender.sendMessage(settings.getMessageComponent("error_no_permission", Placeholder.unparsed("permission", "tedit.rollback")));
+            return true;
+        }
+        if (args.length < 2) {
+            sender.sendMessage(settings.getMessageComponent("usage_tedit_rollback"));
+            return true;
+        }
+        RollbackVault vault = plugin.getRollbackVault();
+        if (!vault.isEnabled()) {
+            sender.sendMessage(settings.getMessageComponent("error_vault_disabled"));
+            return true;
+        }
+        String playerName = args[1];
+
+        if (args.length == 2) { // Listing works for offline players too
+            vault.list(playerName, ROLLBACK_LIST_LIMIT).whenCompleteAsync((snapshots, error) -> {
+                if (error != null) {
+                    sender.sendMessage(settings.getMessageComponent("error_vault_failed"));
+                    return;
+                }
+                if (snapshots.isEmpty()) {
+                    sender.sendMessage(settings.getMessageComponent("rollback_none", Placeholder.unparsed("player", playerName)));
+                    return;
+                }
+                sender.sendMessage(settings.getMessageComponent("rollback_header",
+                        Placeholder.unparsed("player", snapshots.get(0).playerName()), Placeholder.unparsed("count", String.valueOf(snapshots.size()))));
+                for (RollbackVault.Snapshot snapshot : snapshots) {
+                    sender.sendMessage(settings.getMessageComponent("rollback_entry",
+                            Placeholder.unparsed("id", String.valueOf(snapshot.id())),
+                            Placeholder.unparsed("time", ROLLBACK_TIME.format(Instant.ofEpochMilli(snapshot.timeMillis()))),
+                            Placeholder.unparsed("slot", snapshot.slot() >= 0 ? String.valueOf(snapshot.slot()) : "?"),
+                            Placeholder.unparsed("item", snapshot.material().getKey().toString())));
+                }
+            }, vault.mainThread());
+            return true;
+        }
+
+        Player target = Bukkit.getPlayerExact(playerName);
+        if (target == null) {
+            sender.sendMessage(settings.getMessageComponent("error_player_not_found", Placeholder.unparsed("input", playerName)));
+            return true;
+        }
+        long id;
+        try {
+            id = Long.parseLong(args[2].startsWith("#") ? args[2].substring(1) : args[2]);
+        } catch (NumberFormatException e) {
+            sender.sendMessage(settings.getMessageComponent("error_rollback_not_found",
+                    Placeholder.unparsed("id", args[2]), Placeholder.unparsed("player", target.getName())));
+            return true;
+        }
+        vault.load(id).whenCompleteAsync((loaded, error) -> {
+            if (error != null) {
+                sender.sendMessage(settings.getMessageComponent("error_vault_failed"));
+                return;
+            }
+            if (loaded == null || !loaded.snapshot().playerId().equals(target.getUniqueId())) {
+                sender.sendMessage(settings.getMessageComponent("error_rollback_not_found",
+                        Placeholder.unparsed("id", String.valueOf(id)), Placeholder.unparsed("player", target.getName())));
+                return;
+            }
+            if (!target.isOnline()) {
+                sender.sendMessage(settings.getMessageComponent("error_player_not_found", Placeholder.unparsed("input", target.getName())));
+                return;
+            }
+            restoreSnapshot(sender, target, vault, loaded);
+        }, vault.mainThread());
+        return true;
+    }
+
+    /**
+     * Puts a snapshot back into the slot it was taken from if that slot still holds the same item type (the edited
+     * item, which is snapshotted in turn first), otherwise adds it to the inventory.
+     */
+    private void restoreSnapshot(@NotNull CommandSender sender, @NotNull Player target, @NotNull RollbackVault vault, @NotNull RollbackVault.Loaded loaded) {
+        RollbackVault.Snapshot snapshot = loaded.snapshot();
+        if (plugin.getSessionManager().isActive(target.getUniqueId())) { // The open session would write over the restored item
+            sender.sendMessage(settings.getMessageComponent("error_rollback_editing", Placeholder.unparsed("player", target.getName())));
+            return;
+        }
+        ItemStack restored;
+        try {
+            restored = ItemStack.deserializeBytes(loaded.data());
+        } catch (RuntimeException e) { // Corrupt file, or data from a newer server version
+            plugin.getLogger().log(Level.WARNING, "Could not read rollback snapshot #" + snapshot.id(), e);
+            sender.sendMessage(settings.getMessageComponent("error_vault_failed"));
+            return;
+        }
+
+        PlayerInventory inventory = target.getInventory();
+        int slot = snapshot.slot();
+        ItemStack current = slot >= 0 && slot < inventory.getSize() ? inventory.getItem(slot) : null;
+        TagResolver[] placeholders = {
+                Placeholder.unparsed("id", String.valueOf(snapshot.id())),
+                Placeholder.unparsed("item", restored.getType().getKey().toString()),
+                Placeholder.unparsed("slot", String.valueOf(slot)),
+                Placeholder.unparsed("player", target.getName())};
+        if (current != null && current.getType() == restored.getType()) {
+            vault.save(target, slot, current); // So this rollback can be undone as well
+            inventory.setItem(slot, restored);
+            sender.sendMessage(settings.getMessageComponent("rollback_restored", placeholders));
+        } else if (inventory.firstEmpty() != -1) {
+            inventory.addItem(restored);
+            sender.sendMessage(settings.getMessageComponent("rollback_given", placeholders));
+        } else {
+            sender.sendMessage(settings.getMessageComponent("error_rollback_inventory_full", Placeholder.unparsed("player", target.getName())));
+            return;
+        }
+        plugin.getLogger().info("Rollback snapshot #" + snapshot.id() + " (" + restored.getType() + ") restored to " + target.getName() + " by " + sender.getName() + ".");
+    }
+
+    @NotNull
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
     @Nullable
     @Override
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
@@ -89,6 +475,36 @@ public class TEditAdminCommand implements CommandExecutor, TabCompleter {
                     .filter(sub -> sender.hasPermission("tedit." + sub)) // Basic permission check for tab complete
                     .collect(Collectors.toList());
         }
+        if (args.length == 2 && (args[0].equalsIgnoreCase("scan") || args[0].equalsIgnoreCase("offline-scan")) && sender.hasPermission("tedit." + args[0].toLowerCase())) {
+            return SCAN_OPTIONS.stream().filter(option -> option.startsWith(args[1].toLowerCase())).collect(Collectors.toList());
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats") && sender.hasPermission("tedit.stats")) {
+            return STATS_OPTIONS.stream().filter(option -> option.startsWith(args[1].toLowerCase())).collect(Collectors.toList());
+        }
+        if (args[0].equalsIgnoreCase("trace") && sender.hasPermission("tedit.trace")) {
+            if (args.length == 2) {
+                return Bukkit.getOnlinePlayers().stream().map(Player::getName)
+                        .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase())).collect(Collectors.toList());
+            }
+            if (args.length == 3) {
+                return TRACE_OPTIONS.stream().filter(option -> option.startsWith(args[2].toLowerCase())).collect(Collectors.toList());
+            }
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("rollback") && sender.hasPermission("tedit.rollback")) {
+            return Bukkit.getOnlinePlayers().stream().map(Player::getName)
+                    .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase())).collect(Collectors.toList());
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("audit") && sender.hasPermission("tedit.audit")) {
+            String prefix = args[1].toLowerCase(Locale.ROOT);
+            List<String> completions = Bukkit.getOnlinePlayers().stream().map(Player::getName)
+                    .filter(name -> name.toLowerCase(Locale.ROOT).startsWith(prefix)).collect(Collectors.toList());
+            if (!prefix.isEmpty()) { // Item types only once something is typed, there are too many to list
+                Arrays.stream(Material.values()).filter(material -> material.isItem() && !material.isLegacy())
+                        .map(material -> material.name().toLowerCase(Locale.ROOT))
+                        .filter(name -> name.startsWith(prefix)).forEach(completions::add);
+            }
+            return completions;
+        }
         return Collections.emptyList();
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.takeda.config;
 
 import com.takeda.TEditPlugin;
+import com.takeda.metrics.JfrEvents;
+import com.takeda.metrics.Watchdog;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.Material;
 import org.bukkit.Sound;
@@ -11,6 +14,7 @@ import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.inventory.ItemFlag; 
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -20,6 +24,9 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -28,6 +35,9 @@ import java.util.stream.Collectors;
  */
 public class SettingsManager {
 
+    // Defaults for watchdog.thresholds_ms, indexed by Watchdog.Operation ordinal (open, render, apply, reload, scan)
+    private static final long[] DEFAULT_WATCHDOG_THRESHOLDS_MS = {25, 15, 15, 200, 10};
+
     private final TEditPlugin plugin;
     private final MiniMessage miniMessage;
 
@@ -41,6 +51,34 @@ public class SettingsManager {
     private boolean allowBypassConflicts;
     private boolean allowTreasureEnchants;
     private boolean allowCurseEnchants;
+    private boolean stagedModeDefault;
+    private String itemDataBackendMode;
+    private boolean warmupEnabled;
+    private int maxItemBytes;
+    private int scanTickBudgetMillis;
+    private int scanProgressIntervalSeconds;
+    private int offlineScanThreads;
+    private boolean metricsHttpEnabled;
+    private String metricsHttpBind;
+    private int metricsHttpPort;
+    private boolean metricsFileEnabled;
+    private String metricsFilePath;
+    private int metricsFileIntervalSeconds;
+    private boolean watchdogEnabled;
+    private final long[] watchdogThresholdNanos = new long[Watchdog.Operation.values().length];
+    private long watchdogSampleIntervalNanos;
+    private int watchdogMaxReportsPerMinute;
+    private int watchdogStackDepth;
+    private int traceBufferSize;
+    private boolean auditEnabled;
+    private int auditBatchSize;
+    private int auditFlushIntervalMillis;
+    private boolean auditSync;
+    private long auditSegmentMaxBytes;
+    private int auditRetentionDays;
+    private int auditMaxSegments;
+    private boolean vaultEnabled;
+    private int vaultRetentionDays;
     private Set<String> itemBlacklist; 
     private Component guiTitle;
     private int guiSize;
@@ -50,6 +88,13 @@ public class SettingsManager {
     private String enchantBookNameFormat;
     private List<String> enchantBookLoreFormat;
     private List<String> confirmButtonLoreFormat;
+    private Set<ClickType> levelPickerClicks = EnumSet.noneOf(ClickType.class); // Empty = picker disabled
+    private final Map<String, PickerItemConfig> levelPickerItems = new HashMap<>();
+    private final Map<String, PickerItemConfig> loreEditorItems = new HashMap<>();
+    private Component presetGuiTitle;
+    private final Map<String, PickerItemConfig> presetGuiItems = new HashMap<>();
+    private String inspectGuiTitleFormat;
+    private final Map<String, PickerItemConfig> inspectGuiItems = new HashMap<>();
     private final Map<String, String> messageFormats = new HashMap<>();
     private String messagePrefix = "";
     private boolean soundsEnabled;
@@ -67,6 +112,13 @@ public class SettingsManager {
             int customModelData // -1 if not set
     ) {}
 
+    /** Raw (unparsed) formats for a level picker or lore editor item. Placeholders are resolved per render by EditGUI. */
+    public record PickerItemConfig(
+            @NotNull Material material,
+            @NotNull String nameFormat,
+            @NotNull List<String> loreFormat
+    ) {}
+
 
     public SettingsManager(@NotNull TEditPlugin plugin) {
         this.plugin = Objects.requireNonNull(plugin, "Plugin instance cannot be null");
@@ -75,6 +127,18 @@ public class SettingsManager {
 
     /** Loads all configuration files. Returns false if a critical error occurs. */
     public boolean load() {
+        JfrEvents.ConfigReload event = new JfrEvents.ConfigReload();
+        event.begin();
+        boolean success = loadFiles();
+        event.end();
+        if (event.shouldCommit()) {
+            event.success = success;
+            event.commit();
+        }
+        return success;
+    }
+
+    private boolean loadFiles() {
         configFile = new File(plugin.getDataFolder(), "config.yml");
         guiFile = new File(plugin.getDataFolder(), "gui.yml");
         messagesFile = new File(plugin.getDataFolder(), "messages.yml");
@@ -86,10 +150,15 @@ public class SettingsManager {
             saveDefaultConfig("messages.yml", messagesFile);
             saveDefaultConfig("sounds.yml", soundsFile);
 
-            config = loadYamlConfig(configFile);
-            guiConfig = loadYamlConfig(guiFile);
-            messagesConfig = loadYamlConfig(messagesFile);
-            soundsConfig = loadYamlConfig(soundsFile);
+            // The files are independent, so they are parsed in parallel; everything below needs all four
+            CompletableFuture<FileConfiguration> configParse = parseAsync(configFile);
+            CompletableFuture<FileConfiguration> guiParse = parseAsync(guiFile);
+            CompletableFuture<FileConfiguration> messagesParse = parseAsync(messagesFile);
+            CompletableFuture<FileConfiguration> soundsParse = parseAsync(soundsFile);
+            config = awaitParse(configParse);
+            guiConfig = awaitParse(guiParse);
+            messagesConfig = awaitParse(messagesParse);
+            soundsConfig = awaitParse(soundsParse);
 
             // Reloading: Clear old cached maps/lists before loading new ones
             if (guiElements != null) guiElements.clear();
@@ -134,6 +203,29 @@ public class SettingsManager {
         return yamlConfig;
     }
 
+    @NotNull
+    private CompletableFuture<FileConfiguration> parseAsync(@NotNull File file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadYamlConfig(file);
+            } catch (IOException | InvalidConfigurationException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /** Waits for a parse started by {@link #parseAsync}, rethrowing its own exception. */
+    @NotNull
+    private static FileConfiguration awaitParse(@NotNull CompletableFuture<FileConfiguration> parse) throws IOException, InvalidConfigurationException {
+        try {
+            return parse.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) throw ioException;
+            if (e.getCause() instanceof InvalidConfigurationException invalid) throw invalid;
+            throw e;
+        }
+    }
+
     // --- Loading Sections ---
 
     private void loadCoreConfig() {
@@ -143,6 +235,57 @@ public class SettingsManager {
         allowTreasureEnchants = config.getBoolean("enchantments.allow_treasure", true);
         allowCurseEnchants = config.getBoolean("enchantments.allow_curses", true);
 
+        stagedModeDefault = config.getBoolean("editing.staged_mode_default", false);
+        maxItemBytes = Math.max(0, config.getInt("limits.max_item_bytes", 65536));
+        scanTickBudgetMillis = Math.max(1, config.getInt("scan.tick_budget_ms", 2));
+        scanProgressIntervalSeconds = Math.max(1, config.getInt("scan.progress_interval_seconds", 5));
+        int configuredThreads = config.getInt("scan.offline_threads", 0);
+        offlineScanThreads = configuredThreads > 0 ? configuredThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        itemDataBackendMode = config.getString("performance.item_data_backend", "auto"); // Read once at startup
+        warmupEnabled = config.getBoolean("performance.warmup", true); // Only used at startup
+        metricsHttpEnabled = config.getBoolean("metrics.http.enabled", false); // Metrics export settings are read once at startup too
+        metricsHttpBind = config.getString("metrics.http.bind", "127.0.0.1");
+        metricsHttpPort = config.getInt("metrics.http.port", 9465);
+        metricsFileEnabled = config.getBoolean("metrics.file.enabled", false);
+        metricsFilePath = config.getString("metrics.file.path", "metrics/tedit.prom");
+        metricsFileIntervalSeconds = Math.max(1, config.getInt("metrics.file.interval_seconds", 15));
+        watchdogEnabled = config.getBoolean("watchdog.enabled", true); // Read once at startup (starts the sampler thread)
+        long shortestThreshold = Long.MAX_VALUE;
+        for (Watchdog.Operation operation : Watchdog.Operation.values()) {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            long millis = Math.max(0, config.getLong("watchdog.thresholds_ms." + name, DEFAULT_WATCHDOG_THRESHOLDS_MS[operation.ordinal()]));
+            watchdogThresholdNanos[operation.ordinal()] = TimeUnit.MILLISECONDS.toNanos(millis);
+            if (millis > 0) shortestThreshold = Math.min(shortestThreshold, millis);
+        }
+        // Poll four times per shortest threshold, so a slow operation is sampled well before it ends
+        watchdogSampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.clamp(shortestThreshold / 4, 1, 25));
+        watchdogMaxReportsPerMinute = Math.max(0, config.getInt("watchdog.max_reports_per_minute", 6));
+        watchdogStackDepth = Math.max(1, config.getInt("watchdog.stack_depth", 12));
+        traceBufferSize = Math.clamp(config.getInt("debug.trace_buffer_size", 1024), 16, 65536);
+        auditEnabled = config.getBoolean("audit.enabled", true); // Audit settings are read once at startup (they configure the writer thread)
+        auditBatchSize = Math.max(1, config.getInt("audit.batch_size", 64));
+        auditFlushIntervalMillis = Math.max(10, config.getInt("audit.flush_interval_ms", 1000));
+        auditSync = config.getBoolean("audit.sync", false);
+        auditSegmentMaxBytes = Math.max(16, config.getLong("audit.segment_max_kb", 4096)) * 1024;
+        auditRetentionDays = Math.max(0, config.getInt("audit.retention_days", 30));
+        auditMaxSegments = Math.max(0, config.getInt("audit.max_segments", 100));
+        vaultEnabled = config.getBoolean("vault.enabled", true); // Read once at startup
+        vaultRetentionDays = Math.max(1, config.getInt("vault.retention_days", 14));
+
+        // A single click type or a list; survival clients only send MIDDLE in creative mode, hence DROP as well
+        List<String> pickerClickNames = config.isList("level_picker.click") ? config.getStringList("level_picker.click")
+                : config.isString("level_picker.click") ? List.of(config.getString("level_picker.click")) : List.of("MIDDLE", "DROP");
+        Set<ClickType> pickerClicks = EnumSet.noneOf(ClickType.class);
+        for (String pickerClickName : pickerClickNames) {
+            if (pickerClickName == null || pickerClickName.isBlank() || pickerClickName.equalsIgnoreCase("NONE")) continue;
+            try {
+                pickerClicks.add(ClickType.valueOf(pickerClickName.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid click type '" + pickerClickName + "' for level_picker.click in config.yml. Ignoring it.");
+            }
+        }
+        levelPickerClicks = pickerClicks;
+
         // Load item blacklist
         List<String> rawBlacklist = config.getStringList("item-blacklist");
         itemBlacklist = new HashSet<>();
@@ -189,6 +332,44 @@ public class SettingsManager {
         enchantBookNameFormat = Objects.requireNonNullElse(guiConfig.getString("enchantment_display.book_item.name"), "<light_purple>{enchant_name} <gray>Lvl: {level}");
         enchantBookLoreFormat = Objects.requireNonNullElse(guiConfig.getStringList("enchantment_display.book_item.lore"), Collections.emptyList());
 
+        levelPickerItems.clear();
+        levelPickerItems.put("level", parsePickerItem(guiConfig.getConfigurationSection("level_picker.level_item"), Material.EXPERIENCE_BOTTLE,
+                "<light_purple>{enchant_name} <white>Lvl <gold>{level}", List.of("<gray>Click to set this level.")));
+        levelPickerItems.put("custom_level", parsePickerItem(guiConfig.getConfigurationSection("level_picker.custom_level_item"), Material.OAK_SIGN,
+                "<light_purple><bold>Custom Level</bold>", List.of("<gray>Enter a level up to <gold>{max_level}</gold> in chat.")));
+        levelPickerItems.put("back", parsePickerItem(guiConfig.getConfigurationSection("level_picker.back_item"), Material.BARRIER,
+                "<red><bold>Back</bold>", List.of("<gray>Return to the enchantment list.")));
+
+        loreEditorItems.clear();
+        loreEditorItems.put("line", parsePickerItem(guiConfig.getConfigurationSection("lore_editor.line_item"), Material.PAPER,
+                "<gray>Line {line}: <white><text>", List.of("<gray>Left: edit, Right: delete", "<gray>Shift+Left/Right: move up/down")));
+        loreEditorItems.put("add", parsePickerItem(guiConfig.getConfigurationSection("lore_editor.add_item"), Material.WRITABLE_BOOK,
+                "<light_purple><bold>Add Line</bold>", List.of("<gray>Appends a line at the end.")));
+        loreEditorItems.put("back", parsePickerItem(guiConfig.getConfigurationSection("lore_editor.back_item"), Material.BARRIER,
+                "<red><bold>Back</bold>", List.of("<gray>Return to the enchantment list.")));
+
+        presetGuiTitle = parseComponent(guiConfig.getString("preset_gui.title", "<dark_purple>Presets"));
+        presetGuiItems.clear();
+        presetGuiItems.put("preset", parsePickerItem(guiConfig.getConfigurationSection("preset_gui.preset_item"), Material.BOOK,
+                "<light_purple>{preset} <dark_gray>(<scope>)", List.of("<gray>Enchantments: <white><enchants>", "<gray>Left: apply, Shift+Right: delete")));
+        presetGuiItems.put("prev", parsePickerItem(guiConfig.getConfigurationSection("preset_gui.prev_item"), Material.ARROW,
+                "<light_purple><bold>Previous Page</bold>", Collections.emptyList()));
+        presetGuiItems.put("next", parsePickerItem(guiConfig.getConfigurationSection("preset_gui.next_item"), Material.ARROW,
+                "<light_purple><bold>Next Page</bold>", Collections.emptyList()));
+        presetGuiItems.put("info", parsePickerItem(guiConfig.getConfigurationSection("preset_gui.info_item"), Material.PAPER,
+                "<gray>Page {page}/{total_pages}", List.of("<gray><count> presets")));
+
+        inspectGuiTitleFormat = guiConfig.getString("inspect_gui.title", "<dark_purple>Inspect <dark_gray><player>");
+        inspectGuiItems.clear();
+        inspectGuiItems.put("enchantments", parsePickerItem(guiConfig.getConfigurationSection("inspect_gui.enchantments_item"), Material.ENCHANTED_BOOK,
+                "<light_purple><bold>Enchantments</bold> <dark_gray>(<count>)", Collections.emptyList()));
+        inspectGuiItems.put("flags", parsePickerItem(guiConfig.getConfigurationSection("inspect_gui.flags_item"), Material.WHITE_BANNER,
+                "<light_purple><bold>Item Flags</bold> <dark_gray>(<count>)", Collections.emptyList()));
+        inspectGuiItems.put("data", parsePickerItem(guiConfig.getConfigurationSection("inspect_gui.data_item"), Material.COMPARATOR,
+                "<light_purple><bold>Item Data</bold>", Collections.emptyList()));
+        inspectGuiItems.put("lore", parsePickerItem(guiConfig.getConfigurationSection("inspect_gui.lore_item"), Material.WRITABLE_BOOK,
+                "<light_purple><bold>Lore</bold> <dark_gray>(<count>)", Collections.emptyList()));
+
         // Load dynamic lore format for confirm button, ensure it exists even if empty
         confirmButtonLoreFormat = Objects.requireNonNullElse(guiConfig.getStringList("elements.confirm.item.lore"), List.of("<status>")); // Provide a default if missing
 
@@ -292,6 +473,21 @@ public class SettingsManager {
         return new GuiElementConfig(key, enabled, slot, permission, material, name, lore, customModelData);
     }
 
+    @NotNull
+    private PickerItemConfig parsePickerItem(@Nullable ConfigurationSection section, @NotNull Material defaultMat, @NotNull String defaultName, @NotNull List<String> defaultLore) {
+        if (section == null) return new PickerItemConfig(defaultMat, defaultName, defaultLore);
+        Material material = defaultMat;
+        String configMatName = section.getString("material");
+        if (configMatName != null && !configMatName.isBlank()) {
+            Material configMat = Material.matchMaterial(configMatName.toUpperCase());
+            if (configMat != null && !configMat.isAir()) material = configMat;
+            else plugin.getLogger().warning("Invalid sub-view item material '" + configMatName + "'. Using default: " + defaultMat.name());
+        }
+        String name = section.getString("name", defaultName);
+        List<String> lore = section.isList("lore") ? section.getStringList("lore") : defaultLore;
+        return new PickerItemConfig(material, Objects.requireNonNullElse(name, defaultName), lore);
+    }
+
     @NotNull
     private ItemStack parseItemStackFromSection(@Nullable ConfigurationSection section, @NotNull Material defaultMat, @NotNull String defaultName) {
         Material material = defaultMat;
@@ -347,6 +543,112 @@ public class SettingsManager {
         messageFormats.putIfAbsent("info_reload_success", "<green>T-Edit configuration reloaded successfully.");
         messageFormats.putIfAbsent("info_reload_fail", "<red>T-Edit configuration reload failed. Check console.");
         messageFormats.putIfAbsent("gui_page_info", "<gray>Page <gold><page></gold>/<total_pages>");
+        messageFormats.putIfAbsent("gui_mode_staged", "<gold>Staged");
+        messageFormats.putIfAbsent("gui_mode_instant", "<green>Instant");
+        messageFormats.putIfAbsent("actionbar_error_size_budget", "<red>Item too large! <new_size>/<max_size> bytes (now <size>).");
+        messageFormats.putIfAbsent("lore_preview_size", "<dark_gray>Size: <size>/<max_size> bytes (<remaining> left)");
+        messageFormats.putIfAbsent("usage_edit", "<gray>Usage: /edit [enchant <key> <level> | rename <text> | lore add|set|insert|remove ... | repair | clear enchants|lore | batch ... | preset ... | copy | paste [all|enchants|name|lore] | inspect [player]]");
+        messageFormats.putIfAbsent("error_unknown_enchantment", "<red>Unknown enchantment: <input>");
+        messageFormats.putIfAbsent("error_invalid_number", "<red>'<input>' is not a valid number.");
+        messageFormats.putIfAbsent("info_no_changes", "<gray>Nothing to change.");
+        messageFormats.putIfAbsent("usage_edit_batch", "<gray>Usage: /edit batch <slot|hand|head|chest|legs|feet|offhand>... | /edit batch type [material]");
+        messageFormats.putIfAbsent("error_invalid_slot", "<red>'<input>' is not a valid inventory slot.");
+        messageFormats.putIfAbsent("error_unknown_material", "<red>Unknown item type: <input>");
+        messageFormats.putIfAbsent("error_batch_empty", "<red>None of the selected slots hold an editable item.");
+        messageFormats.putIfAbsent("batch_summary", "<light_purple>Changed <changed> of <total> items.");
+        messageFormats.putIfAbsent("batch_skipped_item", "<gray> - <item> <dark_gray>(slot <slot>)</dark_gray>: <reason>");
+        messageFormats.putIfAbsent("batch_reason_moved", "item moved");
+        messageFormats.putIfAbsent("batch_reason_not_applicable", "enchantment not applicable");
+        messageFormats.putIfAbsent("batch_reason_conflict", "conflicting enchantment");
+        messageFormats.putIfAbsent("batch_reason_no_permission", "no permission");
+        messageFormats.putIfAbsent("batch_reason_size", "item size budget exceeded");
+        messageFormats.putIfAbsent("batch_reason_failed", "could not be edited");
+        messageFormats.putIfAbsent("actionbar_batch_unsupported", "<red>Not available while editing several items.");
+        messageFormats.putIfAbsent("lore_preview_batch", "<light_purple>Editing <count> items together");
+        messageFormats.putIfAbsent("prompt_lore_edit_enter", "<gray>Type the new text for lore line <white><line></white> in chat.");
+        messageFormats.putIfAbsent("prompt_lore_insert_enter", "<gray>Type the lore line to insert at line <white><line></white> in chat.");
+        messageFormats.putIfAbsent("success_lore_line_updated", "<green>Lore line <line> updated.");
+        messageFormats.putIfAbsent("success_lore_line_inserted", "<green>Lore line inserted at line <line>.");
+        messageFormats.putIfAbsent("error_lore_line_missing", "<red>That lore line no longer exists.");
+        messageFormats.putIfAbsent("actionbar_lore_line_removed", "<light_purple>Removed lore line <line>.");
+        messageFormats.putIfAbsent("actionbar_lore_line_moved", "<light_purple>Moved lore line to <line>.");
+        messageFormats.putIfAbsent("usage_edit_preset", "<gray>Usage: /edit preset [save <name> [global] | apply <name> | delete <name> [global] | list]");
+        messageFormats.putIfAbsent("preset_saved", "<green>Preset <preset> saved.");
+        messageFormats.putIfAbsent("preset_applied", "<green>Preset <preset> applied.");
+        messageFormats.putIfAbsent("preset_deleted", "<light_purple>Preset <preset> deleted.");
+        messageFormats.putIfAbsent("preset_skipped", "<yellow>Not applied: <skipped>");
+        messageFormats.putIfAbsent("actionbar_clipboard_copied", "<light_purple>Copied: <enchant_count> enchantments, <lore_lines> lore lines.");
+        messageFormats.putIfAbsent("actionbar_clipboard_pasted", "<light_purple>Pasted from clipboard.");
+        messageFormats.putIfAbsent("actionbar_clipboard_unchanged", "<gray>Item already matches the clipboard.");
+        messageFormats.putIfAbsent("actionbar_clipboard_empty", "<red>Clipboard is empty. Copy an item first.");
+        messageFormats.putIfAbsent("clipboard_skipped", "<yellow>Not pasted: <skipped>");
+        messageFormats.putIfAbsent("error_player_not_found", "<red>Player '<input>' is not online.");
+        messageFormats.putIfAbsent("error_target_no_item", "<red><player> is not holding an item.");
+        messageFormats.putIfAbsent("inspect_enchant_line", "<gray><enchantment> <white><level>");
+        messageFormats.putIfAbsent("inspect_stored_enchant_line", "<gray><enchantment> <white><level> <dark_gray>(stored)");
+        messageFormats.putIfAbsent("inspect_flag_line", "<gray><flag>");
+        messageFormats.putIfAbsent("inspect_lore_line", "<dark_gray><line>. <reset><text>");
+        messageFormats.putIfAbsent("inspect_none", "<dark_gray>None");
+        messageFormats.putIfAbsent("inspect_data_type", "<gray>Type: <white><value>");
+        messageFormats.putIfAbsent("inspect_data_amount", "<gray>Amount: <white><value>");
+        messageFormats.putIfAbsent("inspect_data_model", "<gray>Custom model data: <white><value>");
+        messageFormats.putIfAbsent("inspect_data_damage", "<gray>Damage: <white><value>");
+        messageFormats.putIfAbsent("inspect_data_unbreakable", "<gray>Unbreakable: <white><value>");
+        messageFormats.putIfAbsent("inspect_data_repair_cost", "<gray>Repair cost: <white><value>");
+        messageFormats.putIfAbsent("inspect_data_size", "<gray>Size: <white><value> bytes");
+        messageFormats.putIfAbsent("preset_list", "<light_purple>Presets: <presets>");
+        messageFormats.putIfAbsent("preset_list_empty", "<gray>No presets saved yet.");
+        messageFormats.putIfAbsent("preset_scope_player", "personal");
+        messageFormats.putIfAbsent("preset_scope_global", "global");
+        messageFormats.putIfAbsent("error_preset_not_found", "<red>No preset named <preset>.");
+        messageFormats.putIfAbsent("error_preset_invalid_name", "<red>Preset names use letters, digits, _ and - (max 32).");
+        messageFormats.putIfAbsent("error_preset_store", "<red>The preset store is unavailable. Check console.");
+        messageFormats.putIfAbsent("scan_started", "<light_purple>Scanning <sources> inventories and chunks<mode>...");
+        messageFormats.putIfAbsent("scan_mode_fix", " (fixing)");
+        messageFormats.putIfAbsent("scan_progress", "<gray>Scan: <done>/<total> sources, <items> items, <violations> out of policy.");
+        messageFormats.putIfAbsent("scan_violation", "<gray> - <location>: <item> <red><details>");
+        messageFormats.putIfAbsent("scan_complete", "<green>Scan done in <time> ms over <ticks> ticks: <items> items in <inventories> inventories, <violations> out of policy, <fixed> fixed.");
+        messageFormats.putIfAbsent("scan_more_in_console", "<gray>...and <count> more (see console).");
+        messageFormats.putIfAbsent("scan_cancelled", "<yellow>Scan cancelled.");
+        messageFormats.putIfAbsent("error_scan_running", "<red>A scan is already running. Use /tedit scan cancel to stop it.");
+        messageFormats.putIfAbsent("error_no_scan_running", "<red>No scan is running.");
+        messageFormats.putIfAbsent("offline_scan_started", "<light_purple>Scanning saved player data on <threads> threads<mode>...");
+        messageFormats.putIfAbsent("offline_scan_progress", "<gray>Offline scan: <files> files, <violations> out of policy.");
+        messageFormats.putIfAbsent("offline_scan_complete", "<green>Offline scan done in <time> ms: <files> files, <items> items, <violations> out of policy, <fixed> files fixed, <skipped> skipped, <failed> unreadable. Report: <report>");
+        messageFormats.putIfAbsent("bench_started", "<light_purple>Benchmarking <operations> operations: <warmup> warmup + <iterations> timed iterations each...");
+        messageFormats.putIfAbsent("bench_result", "<gray><operation>: mean <mean> ns, p50 <p50>, p90 <p90>, p99 <p99>, max <max> ns, <bytes> B/op");
+        messageFormats.putIfAbsent("bench_complete", "<green>Benchmark done. Results are also in the console.");
+        messageFormats.putIfAbsent("error_bench_running", "<red>A benchmark is already running.");
+        messageFormats.putIfAbsent("stats_header", "<light_purple>T-Edit metrics (since <since> ago), times in ms:");
+        messageFormats.putIfAbsent("stats_latency", "<gray><name>: <count> samples, mean <mean> | 1m p50 <p50_1m> p99 <p99_1m> | 1h p50 <p50_1h> p99 <p99_1h> | max <max>");
+        messageFormats.putIfAbsent("stats_counters", "<gray>Active sessions <sessions>, rejected clicks <rejected>, validation failures <validation>");
+        messageFormats.putIfAbsent("stats_cache", "<gray>Cache <name>: <ratio>% hits (<hits> hits, <misses> misses)");
+        messageFormats.putIfAbsent("stats_reset", "<green>T-Edit metrics reset.");
+        messageFormats.putIfAbsent("usage_tedit_trace", "<gray>Usage: /tedit trace <player> [dump]");
+        messageFormats.putIfAbsent("trace_enabled", "<green>Tracing <player>. Use /tedit trace <player> dump to write the records to a file.");
+        messageFormats.putIfAbsent("trace_disabled", "<yellow>Tracing stopped for <player>; their records were discarded.");
+        messageFormats.putIfAbsent("trace_dumped", "<green>Trace for <player> written to <file>");
+        messageFormats.putIfAbsent("error_trace_not_enabled", "<red>Tracing is not on for <player>.");
+        messageFormats.putIfAbsent("error_trace_dump_failed", "<red>Could not write the trace file. See the console.");
+        messageFormats.putIfAbsent("usage_tedit_audit", "<gray>Usage: /tedit audit <player|item>");
+        messageFormats.putIfAbsent("audit_header", "<gold>Latest edits for <query> (<count>, newest first):");
+        messageFormats.putIfAbsent("audit_entry", "<gray><entry>");
+        messageFormats.putIfAbsent("audit_none", "<yellow>No audit records for <query>.");
+        messageFormats.putIfAbsent("error_audit_disabled", "<red>The audit log is disabled (audit.enabled in config.yml).");
+        messageFormats.putIfAbsent("error_audit_lookup_failed", "<red>Could not read the audit log. See the console.");
+        messageFormats.putIfAbsent("usage_tedit_rollback", "<gray>Usage: /tedit rollback <player> [id]");
+        messageFormats.putIfAbsent("rollback_header", "<gold>Item snapshots of <player> (<count>, newest first). Restore one with /tedit rollback <player> <id>:");
+        messageFormats.putIfAbsent("rollback_entry", "<gray>#<id> <time> slot <slot> <item>");
+        messageFormats.putIfAbsent("rollback_none", "<yellow>No item snapshots for <player>.");
+        messageFormats.putIfAbsent("rollback_restored", "<green>Restored snapshot #<id> (<item>) into slot <slot> of <player>'s inventory.");
+        messageFormats.putIfAbsent("rollback_given", "<green>Gave snapshot #<id> (<item>) to <player>; the item in its old slot was left alone.");
+        messageFormats.putIfAbsent("error_rollback_not_found", "<red>No snapshot #<id> for <player>.");
+        messageFormats.putIfAbsent("error_rollback_editing", "<red><player> has the editor open. Try again once they close it.");
+        messageFormats.putIfAbsent("error_rollback_inventory_full", "<red><player>'s inventory is full.");
+        messageFormats.putIfAbsent("error_vault_disabled", "<red>The rollback vault is disabled (vault.enabled in config.yml).");
+        messageFormats.putIfAbsent("error_vault_failed", "<red>Could not read the rollback vault. See the console.");
+        messageFormats.putIfAbsent("prompt_level_enter", "<light_purple>Enter a level between 1 and <max_level> for <enchantment> in chat:");
+        messageFormats.putIfAbsent("error_invalid_level", "<red>'<input>' is not a valid level (1-<max_level>).");
         // Add others as needed...
         if (debugEnabled) plugin.getLogger().info("[Debug] Message formats loaded (" + messageFormats.size() + " entries).");
     }
@@ -413,6 +715,55 @@ public class SettingsManager {
     public boolean isAllowBypassConflicts() { return allowBypassConflicts; }
     public boolean isAllowTreasureEnchants() { return allowTreasureEnchants; }
     public boolean isAllowCurseEnchants() { return allowCurseEnchants; }
+    public boolean isStagedModeDefault() { return stagedModeDefault; }
+    /** Max estimated serialized size of an edited item in bytes, 0 if unlimited. */
+    public int getMaxItemBytes() { return maxItemBytes; }
+    /** Milliseconds per tick a policy scan may spend. */
+    public int getScanTickBudgetMillis() { return scanTickBudgetMillis; }
+    public int getScanProgressIntervalSeconds() { return scanProgressIntervalSeconds; }
+    /** Worker threads for /tedit offline-scan (resolved from "0 = auto"). */
+    public int getOfflineScanThreads() { return offlineScanThreads; }
+    public boolean isMetricsHttpEnabled() { return metricsHttpEnabled; }
+    @NotNull public String getMetricsHttpBind() { return Objects.requireNonNullElse(metricsHttpBind, "127.0.0.1"); }
+    public int getMetricsHttpPort() { return metricsHttpPort; }
+    public boolean isMetricsFileEnabled() { return metricsFileEnabled; }
+    /** Metrics file path, relative to the plugin folder unless absolute. */
+    @NotNull public String getMetricsFilePath() { return Objects.requireNonNullElse(metricsFilePath, "metrics/tedit.prom"); }
+    public int getMetricsFileIntervalSeconds() { return metricsFileIntervalSeconds; }
+    public boolean isWatchdogEnabled() { return watchdogEnabled; }
+    /** Threshold before an operation is reported; 0 if its check is off. */
+    public long getWatchdogThresholdNanos(@NotNull Watchdog.Operation operation) { return watchdogThresholdNanos[operation.ordinal()]; }
+    public long getWatchdogSampleIntervalNanos() { return watchdogSampleIntervalNanos; }
+    public int getWatchdogMaxReportsPerMinute() { return watchdogMaxReportsPerMinute; }
+    public int getWatchdogStackDepth() { return watchdogStackDepth; }
+    /** Records kept per traced player; applies to tracing turned on after a reload. */
+    public int getTraceBufferSize() { return traceBufferSize; }
+
+    // Audit log (startup only)
+    public boolean isAuditEnabled() { return auditEnabled; }
+    public int getAuditBatchSize() { return auditBatchSize; }
+    public int getAuditFlushIntervalMillis() { return auditFlushIntervalMillis; }
+    public boolean isAuditSync() { return auditSync; }
+    public long getAuditSegmentMaxBytes() { return auditSegmentMaxBytes; }
+    /** Days closed segments are kept; 0 keeps them regardless of age. */
+    public int getAuditRetentionDays() { return auditRetentionDays; }
+    /** Closed segments kept at most; 0 means no limit. */
+    public int getAuditMaxSegments() { return auditMaxSegments; }
+
+    // Rollback vault (startup only)
+    public boolean isVaultEnabled() { return vaultEnabled; }
+    public int getVaultRetentionDays() { return vaultRetentionDays; }
+    public boolean isWarmupEnabled() { return warmupEnabled; }
+    /** Every message template plus the enchantment book name and lore templates, copied; for the startup warmup. */
+    @NotNull
+    public List<String> getTemplateFormats() {
+        List<String> templates = new ArrayList<>(messageFormats.values());
+        templates.add(getEnchantBookNameFormat());
+        templates.addAll(getEnchantBookLoreFormat());
+        return templates;
+    }
+
+    @NotNull public String getItemDataBackendMode() { return Objects.requireNonNullElse(itemDataBackendMode, "auto"); }
     public boolean isItemBlacklisted(@NotNull Material material) {
         return itemBlacklist != null && itemBlacklist.contains(material.getKey().toString());
     }
@@ -432,6 +783,33 @@ public class SettingsManager {
     @NotNull public List<String> getEnchantBookLoreFormat() { return enchantBookLoreFormat != null ? Collections.unmodifiableList(enchantBookLoreFormat) : Collections.emptyList(); }
     @NotNull public List<String> getConfirmButtonLoreFormat() { return confirmButtonLoreFormat != null ? Collections.unmodifiableList(confirmButtonLoreFormat) : Collections.emptyList(); }
     @NotNull public MiniMessage miniMessage() { return miniMessage; }
+    /** Whether this click on an enchantment book opens the level picker. */
+    public boolean isLevelPickerClick(@NotNull ClickType clickType) { return levelPickerClicks.contains(clickType); }
+    /** False if level_picker.click lists no valid click type. */
+    public boolean isLevelPickerEnabled() { return !levelPickerClicks.isEmpty(); }
+    @NotNull public PickerItemConfig getLevelPickerItem(@NotNull String key) {
+        PickerItemConfig config = levelPickerItems.get(key);
+        return config != null ? config : new PickerItemConfig(Material.PAPER, "<red>" + key, Collections.emptyList());
+    }
+
+    @NotNull public PickerItemConfig getLoreEditorItem(@NotNull String key) {
+        PickerItemConfig config = loreEditorItems.get(key);
+        return config != null ? config : new PickerItemConfig(Material.PAPER, "<red>" + key, Collections.emptyList());
+    }
+
+    @NotNull public Component getPresetGuiTitleComponent() { return Objects.requireNonNullElseGet(presetGuiTitle, () -> parseComponent("<red>ERR")); }
+    @NotNull public PickerItemConfig getPresetGuiItem(@NotNull String key) {
+        PickerItemConfig config = presetGuiItems.get(key);
+        return config != null ? config : new PickerItemConfig(Material.PAPER, "<red>" + key, Collections.emptyList());
+    }
+
+    @NotNull public Component getInspectGuiTitleComponent(@NotNull String playerName) {
+        return miniMessage.deserialize(Objects.requireNonNullElse(inspectGuiTitleFormat, "<red>ERR"), Placeholder.unparsed("player", playerName));
+    }
+    @NotNull public PickerItemConfig getInspectGuiItem(@NotNull String key) {
+        PickerItemConfig config = inspectGuiItems.get(key);
+        return config != null ? config : new PickerItemConfig(Material.PAPER, "<red>" + key, Collections.emptyList());
+    }
 
     // --- Message & Sound ---
     @NotNull private String getRawMessageFormat(@NotNull String key) {
@@ -1,10 +1,14 @@
 package com.takeda.gui;
 
 import com.takeda.TEditPlugin;
+import com.takeda.metrics.JfrEvents;
+import com.takeda.metrics.TraceBuffer;
+import com.takeda.metrics.Watchdog;
 import com.takeda.config.SettingsManager;
 import com.takeda.sessions.EditSession;
 import com.takeda.sessions.EditSessionManager;
 import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.ItemSizeBudget;
 import com.takeda.util.ItemUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -37,32 +41,78 @@ public class EditGUI {
     private static final Pattern MESSAGE_KEY_PATTERN = Pattern.compile("^<key:([\\w_.-]+)>$");
     private static final MiniMessage mm = MiniMessage.miniMessage(); // Cache MiniMessage instance
 
+    /** Levels listed directly by the level picker; higher levels go through chat entry. */
+    public static final int MAX_PICKER_LEVELS = 9;
+    /** Picker PDC values for the non-level entries. */
+    public static final int PICKER_CUSTOM_LEVEL = -1;
+    public static final int PICKER_BACK = -2;
+    /** Lore editor PDC values for the non-line entries (lines use their 0-based index). */
+    public static final int LORE_EDITOR_ADD = -1;
+    public static final int LORE_EDITOR_BACK = -2;
+    /** Elements rendered by {@link #updateStagedElements} instead of the static layout. */
+    private static final Set<String> STAGED_ELEMENT_KEYS = Set.of("staged_toggle", "commit_changes", "discard_changes");
+
     /** Creates the GUI, populates it, and opens it for the player. */
     public static void createAndOpen(@NotNull Player player, @NotNull ItemStack itemToEdit, int itemSlot, @NotNull TEditPlugin plugin) throws IllegalStateException {
+        createAndOpen(player, itemToEdit, itemSlot, new int[0], new Material[0], plugin);
+    }
+
+    /**
+     * Creates a batch GUI: itemToEdit/itemSlot is the primary item shown in the preview, every action also applies
+     * to the items in batchSlots (types snapshotted in batchTypes). Staged mode is not available for batches.
+     */
+    public static void createAndOpen(@NotNull Player player, @NotNull ItemStack itemToEdit, int itemSlot, @NotNull int[] batchSlots, @NotNull Material[] batchTypes, @NotNull TEditPlugin plugin) throws IllegalStateException {
         SettingsManager settings = plugin.getSettingsManager();
         EditSessionManager sessionManager = plugin.getSessionManager();
+        long start = System.nanoTime();
+        boolean watched = plugin.getWatchdog().begin(Watchdog.Operation.OPEN);
+        JfrEvents.GuiOpen event = new JfrEvents.GuiOpen();
+        event.begin();
 
         Inventory gui = Bukkit.createInventory(null, settings.getGuiSize(), settings.getGuiTitleComponent());
         EditSession session = sessionManager.createSession(player, itemToEdit, itemSlot, gui);
+        session.setBatchSlots(batchSlots, batchTypes);
+        session.setStagedMode(!session.isBatch() && settings.isStagedModeDefault()); // Staged edits live on one preview only
+        if (settings.getMaxItemBytes() > 0) {
+            session.setItemSizeEstimate(ItemSizeBudget.measure(itemToEdit)); // One exact measurement, edits are estimated from here
+            plugin.getMetrics().itemSize.miss();
+        }
 
         try {
             populateBaseLayout(session, settings);
             placePreviewItem(session);
             populateEnchantments(session, settings);
             updatePaginationElements(session, settings); // Called by populateEnchantments too, but safe to call again
+            updateStagedElements(session, settings);
 
             player.openInventory(gui);
+            plugin.getMetrics().guiOpen.recordSince(start);
+            if (session.getTrace() != null) {
+                session.getTrace().record(TraceBuffer.Type.GUI_OPEN, itemSlot, null, session.getBatchSize(), System.nanoTime() - start, TraceBuffer.Outcome.OK);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.describe(player, itemToEdit);
+                event.batchSize = session.getBatchSize();
+                event.commit();
+            }
 
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Critical error populating T-Edit GUI for " + player.getName(), e);
+            if (session.getTrace() != null) {
+                session.getTrace().record(TraceBuffer.Type.GUI_OPEN, itemSlot, null, session.getBatchSize(), System.nanoTime() - start, TraceBuffer.Outcome.FAILED);
+            }
             sessionManager.closeSession(player.getUniqueId(), "GUI Population Error");
             settings.sendMessage(player, "error_gui_open_failed");
             settings.playSound(player, "action_fail");
         }
+        plugin.getWatchdog().end(watched, session);
     }
 
-    /** Fills the GUI with placeholder items in specific areas and static configured elements. */
-    private static void populateBaseLayout(@NotNull EditSession session, @NotNull SettingsManager settings) {
+    /** Fills the GUI with placeholder items in specific areas and static configured elements. Public for /tedit bench. */
+    public static void populateBaseLayout(@NotNull EditSession session, @NotNull SettingsManager settings) {
+        JfrEvents.BaseLayout event = new JfrEvents.BaseLayout();
+        event.begin();
         Inventory gui = session.getGuiInventory();
         ItemStack placeholder = settings.getPlaceholderItem();
         List<Integer> enchantSlotsList = settings.getEnchantmentSlots(); // Get configured enchant slots
@@ -113,14 +163,19 @@ public class EditGUI {
 
         // Place configured static elements (buttons etc.)
         settings.getAllGuiElements().values().forEach(config -> {
-            // Skip preview item, pagination (handled dynamically)
-            if (config.enabled() && !config.key().equals("preview_item") && !config.key().startsWith("page_")) {
+            // Skip preview item, pagination and staged-mode controls (handled dynamically)
+            if (config.enabled() && !config.key().equals("preview_item") && !config.key().startsWith("page_") && !STAGED_ELEMENT_KEYS.contains(config.key())) {
                 ItemStack item = createGuiItem(config);
                 if (item != null) {
                     gui.setItem(config.slot(), item);
                 }
             }
         });
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(Bukkit.getPlayer(session.getPlayerId()), session.getPreviewItem());
+            event.commit();
+        }
     }
 
     @Nullable
@@ -147,18 +202,49 @@ public class EditGUI {
     }
 
     public static void placePreviewItem(@NotNull EditSession session) {
-         // (Keep this method as is, seems correct)
         SettingsManager settings = TEditPlugin.getInstance().getSettingsManager();
         settings.getGuiElement("preview_item").ifPresent(config -> {
             int slot = config.slot();
             if (slot >= 0 && slot < session.getGuiInventory().getSize()) {
-                session.getGuiInventory().setItem(slot, session.getPreviewItem());
+                session.getGuiInventory().setItem(slot, createPreviewDisplay(session, settings));
             } else if (settings.isDebugEnabled()){
                 TEditPlugin.getInstance().getLogger().warning("[Debug] Invalid or missing slot configuration for 'preview_item'.");
             }
         });
     }
 
+    /**
+     * The preview as displayed: a copy with a size headroom line appended when the size budget is enabled,
+     * and the number of items edited together for batch sessions.
+     */
+    @NotNull
+    private static ItemStack createPreviewDisplay(@NotNull EditSession session, @NotNull SettingsManager settings) {
+        int maxBytes = settings.getMaxItemBytes();
+        boolean showSize = maxBytes > 0 && session.getItemSizeEstimate() >= 0;
+        if (!showSize && !session.isBatch()) return session.getPreviewItem();
+
+        ItemStack display = session.getPreviewItem().clone(); // Never decorate the preview itself (staged commits copy it)
+        ItemMeta meta = display.getItemMeta();
+        if (meta == null) return display;
+        List<Component> lore = meta.hasLore() && meta.lore() != null ? new ArrayList<>(meta.lore()) : new ArrayList<>();
+        if (showSize) {
+            int size = session.getItemSizeEstimate();
+            lore.add(mm.deserialize(settings.getRawMessageWithoutPrefix("lore_preview_size"),
+                            Placeholder.unparsed("size", String.valueOf(size)),
+                            Placeholder.unparsed("max_size", String.valueOf(maxBytes)),
+                            Placeholder.unparsed("remaining", String.valueOf(Math.max(0, maxBytes - size))))
+                    .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+        }
+        if (session.isBatch()) {
+            lore.add(mm.deserialize(settings.getRawMessageWithoutPrefix("lore_preview_batch"),
+                            Placeholder.unparsed("count", String.valueOf(session.getBatchSize())))
+                    .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+        }
+        meta.lore(lore);
+        display.setItemMeta(meta);
+        return display;
+    }
+
     /** Populates the enchantment display slots based on the current page, clearing unused slots. */
     public static void populateEnchantments(@NotNull EditSession session, @NotNull SettingsManager settings) {
         TEditPlugin plugin = TEditPlugin.getInstance();
@@ -167,6 +253,12 @@ public class EditGUI {
         Player player = Bukkit.getPlayer(session.getPlayerId());
 
         if (enchantSlots.isEmpty() || player == null || !player.isOnline()) return;
+        long start = System.nanoTime();
+        boolean watched = plugin.getWatchdog().begin(Watchdog.Operation.RENDER);
+        JfrEvents.PageRender event = new JfrEvents.PageRender();
+        event.begin();
+
+        session.closeLevelPicker(); // Rendering books always leaves the level picker
 
         // --- Clear existing enchantment slots first ---
         for (int slot : enchantSlots) {
@@ -175,7 +267,7 @@ public class EditGUI {
              }
         }
 
-        List<Enchantment> applicableEnchants = EnchantmentUtil.getApplicableEnchantmentsForGui(session.getPreviewItem(), player, settings);
+        List<Enchantment> applicableEnchants = getApplicableEnchantments(session, player, settings);
 
         int slotsPerPage = enchantSlots.size();
         int totalEnchants = applicableEnchants.size();
@@ -189,6 +281,9 @@ public class EditGUI {
         List<Enchantment> enchantsToShow = (startIndex < totalEnchants)
                 ? applicableEnchants.subList(startIndex, endIndex)
                 : Collections.emptyList();
+        // One read of the preview's enchantments for the whole page; every book takes its level and conflicts from it
+        Map<Enchantment, Integer> previewEnchants = enchantsToShow.isEmpty() ? Map.of()
+                : plugin.getItemDataBackend().open(session.getPreviewItem()).getEnchantments();
 
         // --- Populate Slots with Books (No Placeholders Here) ---
         for (int i = 0; i < enchantsToShow.size(); i++) {
@@ -197,32 +292,83 @@ public class EditGUI {
 
              int slot = enchantSlots.get(i);
              if (slot >= 0 && slot < gui.getSize()) {
-                 gui.setItem(slot, createEnchantmentBook(enchantsToShow.get(i), session, settings, plugin, player));
+                 gui.setItem(slot, createEnchantmentBook(enchantsToShow.get(i), session, settings, plugin, player, previewEnchants));
              }
         }
         updatePaginationElements(session, settings); // Update pagination after potentially changing total pages
+        plugin.getMetrics().pageRender.recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(player, session.getPreviewItem());
+            event.page = currentPage;
+            event.enchantments = enchantsToShow.size();
+            event.applicable = totalEnchants;
+            event.commit();
+        }
+        if (session.getTrace() != null) {
+            session.getTrace().record(TraceBuffer.Type.PAGE_RENDER, -1, null, currentPage, System.nanoTime() - start, TraceBuffer.Outcome.OK);
+        }
+        plugin.getWatchdog().end(watched, session);
+    }
+
+    /** Enchantments listed as books: those applicable to the preview, or to any item of a batch. */
+    @NotNull
+    private static List<Enchantment> getApplicableEnchantments(@NotNull EditSession session, @NotNull Player player, @NotNull SettingsManager settings) {
+        if (!session.isBatch()) {
+            return EnchantmentUtil.getApplicableEnchantmentsForGui(session.getPreviewItem(), player, settings);
+        }
+        List<ItemStack> batchItems = new ArrayList<>(session.getBatchSize());
+        batchItems.add(session.getPreviewItem());
+        for (int i = 1; i < session.getBatchSize(); i++) {
+            ItemStack item = player.getInventory().getItem(session.getBatchSlot(i));
+            if (item != null && item.getType() == session.getBatchType(i)) batchItems.add(item);
+        }
+        return EnchantmentUtil.getApplicableEnchantmentsForGui(batchItems, player, settings);
     }
 
+    /** Renders one enchantment book for the session's preview, reading its enchantments once. Public for /tedit bench. */
     @NotNull
-    private static ItemStack createEnchantmentBook(@NotNull Enchantment enchant, @NotNull EditSession session, @NotNull SettingsManager settings, @NotNull TEditPlugin plugin, @NotNull Player player) {
+    public static ItemStack createEnchantmentBook(@NotNull Enchantment enchant, @NotNull EditSession session, @NotNull SettingsManager settings, @NotNull TEditPlugin plugin, @NotNull Player player) {
+        return createEnchantmentBook(enchant, session, settings, plugin, player,
+                plugin.getItemDataBackend().open(session.getPreviewItem()).getEnchantments());
+    }
+
+    /**
+     * Renders one enchantment book from enchantments already read from the preview, so a page of books reads the
+     * item once instead of once per level lookup and conflict check.
+     */
+    @NotNull
+    public static ItemStack createEnchantmentBook(@NotNull Enchantment enchant, @NotNull EditSession session, @NotNull SettingsManager settings, @NotNull TEditPlugin plugin, @NotNull Player player,
+                                                  @NotNull Map<Enchantment, Integer> previewEnchants) {
+        boolean canBypassLevel = settings.isAllowBypassLevelCaps() && player.hasPermission("tedit.enchant.bypasslevel");
+        boolean canBypassConflict = settings.isAllowBypassConflicts() && player.hasPermission("tedit.enchant.bypassconflict");
+        return createEnchantmentBook(enchant, session, settings, plugin, previewEnchants, canBypassLevel, canBypassConflict, player);
+    }
+
+    /**
+     * Renders one enchantment book with the player's bypass permissions already resolved, so it also works without an
+     * online player (startup warmup).
+     * @param player only labels the JFR event; null when no player is involved
+     */
+    @NotNull
+    public static ItemStack createEnchantmentBook(@NotNull Enchantment enchant, @NotNull EditSession session, @NotNull SettingsManager settings, @NotNull TEditPlugin plugin,
+                                                  @NotNull Map<Enchantment, Integer> previewEnchants, boolean canBypassLevel, boolean canBypassConflict, @Nullable Player player) {
+        TraceBuffer trace = session.getTrace();
+        long start = trace != null ? System.nanoTime() : 0;
+        JfrEvents.BookRender event = new JfrEvents.BookRender();
+        event.begin();
         ItemStack book = new ItemStack(Material.ENCHANTED_BOOK);
         ItemMeta meta = book.getItemMeta();
         if (meta == null) return book;
 
         ItemStack previewItem = session.getPreviewItem();
-        int currentLevel = previewItem.getEnchantmentLevel(enchant);
-        int maxLevel = EnchantmentUtil.getMaxLevel(enchant, player, settings);
+        int currentLevel = previewEnchants.getOrDefault(enchant, 0);
+        int maxLevel = EnchantmentUtil.getMaxLevel(enchant, canBypassLevel);
         int vanillaMax = enchant.getMaxLevel();
 
         boolean conflicts = false;
         if (currentLevel == 0) {
-            boolean canBypassConflict = settings.isAllowBypassConflicts() && player.hasPermission("tedit.enchant.bypassconflict");
-            conflicts = !canBypassConflict && EnchantmentUtil.conflictsWithExisting(enchant, previewItem);
-        }
-
-        // Debug placeholder values if needed
-        if (settings.isDebugEnabled()) {
-            plugin.getLogger().info("[Debug Placeholder] Enchant: " + enchant.getKey() + ", Name: " + EnchantmentUtil.getFriendlyName(enchant) + ", Level: " + currentLevel + ", MaxLevel: " + maxLevel);
+            conflicts = !canBypassConflict && EnchantmentUtil.conflictsWithExisting(enchant, previewEnchants);
         }
 
         // Get the raw format string from settings
@@ -284,6 +430,7 @@ public class EditGUI {
                         case "lore_enchant_howto_max_shift": shouldAdd = !conflicts && canLevelUp && maxLevel > 1; break;
                         case "lore_enchant_howto_max_bypass": shouldAdd = !conflicts && canLevelUp && maxLevel > vanillaMax; break;
                         case "lore_enchant_howto_remove_shift": shouldAdd = !conflicts && canLevelDown; break;
+                        case "lore_enchant_howto_pick_level": shouldAdd = !conflicts && maxLevel > 1 && settings.isLevelPickerEnabled(); break;
                         case "lore_enchant_howto_add": shouldAdd = !conflicts && currentLevel == 0; break;
                         default:
                              if (processedFormat.contains("---")) {
@@ -317,6 +464,14 @@ public class EditGUI {
         meta.getPersistentDataContainer().set(plugin.getEnchantmentPDCKey(), PersistentDataType.STRING, enchant.getKey().toString());
         meta.addItemFlags(ItemFlag.HIDE_ENCHANTS, ItemFlag.HIDE_ATTRIBUTES, ItemFlag.HIDE_ITEM_SPECIFICS, ItemFlag.HIDE_DYE, ItemFlag.HIDE_ARMOR_TRIM);
         book.setItemMeta(meta);
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(player, previewItem);
+            event.enchantment = enchant.getKey().toString();
+            event.level = currentLevel;
+            event.commit();
+        }
+        if (trace != null) trace.record(TraceBuffer.Type.BOOK_RENDER, -1, enchant, currentLevel, System.nanoTime() - start, TraceBuffer.Outcome.OK);
         return book;
     }
 
@@ -326,13 +481,12 @@ public class EditGUI {
         SettingsManager settings = plugin.getSettingsManager();
         Inventory gui = session.getGuiInventory();
         NamespacedKey pdcKey = plugin.getEnchantmentPDCKey();
-        String targetEnchantKeyStr = enchant.getKey().toString();
         List<Integer> enchantSlots = settings.getEnchantmentSlots();
         Player player = Bukkit.getPlayer(session.getPlayerId());
 
         if (player == null || !player.isOnline() || enchantSlots.isEmpty()) return;
 
-        List<Enchantment> applicableEnchants = EnchantmentUtil.getApplicableEnchantmentsForGui(session.getPreviewItem(), player, settings);
+        List<Enchantment> applicableEnchants = getApplicableEnchantments(session, player, settings);
         int enchantIndex = -1;
         for (int i = 0; i < applicableEnchants.size(); i++) {
             if (applicableEnchants.get(i).equals(enchant)) {
@@ -341,8 +495,7 @@ public class EditGUI {
             }
         }
 
-        if (enchantIndex == -1) {
-            if(settings.isDebugEnabled()) plugin.getLogger().info("[Debug] Enchant " + targetEnchantKeyStr + " no longer applicable during update. Refreshing page.");
+        if (enchantIndex == -1) { // No longer applicable
             populateEnchantments(session, settings); // Refresh whole page
             return;
         }
@@ -360,26 +513,261 @@ public class EditGUI {
                     return;
                  }
             }
-        } else if(settings.isDebugEnabled()) {
-            plugin.getLogger().info("[Debug] Skipped updating book " + targetEnchantKeyStr + " on page " + expectedPage + " (viewing " + session.getEnchantmentPage() + ")");
+        } // Otherwise the book is on another page and is rendered when that page is shown
+    }
+
+
+    /**
+     * Replaces the enchantment slots with a level picker for one enchantment: levels 1 to the effective max
+     * (up to {@link #MAX_PICKER_LEVELS}), a chat entry item when higher levels exist, and a back item.
+     */
+    public static void openLevelPicker(@NotNull EditSession session, @NotNull Enchantment enchant, @NotNull SettingsManager settings) {
+        TEditPlugin plugin = TEditPlugin.getInstance();
+        Inventory gui = session.getGuiInventory();
+        List<Integer> enchantSlots = settings.getEnchantmentSlots();
+        Player player = Bukkit.getPlayer(session.getPlayerId());
+
+        if (enchantSlots.size() < 2 || player == null || !player.isOnline()) return;
+
+        session.openLevelPicker(enchant);
+        for (int slot : enchantSlots) {
+            gui.setItem(slot, null);
         }
+
+        int maxLevel = EnchantmentUtil.getMaxLevel(enchant, player, settings);
+        int currentLevel = EnchantmentUtil.getEnchantmentLevel(session.getPreviewItem(), enchant);
+
+        // Last slot is always "back"; reserve one more for chat entry if not every level fits
+        int capacity = Math.min(MAX_PICKER_LEVELS, enchantSlots.size() - 1);
+        boolean needsCustomEntry = maxLevel > capacity;
+        if (needsCustomEntry) capacity = Math.min(MAX_PICKER_LEVELS, enchantSlots.size() - 2);
+        int levelsShown = Math.min(maxLevel, capacity);
+
+        for (int level = 1; level <= levelsShown; level++) {
+            gui.setItem(enchantSlots.get(level - 1), createPickerItem(settings.getLevelPickerItem("level"), enchant, level, currentLevel, maxLevel, settings, plugin));
+        }
+        if (needsCustomEntry) {
+            gui.setItem(enchantSlots.get(levelsShown), createPickerItem(settings.getLevelPickerItem("custom_level"), enchant, PICKER_CUSTOM_LEVEL, currentLevel, maxLevel, settings, plugin));
+        }
+        gui.setItem(enchantSlots.get(enchantSlots.size() - 1), createPickerItem(settings.getLevelPickerItem("back"), enchant, PICKER_BACK, currentLevel, maxLevel, settings, plugin));
     }
 
+    @NotNull
+    private static ItemStack createPickerItem(@NotNull SettingsManager.PickerItemConfig config, @NotNull Enchantment enchant, int pickerValue, int currentLevel, int maxLevel, @NotNull SettingsManager settings, @NotNull TEditPlugin plugin) {
+        ItemStack item = new ItemStack(config.material(), pickerValue > 0 ? Math.min(pickerValue, config.material().getMaxStackSize()) : 1);
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return item;
+
+        String levelStr = pickerValue > 0 ? String.valueOf(pickerValue) : "";
+        String enchantName = settings.miniMessage().serialize(EnchantmentUtil.getFriendlyName(enchant));
+        TagResolver pickerPlaceholders = TagResolver.builder()
+                .resolver(Placeholder.component("enchant_name", EnchantmentUtil.getFriendlyName(enchant)))
+                .resolver(Placeholder.unparsed("level", levelStr))
+                .resolver(Placeholder.unparsed("current_level", String.valueOf(currentLevel)))
+                .resolver(Placeholder.unparsed("max_level", String.valueOf(maxLevel)))
+                .build();
+
+        try {
+            meta.displayName(mm.deserialize(replacePickerPlaceholders(config.nameFormat(), enchantName, levelStr, currentLevel, maxLevel), pickerPlaceholders)
+                    .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+            List<Component> lore = new ArrayList<>(config.loreFormat().size());
+            for (String format : config.loreFormat()) {
+                lore.add(mm.deserialize(replacePickerPlaceholders(format, enchantName, levelStr, currentLevel, maxLevel), pickerPlaceholders)
+                        .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+            }
+            meta.lore(lore);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error deserializing level picker item: " + config.nameFormat(), e);
+            meta.displayName(Component.text("PICKER PARSE ERROR", NamedTextColor.RED));
+        }
 
-    /** Updates the pagination buttons (prev/next) and info display. */
+        if (pickerValue > 0 && pickerValue == currentLevel) meta.setEnchantmentGlintOverride(true); // Mark current level
+        meta.getPersistentDataContainer().set(plugin.getEnchantmentPDCKey(), PersistentDataType.STRING, enchant.getKey().toString());
+        meta.getPersistentDataContainer().set(plugin.getPickerLevelPDCKey(), PersistentDataType.INTEGER, pickerValue);
+        meta.addItemFlags(ItemFlag.HIDE_ENCHANTS, ItemFlag.HIDE_ATTRIBUTES, ItemFlag.HIDE_ITEM_SPECIFICS, ItemFlag.HIDE_DYE, ItemFlag.HIDE_ARMOR_TRIM);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    @NotNull
+    private static String replacePickerPlaceholders(@NotNull String format, @NotNull String enchantName, @NotNull String level, int currentLevel, int maxLevel) {
+        return format
+                .replace("{enchant_name}", enchantName)
+                .replace("{level}", level)
+                .replace("{current_level}", String.valueOf(currentLevel))
+                .replace("{max_level}", String.valueOf(maxLevel));
+    }
+
+    /** Lines listed per lore editor page: every enchantment slot except the add and back items. */
+    public static int getLoreLinesPerPage(@NotNull SettingsManager settings) {
+        return Math.max(1, settings.getEnchantmentSlots().size() - 2);
+    }
+
+    private static int countLorePages(int lineCount, int linesPerPage) {
+        return lineCount == 0 ? 1 : (lineCount + linesPerPage - 1) / linesPerPage;
+    }
+
+    /**
+     * Replaces the enchantment slots with the lore editor for the session's lore page:
+     * one item per line, then the add and back items in the last two slots.
+     */
+    public static void populateLoreEditor(@NotNull EditSession session, @NotNull SettingsManager settings) {
+        TEditPlugin plugin = TEditPlugin.getInstance();
+        Inventory gui = session.getGuiInventory();
+        List<Integer> enchantSlots = settings.getEnchantmentSlots();
+        if (enchantSlots.size() < 3) return; // Needs at least one line slot next to add/back
+
+        session.openLoreEditor();
+        List<Component> lore = ItemUtil.getLore(session.getPreviewItem());
+        int linesPerPage = getLoreLinesPerPage(settings);
+        session.setTotalLorePages(countLorePages(lore.size(), linesPerPage));
+
+        int startIndex = session.getLorePage() * linesPerPage;
+        for (int i = 0; i < linesPerPage; i++) {
+            int index = startIndex + i;
+            gui.setItem(enchantSlots.get(i), index < lore.size()
+                    ? createLoreEditorItem(settings.getLoreEditorItem("line"), index, lore.get(index), settings, plugin) : null);
+        }
+        gui.setItem(enchantSlots.get(enchantSlots.size() - 2), createLoreEditorItem(settings.getLoreEditorItem("add"), LORE_EDITOR_ADD, null, settings, plugin));
+        gui.setItem(enchantSlots.get(enchantSlots.size() - 1), createLoreEditorItem(settings.getLoreEditorItem("back"), LORE_EDITOR_BACK, null, settings, plugin));
+        updatePaginationElements(session, settings);
+    }
+
+    /**
+     * Re-renders only the lore editor slots showing lines fromIndex..toIndex (inclusive) after a line edit.
+     * Lines outside the current page are skipped; the full page is rendered only if the current page no longer exists.
+     */
+    public static void refreshLoreLines(@NotNull EditSession session, @NotNull SettingsManager settings, int fromIndex, int toIndex) {
+        if (session.getGuiView() != EditSession.GuiView.LORE_EDITOR) return;
+        TEditPlugin plugin = TEditPlugin.getInstance();
+        Inventory gui = session.getGuiInventory();
+        List<Integer> enchantSlots = settings.getEnchantmentSlots();
+        List<Component> lore = ItemUtil.getLore(session.getPreviewItem());
+        int linesPerPage = getLoreLinesPerPage(settings);
+
+        int totalPages = countLorePages(lore.size(), linesPerPage);
+        if (totalPages != session.getTotalLorePages()) {
+            int page = session.getLorePage();
+            session.setTotalLorePages(totalPages); // Clamps the page if it vanished
+            if (page != session.getLorePage()) {
+                populateLoreEditor(session, settings);
+                return;
+            }
+            updatePaginationElements(session, settings);
+        }
+
+        int startIndex = session.getLorePage() * linesPerPage;
+        int from = Math.max(fromIndex, startIndex);
+        int to = Math.min(toIndex, startIndex + linesPerPage - 1);
+        for (int index = from; index <= to; index++) {
+            gui.setItem(enchantSlots.get(index - startIndex), index < lore.size()
+                    ? createLoreEditorItem(settings.getLoreEditorItem("line"), index, lore.get(index), settings, plugin) : null);
+        }
+    }
+
+    @NotNull
+    private static ItemStack createLoreEditorItem(@NotNull SettingsManager.PickerItemConfig config, int editorValue, @Nullable Component text, @NotNull SettingsManager settings, @NotNull TEditPlugin plugin) {
+        ItemStack item = new ItemStack(config.material(), editorValue >= 0 ? Math.min(editorValue + 1, config.material().getMaxStackSize()) : 1);
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return item;
+
+        String lineStr = editorValue >= 0 ? String.valueOf(editorValue + 1) : "";
+        TagResolver linePlaceholders = TagResolver.builder()
+                .resolver(Placeholder.unparsed("line", lineStr))
+                .resolver(Placeholder.component("text", text != null ? text : Component.empty()))
+                .build();
+
+        try {
+            meta.displayName(mm.deserialize(config.nameFormat().replace("{line}", lineStr), linePlaceholders)
+                    .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+            List<Component> lore = new ArrayList<>(config.loreFormat().size());
+            for (String format : config.loreFormat()) {
+                lore.add(mm.deserialize(format.replace("{line}", lineStr), linePlaceholders)
+                        .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+            }
+            meta.lore(lore);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error deserializing lore editor item: " + config.nameFormat(), e);
+            meta.displayName(Component.text("LORE EDITOR PARSE ERROR", NamedTextColor.RED));
+        }
+
+        meta.getPersistentDataContainer().set(plugin.getLoreLinePDCKey(), PersistentDataType.INTEGER, editorValue);
+        meta.addItemFlags(ItemFlag.HIDE_ENCHANTS, ItemFlag.HIDE_ATTRIBUTES, ItemFlag.HIDE_ITEM_SPECIFICS, ItemFlag.HIDE_DYE, ItemFlag.HIDE_ARMOR_TRIM);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /** Re-renders whatever the enchantment area is currently showing (books or lore editor) from the preview. */
+    public static void refreshView(@NotNull EditSession session, @NotNull SettingsManager settings) {
+        if (session.getGuiView() == EditSession.GuiView.LORE_EDITOR) {
+            populateLoreEditor(session, settings);
+        } else {
+            populateEnchantments(session, settings);
+        }
+    }
+
+    /**
+     * Re-opens an existing session's GUI (e.g. after chat input) without creating a new session.
+     * Leaves the level picker for the book list; the lore editor stays open (chat edits refresh their own lines).
+     */
+    public static void reopen(@NotNull Player player, @NotNull EditSession session, @NotNull TEditPlugin plugin) {
+        SettingsManager settings = plugin.getSettingsManager();
+        session.setCurrentState(EditSession.EditActionState.VIEWING);
+        if (session.getGuiView() == EditSession.GuiView.LEVEL_PICKER) {
+            populateEnchantments(session, settings);
+        }
+        placePreviewItem(session);
+        player.openInventory(session.getGuiInventory());
+    }
+
+    /**
+     * Updates the staged-mode controls: the toggle shows the current mode ({mode} placeholder),
+     * commit/discard are only shown while the session is in staged mode.
+     */
+    public static void updateStagedElements(@NotNull EditSession session, @NotNull SettingsManager settings) {
+        Inventory gui = session.getGuiInventory();
+        ItemStack placeholder = settings.getPlaceholderItem();
+        boolean staged = session.isStagedMode();
+
+        settings.getGuiElement("staged_toggle").ifPresent(config -> {
+            if (!config.enabled()) return; int slot = config.slot(); if (slot < 0 || slot >= gui.getSize()) return;
+            ItemStack toggleItem = createGuiItem(config);
+            if (toggleItem == null) return;
+            ItemMeta meta = toggleItem.getItemMeta();
+            if (meta != null) {
+                String mode = settings.getRawMessageWithoutPrefix(staged ? "gui_mode_staged" : "gui_mode_instant");
+                TagResolver modeResolver = Placeholder.parsed("mode", mode);
+                List<Component> lore = new ArrayList<>();
+                for (Component line : config.lore()) {
+                    String format = settings.miniMessage().serialize(line).replace("{mode}", mode);
+                    lore.add(mm.deserialize(format, modeResolver).decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+                }
+                meta.lore(lore);
+                if (staged) meta.setEnchantmentGlintOverride(true);
+                toggleItem.setItemMeta(meta);
+            }
+            gui.setItem(slot, toggleItem);
+        });
+
+        for (String key : List.of("commit_changes", "discard_changes")) {
+            settings.getGuiElement(key).ifPresent(config -> {
+                if (!config.enabled()) return; int slot = config.slot(); if (slot < 0 || slot >= gui.getSize()) return;
+                ItemStack item = staged ? createGuiItem(config) : null;
+                gui.setItem(slot, item != null ? item : placeholder.clone());
+            });
+        }
+    }
+
+    /** Updates the pagination buttons (prev/next) and info display for the enchantment list or lore editor. */
     public static void updatePaginationElements(@NotNull EditSession session, @NotNull SettingsManager settings) {
         Inventory gui = session.getGuiInventory();
-        int currentPage = session.getEnchantmentPage();
-        int totalPages = session.getTotalEnchantmentPages();
+        boolean loreView = session.getGuiView() == EditSession.GuiView.LORE_EDITOR;
+        int currentPage = loreView ? session.getLorePage() : session.getEnchantmentPage();
+        int totalPages = loreView ? session.getTotalLorePages() : session.getTotalEnchantmentPages();
         boolean hasPrev = currentPage > 0;
         boolean hasNext = currentPage < totalPages - 1;
         ItemStack placeholder = settings.getPlaceholderItem();
 
-        // Debug logs if enabled
-        if (settings.isDebugEnabled()) {
-            TEditPlugin.getInstance().getLogger().info("[Debug Placeholder] Page: " + (currentPage + 1) + ", TotalPages: " + totalPages);
-        }
-
         settings.getGuiElement("page_prev").ifPresent(config -> {
             if (!config.enabled()) return; int slot = config.slot(); if(slot < 0 || slot >= gui.getSize()) return;
             gui.setItem(slot, hasPrev ? createGuiItem(config) : placeholder.clone());
@@ -0,0 +1,139 @@
+package com.takeda.gui;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.ItemDataBackend;
+import com.takeda.util.ItemSizeBudget;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.Repairable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only, single-row view of an item for moderators: the item itself plus its exact enchantment levels, item
+ * flags, data (custom model data, damage, repair cost, size) and lore. Rendered once from the item when opened; no
+ * edit session, no clones kept and no refresh, so it costs nothing while left open. The holder only marks the
+ * inventory, clicks go to the static {@link #handleClick}.
+ */
+public final class InspectGUI implements InventoryHolder {
+
+    private static final int SIZE = 9;
+    private static final int SLOT_ITEM = 2;
+    private static final int SLOT_ENCHANTMENTS = 4;
+    private static final int SLOT_FLAGS = 5;
+    private static final int SLOT_DATA = 6;
+    private static final int SLOT_LORE = 7;
+
+    private final Inventory inventory;
+
+    private InspectGUI(@NotNull Component title) {
+        this.inventory = Bukkit.createInventory(this, SIZE, title);
+    }
+
+    /** Opens the view of {@code item} (held by {@code owner}) for {@code viewer}. */
+    public static void open(@NotNull Player viewer, @NotNull Player owner, @NotNull ItemStack item, @NotNull TEditPlugin plugin) {
+        SettingsManager settings = plugin.getSettingsManager();
+        InspectGUI gui = new InspectGUI(settings.getInspectGuiTitleComponent(owner.getName()));
+        Inventory inventory = gui.inventory;
+        ItemStack placeholder = settings.getPlaceholderItem();
+        for (int slot = 0; slot < SIZE; slot++) inventory.setItem(slot, placeholder);
+
+        inventory.setItem(SLOT_ITEM, item.clone()); // The inventory holds its own copy; the owner's stack is never referenced
+        ItemDataBackend.Handle handle = plugin.getItemDataBackend().open(item);
+        ItemMeta meta = item.getItemMeta();
+
+        List<Component> enchantLines = new ArrayList<>();
+        String enchantKey = handle.isEnchantmentStorage() ? "inspect_stored_enchant_line" : "inspect_enchant_line";
+        handle.getEnchantments().forEach((enchantment, level) -> enchantLines.add(line(settings, enchantKey,
+                Placeholder.component("enchantment", EnchantmentUtil.getFriendlyName(enchantment)),
+                Placeholder.unparsed("level", String.valueOf(level)))));
+        inventory.setItem(SLOT_ENCHANTMENTS, createItem(settings, settings.getInspectGuiItem("enchantments"), enchantLines));
+
+        List<Component> flagLines = new ArrayList<>();
+        if (meta != null) {
+            for (ItemFlag flag : meta.getItemFlags()) flagLines.add(line(settings, "inspect_flag_line", Placeholder.unparsed("flag", flag.name())));
+        }
+        inventory.setItem(SLOT_FLAGS, createItem(settings, settings.getInspectGuiItem("flags"), flagLines));
+
+        List<Component> dataLines = new ArrayList<>();
+        dataLines.add(dataLine(settings, "inspect_data_type", item.getType().getKey().toString()));
+        dataLines.add(dataLine(settings, "inspect_data_amount", String.valueOf(item.getAmount())));
+        if (meta != null) {
+            dataLines.add(dataLine(settings, "inspect_data_model", meta.hasCustomModelData() ? String.valueOf(meta.getCustomModelData()) : "-"));
+            if (meta instanceof Damageable damageable && item.getType().getMaxDurability() > 0) {
+                dataLines.add(dataLine(settings, "inspect_data_damage", damageable.getDamage() + "/" + item.getType().getMaxDurability()));
+            }
+            dataLines.add(dataLine(settings, "inspect_data_unbreakable", String.valueOf(meta.isUnbreakable())));
+            if (meta instanceof Repairable repairable && repairable.hasRepairCost()) {
+                dataLines.add(dataLine(settings, "inspect_data_repair_cost", String.valueOf(repairable.getRepairCost())));
+            }
+        }
+        dataLines.add(dataLine(settings, "inspect_data_size", String.valueOf(ItemSizeBudget.measure(item))));
+        inventory.setItem(SLOT_DATA, createItem(settings, settings.getInspectGuiItem("data"), dataLines));
+
+        List<Component> lore = handle.getLore();
+        List<Component> loreLines = new ArrayList<>(lore.size());
+        for (int i = 0; i < lore.size(); i++) {
+            loreLines.add(line(settings, "inspect_lore_line", Placeholder.unparsed("line", String.valueOf(i + 1)), Placeholder.component("text", lore.get(i))));
+        }
+        inventory.setItem(SLOT_LORE, createItem(settings, settings.getInspectGuiItem("lore"), loreLines));
+
+        viewer.openInventory(inventory);
+        settings.playSound(viewer, "gui_open");
+    }
+
+    @NotNull
+    @Override
+    public Inventory getInventory() { return inventory; }
+
+    /** Handles any click while an inspect view is open: nothing in it can be taken or changed. */
+    public static void handleClick(@NotNull InventoryClickEvent event) {
+        event.setCancelled(true);
+    }
+
+    @NotNull
+    private static Component line(@NotNull SettingsManager settings, @NotNull String key, @NotNull TagResolver... resolvers) {
+        return settings.miniMessage().deserialize(settings.getRawMessageWithoutPrefix(key), resolvers)
+                .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE);
+    }
+
+    @NotNull
+    private static Component dataLine(@NotNull SettingsManager settings, @NotNull String key, @NotNull String value) {
+        return line(settings, key, Placeholder.unparsed("value", value));
+    }
+
+    /** Builds an info item: the configured name (with {@code <count>}) and lore, followed by the generated lines. */
+    @NotNull
+    private static ItemStack createItem(@NotNull SettingsManager settings, @NotNull SettingsManager.PickerItemConfig config, @NotNull List<Component> lines) {
+        ItemStack item = new ItemStack(config.material());
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return item;
+        TagResolver count = Placeholder.unparsed("count", String.valueOf(lines.size()));
+        meta.displayName(settings.miniMessage().deserialize(config.nameFormat(), count).decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+        List<Component> lore = new ArrayList<>(config.loreFormat().size() + Math.max(1, lines.size()));
+        for (String format : config.loreFormat()) {
+            lore.add(settings.miniMessage().deserialize(format, count).decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+        }
+        if (lines.isEmpty()) lore.add(line(settings, "inspect_none"));
+        else lore.addAll(lines);
+        meta.lore(lore);
+        meta.addItemFlags(ItemFlag.HIDE_ENCHANTS, ItemFlag.HIDE_ATTRIBUTES, ItemFlag.HIDE_ITEM_SPECIFICS, ItemFlag.HIDE_DYE, ItemFlag.HIDE_ARMOR_TRIM);
+        item.setItemMeta(meta);
+        return item;
+    }
+}
@@ -0,0 +1,284 @@
+package com.takeda.gui;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.presets.Preset;
+import com.takeda.presets.PresetStore;
+import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.ItemEditTransaction;
+import com.takeda.util.ItemSizeBudget;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.Bukkit;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Paged browser for the presets visible to a player (their own and global ones). Not tied to an edit session:
+ * clicking a preset applies it to the held item directly. Entry names come from the store's index; only the
+ * payloads of the shown page are loaded.
+ */
+public final class PresetGUI implements InventoryHolder {
+
+    private static final int SIZE = 54;
+    private static final int PRESETS_PER_PAGE = 45; // Top five rows, the bottom row holds the controls
+    private static final int SLOT_PREV = 48;
+    private static final int SLOT_INFO = 49;
+    private static final int SLOT_NEXT = 50;
+
+    private final Player player;
+    private final TEditPlugin plugin;
+    private final SettingsManager settings;
+    private final Inventory inventory;
+    private List<PresetStore.Entry> entries;
+    private final List<Preset> shown = new ArrayList<>(PRESETS_PER_PAGE);
+    private int page;
+    private int renderId; // Drops page loads that finished after the player already turned the page
+
+    private PresetGUI(@NotNull Player player, @NotNull TEditPlugin plugin, @NotNull List<PresetStore.Entry> entries) {
+        this.player = player;
+        this.plugin = plugin;
+        this.settings = plugin.getSettingsManager();
+        this.entries = entries;
+        this.inventory = Bukkit.createInventory(this, SIZE, settings.getPresetGuiTitleComponent());
+    }
+
+    /** Lists the player's presets off-thread, then opens the browser on the first page. */
+    public static void open(@NotNull Player player, @NotNull TEditPlugin plugin) {
+        PresetStore store = plugin.getPresetStore();
+        store.list(player.getUniqueId()).whenCompleteAsync((entries, error) -> {
+            if (!player.isOnline()) return;
+            SettingsManager settings = plugin.getSettingsManager();
+            if (error != null) {
+                settings.sendMessage(player, "error_preset_store");
+                settings.playSound(player, "action_fail");
+                return;
+            }
+            PresetGUI gui = new PresetGUI(player, plugin, entries);
+            player.openInventory(gui.inventory);
+            gui.renderPage();
+            settings.playSound(player, "gui_open");
+        }, store.mainThread());
+    }
+
+    @NotNull
+    @Override
+    public Inventory getInventory() { return inventory; }
+
+    private int getTotalPages() {
+        return Math.max(1, (entries.size() + PRESETS_PER_PAGE - 1) / PRESETS_PER_PAGE);
+    }
+
+    /** Draws the controls right away and fills the preset slots once the page's payloads are loaded. */
+    private void renderPage() {
+        page = Math.max(0, Math.min(page, getTotalPages() - 1));
+        int id = ++renderId;
+        inventory.clear();
+        shown.clear();
+        ItemStack placeholder = settings.getPlaceholderItem();
+        for (int slot = PRESETS_PER_PAGE; slot < SIZE; slot++) inventory.setItem(slot, placeholder.clone());
+        renderControls();
+
+        int from = page * PRESETS_PER_PAGE;
+        List<PresetStore.Entry> pageEntries = entries.subList(from, Math.min(from + PRESETS_PER_PAGE, entries.size()));
+        PresetStore store = plugin.getPresetStore();
+        store.load(List.copyOf(pageEntries)).whenCompleteAsync((presets, error) -> {
+            if (id != renderId || !player.isOnline() || player.getOpenInventory().getTopInventory() != inventory) return;
+            if (error != null) {
+                settings.sendMessage(player, "error_preset_store");
+                return;
+            }
+            shown.addAll(presets);
+            for (int i = 0; i < presets.size(); i++) inventory.setItem(i, createPresetItem(presets.get(i)));
+        }, store.mainThread());
+    }
+
+    private void renderControls() {
+        String pageStr = String.valueOf(page + 1);
+        String totalStr = String.valueOf(getTotalPages());
+        TagResolver pageResolver = TagResolver.builder()
+                .resolver(Placeholder.unparsed("page", pageStr))
+                .resolver(Placeholder.unparsed("total_pages", totalStr))
+                .resolver(Placeholder.unparsed("count", String.valueOf(entries.size())))
+                .build();
+        if (page > 0) inventory.setItem(SLOT_PREV, createItem(settings.getPresetGuiItem("prev"), pageResolver, pageStr, totalStr));
+        inventory.setItem(SLOT_INFO, createItem(settings.getPresetGuiItem("info"), pageResolver, pageStr, totalStr));
+        if (page < getTotalPages() - 1) inventory.setItem(SLOT_NEXT, createItem(settings.getPresetGuiItem("next"), pageResolver, pageStr, totalStr));
+    }
+
+    @NotNull
+    private ItemStack createPresetItem(@NotNull Preset preset) {
+        List<Component> enchantNames = new ArrayList<>(preset.enchantments().size());
+        preset.enchantments().forEach((key, level) -> {
+            Enchantment enchantment = EnchantmentUtil.getEnchantmentByKey(key);
+            Component name = enchantment != null ? EnchantmentUtil.getFriendlyName(enchantment) : Component.text(key, NamedTextColor.RED);
+            enchantNames.add(name.append(Component.text(" " + level)));
+        });
+        TagResolver resolver = TagResolver.builder()
+                .resolver(Placeholder.unparsed("preset", preset.name()))
+                .resolver(Placeholder.parsed("scope", settings.getRawMessageWithoutPrefix(preset.isGlobal() ? "preset_scope_global" : "preset_scope_player")))
+                .resolver(Placeholder.component("display_name", preset.displayName() != null ? preset.displayName() : Component.text("-")))
+                .resolver(Placeholder.component("enchants", enchantNames.isEmpty() ? Component.text("-") : Component.join(JoinConfiguration.commas(true), enchantNames)))
+                .resolver(Placeholder.unparsed("enchant_count", String.valueOf(enchantNames.size())))
+                .resolver(Placeholder.unparsed("lore_lines", String.valueOf(preset.lore().size())))
+                .build();
+        return createItem(settings.getPresetGuiItem("preset"), resolver, "", "");
+    }
+
+    @NotNull
+    private ItemStack createItem(@NotNull SettingsManager.PickerItemConfig config, @NotNull TagResolver resolver, @NotNull String page, @NotNull String totalPages) {
+        ItemStack item = new ItemStack(config.material());
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return item;
+        try {
+            meta.displayName(settings.miniMessage().deserialize(replacePagePlaceholders(config.nameFormat(), page, totalPages), resolver)
+                    .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+            List<Component> lore = new ArrayList<>(config.loreFormat().size());
+            for (String format : config.loreFormat()) {
+                lore.add(settings.miniMessage().deserialize(replacePagePlaceholders(format, page, totalPages), resolver)
+                        .decorationIfAbsent(TextDecoration.ITALIC, TextDecoration.State.FALSE));
+            }
+            meta.lore(lore);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error deserializing preset GUI item: " + config.nameFormat(), e);
+            meta.displayName(Component.text("PRESET GUI PARSE ERROR", NamedTextColor.RED));
+        }
+        meta.addItemFlags(ItemFlag.HIDE_ENCHANTS, ItemFlag.HIDE_ATTRIBUTES, ItemFlag.HIDE_ITEM_SPECIFICS, ItemFlag.HIDE_DYE, ItemFlag.HIDE_ARMOR_TRIM);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    @NotNull
+    private static String replacePagePlaceholders(@NotNull String format, @NotNull String page, @NotNull String totalPages) {
+        return format.replace("{page}", page).replace("{total_pages}", totalPages);
+    }
+
+    // --- Clicks ---
+
+    /** Handles any click while this GUI is open. The GUI is read-only, so every click is cancelled. */
+    public void handleClick(@NotNull InventoryClickEvent event) {
+        event.setCancelled(true);
+        if (event.getClickedInventory() != inventory) return;
+        int slot = event.getSlot();
+
+        if (slot == SLOT_PREV && page > 0) {
+            page--;
+            renderPage();
+            settings.playSound(player, "page_change");
+            return;
+        }
+        if (slot == SLOT_NEXT && page < getTotalPages() - 1) {
+            page++;
+            renderPage();
+            settings.playSound(player, "page_change");
+            return;
+        }
+        if (slot >= shown.size()) return;
+
+        Preset preset = shown.get(slot);
+        if (event.getClick() == ClickType.SHIFT_RIGHT) {
+            deletePreset(preset);
+        } else if (event.getClick() == ClickType.LEFT) {
+            player.closeInventory();
+            applyToHeldItem(player, preset, plugin);
+        }
+    }
+
+    private void deletePreset(@NotNull Preset preset) {
+        if (preset.isGlobal() && !player.hasPermission("tedit.preset.global")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.preset.global"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        PresetStore store = plugin.getPresetStore();
+        store.delete(preset.owner(), preset.name())
+                .thenCompose(deleted -> store.list(player.getUniqueId()))
+                .whenCompleteAsync((updated, error) -> {
+                    if (!player.isOnline()) return;
+                    if (error != null) {
+                        settings.sendMessage(player, "error_preset_store");
+                        settings.playSound(player, "action_fail");
+                        return;
+                    }
+                    settings.sendMessage(player, "preset_deleted", Placeholder.unparsed("preset", preset.name()));
+                    settings.playSound(player, "action_success");
+                    if (player.getOpenInventory().getTopInventory() != inventory) return;
+                    entries = updated;
+                    renderPage();
+                }, store.mainThread());
+    }
+
+    /**
+     * Applies a preset to the player's held item in one transaction, under the same permission, cap, conflict and
+     * size budget rules as any other edit. Reports enchantments that could not be applied.
+     */
+    public static void applyToHeldItem(@NotNull Player player, @NotNull Preset preset, @NotNull TEditPlugin plugin) {
+        SettingsManager settings = plugin.getSettingsManager();
+        if (plugin.getSessionManager().isActive(player.getUniqueId())) {
+            settings.sendMessage(player, "error_already_editing");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        ItemStack itemInHand = player.getInventory().getItemInMainHand();
+        if (itemInHand.getType().isAir()) {
+            settings.sendMessage(player, "error_no_item_in_hand");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (settings.isItemBlacklisted(itemInHand.getType())) {
+            settings.sendMessage(player, "error_item_blacklisted", Placeholder.unparsed("item", itemInHand.getType().getKey().toString()));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemInHand, player, settings);
+        if (transaction == null) return;
+        List<String> skipped = preset.applyTo(transaction);
+
+        boolean changed = transaction.isDirty();
+        if (changed) {
+            int maxBytes = settings.getMaxItemBytes();
+            int delta = transaction.estimateSizeDelta();
+            if (maxBytes > 0 && delta > 0) {
+                int size = ItemSizeBudget.measure(itemInHand);
+                if (size + delta > maxBytes) {
+                    settings.sendMessage(player, "actionbar_error_size_budget",
+                            Placeholder.unparsed("size", String.valueOf(size)),
+                            Placeholder.unparsed("new_size", String.valueOf(size + delta)),
+                            Placeholder.unparsed("max_size", String.valueOf(maxBytes)));
+                    settings.playSound(player, "action_fail");
+                    return;
+                }
+            }
+            plugin.getRollbackVault().save(player, player.getInventory().getHeldItemSlot(), itemInHand);
+            if (!transaction.commit()) {
+                settings.sendMessage(player, "actionbar_error_enchant_failed");
+                settings.playSound(player, "action_fail");
+                return;
+            }
+            plugin.getAuditLog().record(player, "preset", player.getInventory().getHeldItemSlot(), transaction);
+        }
+
+        settings.sendMessage(player, changed ? "preset_applied" : "info_no_changes", Placeholder.unparsed("preset", preset.name()));
+        if (!skipped.isEmpty()) {
+            settings.sendMessage(player, "preset_skipped", Placeholder.unparsed("skipped", String.join(", ", skipped)));
+        }
+        settings.playSound(player, skipped.isEmpty() ? "action_success" : "action_fail");
+    }
+}
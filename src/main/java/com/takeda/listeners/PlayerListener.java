@@ -1,15 +1,26 @@
 // Keep the PlayerListener class exactly as provided in the previous "immediate apply" response.
-// It correctly calls the revised EnchantmentUtil.applyEnchantment and the updated EditGUI methods.
+// It routes every item edit through ItemEditTransaction and the updated EditGUI methods.
 // It includes the validateAndGetActualItem helper.
 // Paste the full PlayerListener code from the previous response here.
 package com.takeda.listeners;
 
 import com.takeda.TEditPlugin;
+import com.takeda.audit.AuditLog;
+import com.takeda.audit.RollbackVault;
 import com.takeda.config.SettingsManager;
 import com.takeda.gui.EditGUI;
+import com.takeda.gui.InspectGUI;
+import com.takeda.gui.PresetGUI;
+import com.takeda.metrics.JfrEvents;
+import com.takeda.metrics.Metrics;
+import com.takeda.metrics.TraceBuffer;
+import com.takeda.metrics.Watchdog;
+import com.takeda.presets.Preset;
 import com.takeda.sessions.EditSession;
 import com.takeda.sessions.EditSessionManager;
 import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.ItemEditTransaction;
+import com.takeda.util.ItemSizeBudget;
 import com.takeda.util.ItemUtil;
 import io.papermc.paper.event.player.AsyncChatEvent;
 import net.kyori.adventure.text.Component;
@@ -26,8 +37,10 @@ import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.*;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -36,9 +49,14 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.logging.Level;
 
 public class PlayerListener implements Listener {
@@ -46,13 +64,26 @@ public class PlayerListener implements Listener {
     private final TEditPlugin plugin;
     private final SettingsManager settings;
     private final EditSessionManager sessionManager;
+    private final Metrics metrics;
+    private final Watchdog watchdog;
+    private final AuditLog auditLog;
+    private final RollbackVault rollbackVault;
+    private boolean clickRejected; // Set by rejectClick() while a GUI click is dispatched, for its trace record
     private final NamespacedKey enchantKeyPDC;
+    private final NamespacedKey pickerLevelPDC;
+    private final NamespacedKey loreLinePDC;
 
     public PlayerListener(@NotNull TEditPlugin plugin) {
         this.plugin = Objects.requireNonNull(plugin, "Plugin instance cannot be null");
         this.settings = plugin.getSettingsManager();
         this.sessionManager = plugin.getSessionManager();
+        this.metrics = plugin.getMetrics();
+        this.watchdog = plugin.getWatchdog();
+        this.auditLog = plugin.getAuditLog();
+        this.rollbackVault = plugin.getRollbackVault();
         this.enchantKeyPDC = plugin.getEnchantmentPDCKey();
+        this.pickerLevelPDC = plugin.getPickerLevelPDCKey();
+        this.loreLinePDC = plugin.getLoreLinePDCKey();
     }
 
     // --- Helper Method: Validate and Get Actual Item ---
@@ -66,6 +97,7 @@ public class PlayerListener implements Listener {
                 (originalItemFromSession.getMaxStackSize() > 1 && actualItem.getAmount() != originalItemFromSession.getAmount());
 
         if (itemMismatch) {
+            failValidation(session, session.getOriginalSlot());
             // Ensure the session is still active before trying to close it
             if (sessionManager.isActive(player.getUniqueId())) {
                 settings.sendMessage(player, "error_original_item_changed");
@@ -77,6 +109,170 @@ public class PlayerListener implements Listener {
         return actualItem; // Return the actual item stack from inventory
     }
 
+    /** Counts a GUI click that did nothing; the click's trace record shows it as rejected. */
+    private void rejectClick() {
+        metrics.rejectedClicks.increment();
+        clickRejected = true;
+    }
+
+    /** Counts a blocked click in the player inventory below the GUI. */
+    private void rejectOutsideClick(@NotNull InventoryClickEvent event, @NotNull EditSession session) {
+        metrics.rejectedClicks.increment();
+        if (session.getTrace() != null) {
+            session.getTrace().record(TraceBuffer.Type.CLICK_OUTSIDE, event.getSlot(), null, event.getClick().ordinal(), -1, TraceBuffer.Outcome.REJECTED);
+        }
+    }
+
+    /** Counts an edit abandoned because the original (or a batch) item changed or moved. */
+    private void failValidation(@NotNull EditSession session, int slot) {
+        metrics.validationFailures.increment();
+        if (session.getTrace() != null) {
+            session.getTrace().record(TraceBuffer.Type.VALIDATION_FAILED, slot, null, 0, -1, TraceBuffer.Outcome.FAILED);
+        }
+    }
+
+    /**
+     * Returns the item an edit should modify: the session's preview in staged mode (no inventory access),
+     * otherwise the validated actual item. Returns null if validation failed (session closed).
+     */
+    @Nullable
+    private ItemStack resolveEditTarget(@NotNull Player player, @NotNull EditSession session) {
+        if (session.isStagedMode()) {
+            return session.getPreviewItem();
+        }
+        return validateAndGetActualItem(player, session);
+    }
+
+    /**
+     * Commits a transaction unless it would push the item over the configured size budget.
+     * Growth is estimated incrementally from the session's last known size, without re-serializing the item.
+     * @return true if committed; false if rejected or the write failed (player was notified).
+     */
+    private boolean commitEdit(@NotNull Player player, @NotNull EditSession session, @NotNull ItemEditTransaction transaction) {
+        int maxBytes = settings.getMaxItemBytes();
+        int delta = transaction.estimateSizeDelta();
+        if (maxBytes > 0 && delta > 0 && session.getItemSizeEstimate() >= 0) {
+            metrics.itemSize.hit(); // Checked against the session's estimate, no serialization
+            int current = session.getItemSizeEstimate();
+            if (current + delta > maxBytes) {
+                settings.sendActionBar(player, "actionbar_error_size_budget",
+                        Placeholder.unparsed("size", String.valueOf(current)),
+                        Placeholder.unparsed("new_size", String.valueOf(current + delta)),
+                        Placeholder.unparsed("max_size", String.valueOf(maxBytes)));
+                settings.playSound(player, "action_fail");
+                rejectClick();
+                return false;
+            }
+        }
+        if (!session.isStagedMode()) snapshotBeforeEdit(player, session, session.getOriginalSlot(), transaction.getItemStack());
+        long start = System.nanoTime();
+        if (!transaction.commit()) { // Backend refused the data; the item is unchanged and the estimate stays as it was
+            settings.sendActionBar(player, "actionbar_error_enchant_failed");
+            settings.playSound(player, "action_fail");
+            rejectClick();
+            return false;
+        }
+        metrics.apply.recordSince(start);
+        if (!session.isStagedMode()) auditLog.record(player, "gui", session.getOriginalSlot(), transaction); // Staged edits are logged when committed
+        if (session.getItemSizeEstimate() >= 0) session.setItemSizeEstimate(Math.max(0, session.getItemSizeEstimate() + delta));
+        return true;
+    }
+
+    /** Saves an item to the rollback vault before its first edit in the session. Only serializes it here. */
+    private void snapshotBeforeEdit(@NotNull Player player, @NotNull EditSession session, int slot, @NotNull ItemStack item) {
+        if (rollbackVault.isEnabled() && session.markSnapshotted(slot)) rollbackVault.save(player, slot, item);
+    }
+
+    /**
+     * Applies one operation to every item of a batch session in a single pass: one validation sweep over the batch
+     * slots and one transaction (one write) per item, followed by a single preview refresh and one summary message.
+     * Items that moved, do not accept the enchantment, conflict, lack permission or would exceed the size budget
+     * are skipped and listed in the summary.
+     * @param enchantment checked for applicability per item, or null for actions that are not enchantment-specific
+     * @return the number of items changed, or -1 if the primary item failed validation (session closed)
+     */
+    private int applyToBatch(@NotNull Player player, @NotNull EditSession session, @Nullable Enchantment enchantment,
+                             @NotNull Function<ItemEditTransaction, ItemEditTransaction.Result> operation) {
+        ItemStack primary = validateAndGetActualItem(player, session);
+        if (primary == null) return -1;
+
+        PlayerInventory inventory = player.getInventory();
+        int maxBytes = settings.getMaxItemBytes();
+        int changed = 0;
+        List<Component> skippedLines = new ArrayList<>();
+        for (int i = 0; i < session.getBatchSize(); i++) {
+            int slot = session.getBatchSlot(i);
+            ItemStack item = i == 0 ? primary : inventory.getItem(slot);
+            String reason = null;
+            if (item == null || item.getType() != session.getBatchType(i)) {
+                reason = "batch_reason_moved";
+            } else if (enchantment != null && !EnchantmentUtil.isApplicableTo(enchantment, item)) {
+                reason = "batch_reason_not_applicable";
+            } else {
+                ItemEditTransaction transaction = ItemEditTransaction.open(item, player, settings);
+                // An item that cannot carry data is reported as failed like any other skipped item
+                ItemEditTransaction.Result result = transaction != null ? operation.apply(transaction) : ItemEditTransaction.Result.FAILED;
+                switch (result) {
+                    case CHANGED -> {
+                        int delta = transaction.estimateSizeDelta();
+                        boolean checkSize = maxBytes > 0 && delta > 0;
+                        if (checkSize) metrics.itemSize.miss(); // Batch items have no estimate of their own
+                        long start = System.nanoTime();
+                        if (checkSize && ItemSizeBudget.measure(item) + delta > maxBytes) {
+                            reason = "batch_reason_size";
+                        } else {
+                            snapshotBeforeEdit(player, session, slot, item);
+                            if (transaction.commit()) {
+                                changed++;
+                                auditLog.record(player, "batch", slot, transaction);
+                            } else reason = "batch_reason_failed";
+                        }
+                        if (reason == null) metrics.apply.recordSince(start);
+                    }
+                    case UNCHANGED -> { } // Already in the requested state, not worth reporting
+                    case NO_PERMISSION -> reason = "batch_reason_no_permission";
+                    case CONFLICT -> reason = "batch_reason_conflict";
+                    case FAILED -> reason = "batch_reason_failed";
+                }
+            }
+            if (reason != null) {
+                skippedLines.add(settings.miniMessage().deserialize(settings.getRawMessageWithoutPrefix("batch_skipped_item"),
+                        Placeholder.component("item", item != null ? ItemUtil.getItemNameComponent(item) : Component.text("-")),
+                        Placeholder.unparsed("slot", String.valueOf(slot)),
+                        Placeholder.parsed("reason", settings.getRawMessageWithoutPrefix(reason))));
+            }
+        }
+
+        // --- One refresh for the whole batch: the preview shows the primary item ---
+        session.setPreviewItem(primary.clone());
+        if (session.getItemSizeEstimate() >= 0) {
+            session.setItemSizeEstimate(ItemSizeBudget.measure(primary));
+            metrics.itemSize.miss();
+        }
+        EditGUI.placePreviewItem(session);
+
+        Component summary = settings.getMessageComponent("batch_summary",
+                Placeholder.unparsed("changed", String.valueOf(changed)),
+                Placeholder.unparsed("total", String.valueOf(session.getBatchSize())),
+                Placeholder.unparsed("skipped", String.valueOf(skippedLines.size())));
+        for (Component line : skippedLines) {
+            summary = summary.append(Component.newline()).append(line);
+        }
+        plugin.adventure().player(player).sendMessage(summary);
+        return changed;
+    }
+
+    /** Syncs session state after an edit was applied to the item returned by {@link #resolveEditTarget}. */
+    private void onItemEdited(@NotNull EditSession session, @NotNull ItemStack targetItem) {
+        if (session.isStagedMode()) {
+            session.setHasStagedChanges(true); // Preview was modified in place
+            EditGUI.updateStagedElements(session, settings);
+        } else {
+            session.setPreviewItem(targetItem.clone()); // Update preview to match actual item
+        }
+        EditGUI.placePreviewItem(session);
+    }
+
 
     // --- Inventory Click Handling ---
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
@@ -84,6 +280,17 @@ public class PlayerListener implements Listener {
         if (!(event.getWhoClicked() instanceof Player player)) return;
         UUID playerId = player.getUniqueId();
 
+        // The preset browser and inspect view are not sessions; they identify themselves through their inventory holder
+        InventoryHolder holder = event.getView().getTopInventory().getHolder();
+        if (holder instanceof PresetGUI presetGui) {
+            presetGui.handleClick(event);
+            return;
+        }
+        if (holder instanceof InspectGUI) {
+            InspectGUI.handleClick(event);
+            return;
+        }
+
         Optional<EditSession> sessionOpt = sessionManager.getSession(playerId);
         if (sessionOpt.isEmpty()) return;
         EditSession session = sessionOpt.get();
@@ -93,7 +300,24 @@ public class PlayerListener implements Listener {
 
         // --- Interaction within the T-Edit GUI ---
         if (topInventory.equals(session.getGuiInventory()) && clickedInventory != null && clickedInventory.equals(topInventory)) {
+            long start = System.nanoTime();
+            clickRejected = false;
+            JfrEvents.ClickDispatch jfrEvent = new JfrEvents.ClickDispatch();
+            jfrEvent.begin();
             handleGuiClick(event, player, session); // Handles cancellation internally
+            metrics.click.recordSince(start);
+            if (session.getTrace() != null) {
+                session.getTrace().record(TraceBuffer.Type.CLICK, event.getSlot(), null, event.getClick().ordinal(), System.nanoTime() - start,
+                        clickRejected ? TraceBuffer.Outcome.REJECTED : TraceBuffer.Outcome.OK);
+            }
+            jfrEvent.end();
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.describe(player, session.getPreviewItem());
+                jfrEvent.slot = event.getSlot();
+                jfrEvent.click = event.getClick().name();
+                jfrEvent.view = session.getGuiView().name();
+                jfrEvent.commit();
+            }
             return;
         }
 
@@ -101,6 +325,7 @@ public class PlayerListener implements Listener {
         if (topInventory.equals(session.getGuiInventory()) && clickedInventory != null && clickedInventory.equals(player.getInventory())) {
             if (event.isShiftClick()) {
                 event.setCancelled(true); // Prevent Shift+Clicking items into the GUI
+                rejectOutsideClick(event, session);
                 return;
             }
             // Prevent moving/clicking the original item being edited
@@ -108,14 +333,18 @@ public class PlayerListener implements Listener {
                     (event.getAction() == InventoryAction.HOTBAR_SWAP && event.getHotbarButton() == session.getOriginalSlot());
 
             if (affectsOriginalSlot) {
+                failValidation(session, event.getSlot());
                 // Close early if they interact directly with the slot
-                if (settings.isDebugEnabled()) plugin.getLogger().info("[Debug] Player " + player.getName() + " interacted with original item slot ("+session.getOriginalSlot()+") while GUI open. Closing session.");
                  if (sessionManager.isActive(playerId)) { // Check again before closing
                     settings.sendMessage(player, "error_original_item_moved");
                     settings.playSound(player, "action_fail");
                     sessionManager.closeSession(playerId, "Original item slot interacted with");
                  }
                 // Closing inventory handles the cancellation implicitly.
+            } else if (session.isBatchSlot(event.getSlot()) || (event.getAction() == InventoryAction.HOTBAR_SWAP && session.isBatchSlot(event.getHotbarButton()))) {
+                event.setCancelled(true); // Other batch items stay in place while the batch is open
+                rejectOutsideClick(event, session);
+                return;
             }
             // Allow normal interaction with other player inventory slots.
         }
@@ -129,6 +358,7 @@ public class PlayerListener implements Listener {
         // Always cancel interactions with placeholder items
         if (clickedItem != null && clickedItem.isSimilar(settings.getPlaceholderItem())) {
             event.setCancelled(true);
+            rejectClick();
             return;
         }
 
@@ -162,6 +392,28 @@ public class PlayerListener implements Listener {
             return;
         }
 
+        // --- Check if a Level Picker entry was clicked ---
+        if (session.getGuiView() == EditSession.GuiView.LEVEL_PICKER) {
+            ItemMeta pickerMeta = clickedItem.getItemMeta();
+            Integer pickerValue = pickerMeta != null ? pickerMeta.getPersistentDataContainer().get(pickerLevelPDC, PersistentDataType.INTEGER) : null;
+            if (pickerValue != null) {
+                event.setCancelled(true);
+                handleLevelPickerClick(player, session, pickerValue);
+                return;
+            }
+        }
+
+        // --- Check if a Lore Editor entry was clicked ---
+        if (session.getGuiView() == EditSession.GuiView.LORE_EDITOR) {
+            ItemMeta editorMeta = clickedItem.getItemMeta();
+            Integer editorValue = editorMeta != null ? editorMeta.getPersistentDataContainer().get(loreLinePDC, PersistentDataType.INTEGER) : null;
+            if (editorValue != null) {
+                event.setCancelled(true);
+                handleLoreEditorClick(player, session, editorValue, clickType);
+                return;
+            }
+        }
+
         // --- Check if an Enchantment Book was clicked ---
         if (clickedItem.getType() == Material.ENCHANTED_BOOK) {
             event.setCancelled(true); // Cancel default behavior for enchant books
@@ -173,16 +425,23 @@ public class PlayerListener implements Listener {
                     if (enchantment != null) {
                         handleEnchantmentClick(player, session, enchantment, clickType); // Handles applying directly
                         return;
-                    } else if (settings.isDebugEnabled()) plugin.getLogger().warning("[Debug] GUI slot " + slot + " had invalid enchant PDC key: '" + enchantKeyStr + "'");
-                } else if (settings.isDebugEnabled()) plugin.getLogger().warning("[Debug] GUI slot " + slot + " Enchanted Book missing PDC key.");
+                    }
+                }
             }
         }
 
-        // If the click wasn't on a known element, book, or placeholder, cancel it to be safe.
-        if (settings.isDebugEnabled()) {
-             plugin.getLogger().info("[Debug] Unhandled GUI click by " + player.getName() + " on " + clickedItem.getType() + " in slot " + slot + ". Cancelling.");
-        }
+        // If the click wasn't on a known element, book, or placeholder (or a book with a missing/unknown key), cancel it to be safe.
         event.setCancelled(true);
+        rejectClick();
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        // Nothing may be placed into the read-only preset browser or inspect view
+        InventoryHolder holder = event.getView().getTopInventory().getHolder();
+        if (holder instanceof PresetGUI || holder instanceof InspectGUI) {
+            event.setCancelled(true);
+        }
     }
 
     // --- Button Click Logic (Applies Directly) ---
@@ -191,6 +450,7 @@ public class PlayerListener implements Listener {
         if (config.permission() != null && !player.hasPermission(config.permission())) {
              settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", config.permission()));
              settings.playSound(player, "action_fail");
+             rejectClick();
              return;
         }
 
@@ -209,10 +469,49 @@ public class PlayerListener implements Listener {
             settings.sendMessage(player, "prompt_lore_enter");
             return; // Return early
         }
+        if (config.key().equals("lore_editor")) {
+            if (session.isBatch()) { // Line positions differ between the items of a batch
+                settings.sendActionBar(player, "actionbar_batch_unsupported");
+                settings.playSound(player, "action_fail");
+                return;
+            }
+            settings.playSound(player, "button_click");
+            if (session.getGuiView() == EditSession.GuiView.LORE_EDITOR) {
+                EditGUI.populateEnchantments(session, settings); // Button toggles back to the books
+            } else {
+                EditGUI.populateLoreEditor(session, settings);
+            }
+            return;
+        }
         if (config.key().equals("duplicate")) {
              settings.playSound(player, "button_click");
             handleDuplicateAction(player, session); // Duplicate handles its own validation/logic
             return;
+        }
+        if (config.key().equals("staged_toggle")) {
+            if (session.isBatch()) { // Staged edits live on the single preview item
+                settings.sendActionBar(player, "actionbar_batch_unsupported");
+                settings.playSound(player, "action_fail");
+                return;
+            }
+            handleStagedToggle(player, session);
+            return;
+        }
+        if (config.key().equals("commit_changes")) {
+            handleCommitStaged(player, session);
+            return;
+        }
+        if (config.key().equals("discard_changes")) {
+            handleDiscardStaged(player, session);
+            return;
+        }
+        if (config.key().equals("copy")) {
+            handleCopy(player, session);
+            return;
+        }
+        if (config.key().equals("paste")) {
+            handlePaste(player, session, clickType);
+            return;
         }
          if (config.key().startsWith("page_")) {
              // Play sound before potentially failing or succeeding
@@ -222,15 +521,25 @@ public class PlayerListener implements Listener {
          }
 
 
-        // --- For actions modifying the item directly ---
-        ItemStack actualItem = validateAndGetActualItem(player, session);
-        if (actualItem == null) return; // Validation failed, session closed
+        if (session.isBatch()) {
+            handleBatchButton(player, session, config.key());
+            return;
+        }
+
+        // --- For actions modifying the item (actual item, or preview in staged mode) ---
+        ItemStack targetItem = resolveEditTarget(player, session);
+        if (targetItem == null) return; // Validation failed, session closed
+
+        ItemEditTransaction transaction = ItemEditTransaction.open(targetItem, player, settings);
+        if (transaction == null) return; // Item without meta cannot be edited
 
         // Play sound after validation, before action attempt
         settings.playSound(player, "button_click");
 
         boolean success = false;
         boolean requiresEnchantUpdate = false;
+        boolean requiresLoreUpdate = false;
+        String successKey = null, successSound = null; // Sent only once the write went through
 
         switch (config.key()) {
             case "remove_all_enchants":
@@ -238,10 +547,10 @@ public class PlayerListener implements Listener {
                     settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.enchant.base"));
                     settings.playSound(player, "action_fail"); return;
                 }
-                success = EnchantmentUtil.removeAllEnchantments(actualItem);
+                success = transaction.removeAllEnchantments() == ItemEditTransaction.Result.CHANGED;
                 if (success) {
-                    settings.sendActionBar(player, "actionbar_enchants_cleared");
-                    settings.playSound(player, "enchant_remove"); // Use specific sound
+                    successKey = "actionbar_enchants_cleared";
+                    successSound = "enchant_remove"; // Use specific sound
                     requiresEnchantUpdate = true;
                 } else {
                     settings.sendActionBar(player, "actionbar_no_enchants_to_clear");
@@ -254,10 +563,10 @@ public class PlayerListener implements Listener {
                     settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.repair"));
                     settings.playSound(player, "action_fail"); return;
                 }
-                success = ItemUtil.repairItem(actualItem);
+                success = transaction.repair() == ItemEditTransaction.Result.CHANGED;
                 if (success) {
-                    settings.sendActionBar(player, "actionbar_item_repaired");
-                    settings.playSound(player, "action_success"); // General success
+                    successKey = "actionbar_item_repaired";
+                    successSound = "action_success"; // General success
                 } else {
                     settings.sendActionBar(player, "actionbar_item_not_repairable");
                     settings.playSound(player, "action_fail"); // Explicit fail sound
@@ -269,10 +578,11 @@ public class PlayerListener implements Listener {
                     settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.lore.clear"));
                     settings.playSound(player, "action_fail"); return;
                 }
-                success = ItemUtil.clearLore(actualItem);
+                success = transaction.clearLore() == ItemEditTransaction.Result.CHANGED;
                 if (success) {
-                    settings.sendActionBar(player, "actionbar_lore_cleared");
-                    settings.playSound(player, "action_success"); // General success
+                    successKey = "actionbar_lore_cleared";
+                    successSound = "action_success"; // General success
+                    requiresLoreUpdate = true;
                 } else {
                     settings.sendActionBar(player, "actionbar_no_lore_to_clear");
                     // No fail sound needed if nothing changed
@@ -289,16 +599,125 @@ public class PlayerListener implements Listener {
 
         // --- Update GUI if modification occurred ---
         if (success) {
-            session.setPreviewItem(actualItem.clone()); // Update preview to match actual item
-            EditGUI.placePreviewItem(session); // Update the preview item slot display
-            if (requiresEnchantUpdate) {
+            // Single meta write for the whole action (these only shrink the item); on failure commitEdit sent the fail feedback
+            if (!commitEdit(player, session, transaction)) return;
+            settings.sendActionBar(player, successKey);
+            settings.playSound(player, successSound);
+            onItemEdited(session, targetItem); // Updates preview state and the preview slot display
+            if (session.getGuiView() == EditSession.GuiView.LORE_EDITOR) {
+                if (requiresLoreUpdate) EditGUI.populateLoreEditor(session, settings); // Books are re-rendered when leaving the editor
+            } else if (requiresEnchantUpdate) {
                 EditGUI.populateEnchantments(session, settings); // Refresh enchantment books (also updates pagination)
             }
         }
     }
 
+    /** Direct-apply buttons for batch sessions: the same actions, applied to every batch item in one pass. */
+    private void handleBatchButton(@NotNull Player player, @NotNull EditSession session, @NotNull String key) {
+        Function<ItemEditTransaction, ItemEditTransaction.Result> operation = switch (key) {
+            case "remove_all_enchants" -> ItemEditTransaction::removeAllEnchantments;
+            case "repair" -> ItemEditTransaction::repair;
+            case "clear_lore" -> ItemEditTransaction::clearLore;
+            default -> null;
+        };
+        if (operation == null) {
+            if (settings.isDebugEnabled()) plugin.getLogger().warning("[Debug] Unhandled batch button key: " + key);
+            return;
+        }
+
+        settings.playSound(player, "button_click");
+        int changed = applyToBatch(player, session, null, operation);
+        if (changed < 0) return; // Primary item invalid, session closed
+        settings.playSound(player, changed > 0 ? "action_success" : "action_fail");
+        if (changed > 0 && key.equals("remove_all_enchants")) {
+            EditGUI.populateEnchantments(session, settings);
+        }
+    }
+
+    // --- Clipboard Buttons ---
+
+    /** Copies name, lore and enchantments of the edited item (the preview mirrors it) to the player's clipboard. */
+    private void handleCopy(@NotNull Player player, @NotNull EditSession session) {
+        ItemEditTransaction source = ItemEditTransaction.open(session.getPreviewItem()); // Read-only, never committed
+        if (source == null) return;
+        Preset entry = plugin.getClipboard().copy(player.getUniqueId(), source);
+        settings.sendActionBar(player, "actionbar_clipboard_copied",
+                Placeholder.unparsed("enchant_count", String.valueOf(entry.enchantments().size())),
+                Placeholder.unparsed("lore_lines", String.valueOf(entry.lore().size())));
+        settings.playSound(player, "action_success");
+    }
+
+    /**
+     * Pastes the clipboard onto the edited item in one transaction. Left click pastes everything, right click only
+     * enchantments, shift+left only the name and shift+right only the lore. Enchantments the item cannot take are
+     * skipped and reported.
+     */
+    private void handlePaste(@NotNull Player player, @NotNull EditSession session, @NotNull ClickType clickType) {
+        Preset entry = plugin.getClipboard().get(player.getUniqueId());
+        if (entry == null) {
+            settings.sendActionBar(player, "actionbar_clipboard_empty");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        Set<Preset.Part> parts = switch (clickType) {
+            case RIGHT -> EnumSet.of(Preset.Part.ENCHANTMENTS);
+            case SHIFT_LEFT -> EnumSet.of(Preset.Part.NAME);
+            case SHIFT_RIGHT -> EnumSet.of(Preset.Part.LORE);
+            default -> EnumSet.allOf(Preset.Part.class);
+        };
+        settings.playSound(player, "button_click");
+
+        if (session.isBatch()) {
+            int changed = applyToBatch(player, session, null, transaction -> {
+                entry.applyTo(transaction, parts);
+                return transaction.isDirty() ? ItemEditTransaction.Result.CHANGED : ItemEditTransaction.Result.UNCHANGED;
+            });
+            if (changed < 0) return; // Primary item invalid, session closed
+            settings.playSound(player, changed > 0 ? "action_success" : "action_fail");
+            if (changed > 0 && parts.contains(Preset.Part.ENCHANTMENTS)) EditGUI.populateEnchantments(session, settings);
+            return;
+        }
+
+        ItemStack targetItem = resolveEditTarget(player, session);
+        if (targetItem == null) return; // Validation failed, session closed
+        ItemEditTransaction transaction = ItemEditTransaction.open(targetItem, player, settings);
+        if (transaction == null) return;
+
+        List<String> skipped = entry.applyTo(transaction, parts);
+        if (!skipped.isEmpty()) {
+            settings.sendMessage(player, "clipboard_skipped", Placeholder.unparsed("skipped", String.join(", ", skipped)));
+        }
+        if (!transaction.isDirty()) {
+            settings.sendActionBar(player, "actionbar_clipboard_unchanged");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (!commitEdit(player, session, transaction)) return; // Over the size budget or failed, feedback already sent
+        onItemEdited(session, targetItem);
+        settings.sendActionBar(player, "actionbar_clipboard_pasted");
+        settings.playSound(player, "action_success");
+        if (session.getGuiView() == EditSession.GuiView.LORE_EDITOR) {
+            if (parts.contains(Preset.Part.LORE)) EditGUI.populateLoreEditor(session, settings);
+        } else if (parts.contains(Preset.Part.ENCHANTMENTS)) {
+            EditGUI.populateEnchantments(session, settings);
+        }
+    }
+
      // --- Helper for Pagination Buttons ---
     private void handlePaginationClick(@NotNull Player player, @NotNull EditSession session, @NotNull String key) {
+        if (session.getGuiView() == EditSession.GuiView.LORE_EDITOR) {
+            int page = session.getLorePage();
+            if (key.equals("page_prev")) session.setLorePage(page - 1);
+            else if (key.equals("page_next")) session.setLorePage(page + 1);
+            if (session.getLorePage() != page) {
+                settings.playSound(player, "page_change");
+                EditGUI.populateLoreEditor(session, settings);
+            } else if (!key.equals("page_info")) {
+                settings.playSound(player, "action_fail");
+            }
+            return;
+        }
+
         boolean changed = false;
         if (key.equals("page_prev") && session.getEnchantmentPage() > 0) {
             session.setEnchantmentPage(session.getEnchantmentPage() - 1);
@@ -319,10 +738,19 @@ public class PlayerListener implements Listener {
 
     // --- Enchantment Click Logic (Applies Directly) ---
     private void handleEnchantmentClick(@NotNull Player player, @NotNull EditSession session, @NotNull Enchantment enchantment, @NotNull ClickType clickType) {
-        ItemStack actualItem = validateAndGetActualItem(player, session);
-        if (actualItem == null) return; // Validation failed, session closed
+        if (settings.isLevelPickerClick(clickType)) {
+            settings.playSound(player, "button_click");
+            EditGUI.openLevelPicker(session, enchantment, settings);
+            return;
+        }
+
+        ItemStack targetItem = resolveEditTarget(player, session);
+        if (targetItem == null) return; // Validation failed, session closed
+
+        ItemEditTransaction transaction = ItemEditTransaction.open(targetItem, player, settings);
+        if (transaction == null) return; // Item without meta cannot be enchanted
 
-        int currentLevel = actualItem.getEnchantmentLevel(enchantment); // Check level on actual item
+        int currentLevel = transaction.getEnchantmentLevel(enchantment); // Check level on the edit target (stored level for books)
         int maxLevel = EnchantmentUtil.getMaxLevel(enchantment, player, settings);
         int targetLevel = currentLevel;
         boolean isRemoval = false; // Flag needed to differentiate removing vs setting level 0
@@ -342,9 +770,94 @@ public class PlayerListener implements Listener {
             return;
         }
 
+        applyEnchantmentLevel(player, session, transaction, enchantment, currentLevel, targetLevel);
+    }
+
+    // --- Level Picker Click Logic ---
+    private void handleLevelPickerClick(@NotNull Player player, @NotNull EditSession session, int pickerValue) {
+        Enchantment enchantment = session.getPickerEnchantment();
+        if (enchantment == null) { // Picker state lost, fall back to the book list
+            EditGUI.populateEnchantments(session, settings);
+            return;
+        }
+
+        if (pickerValue == EditGUI.PICKER_BACK) {
+            settings.playSound(player, "button_click");
+            EditGUI.populateEnchantments(session, settings);
+            return;
+        }
+
+        if (pickerValue == EditGUI.PICKER_CUSTOM_LEVEL) {
+            settings.playSound(player, "button_click");
+            session.setCurrentState(EditSession.EditActionState.WAITING_FOR_LEVEL_INPUT);
+            player.closeInventory();
+            settings.sendMessage(player, "prompt_level_enter",
+                    Placeholder.component("enchantment", EnchantmentUtil.getFriendlyName(enchantment)),
+                    Placeholder.unparsed("max_level", String.valueOf(EnchantmentUtil.getMaxLevel(enchantment, player, settings))));
+            return; // Applied after chat input
+        }
+
+        ItemStack targetItem = resolveEditTarget(player, session);
+        if (targetItem == null) return;
+
+        ItemEditTransaction transaction = ItemEditTransaction.open(targetItem, player, settings);
+        if (transaction == null) return;
 
-        // --- Apply directly to the actual item ---
-        if (EnchantmentUtil.applyEnchantment(actualItem, enchantment, targetLevel, player, settings)) {
+        int currentLevel = transaction.getEnchantmentLevel(enchantment);
+        if (pickerValue == currentLevel) {
+            EditGUI.populateEnchantments(session, settings); // Nothing to apply, just go back
+            return;
+        }
+        applyEnchantmentLevel(player, session, transaction, enchantment, currentLevel, pickerValue);
+    }
+
+    /** Applies a target level through the edit target's transaction, sends feedback and refreshes the affected GUI slots. */
+    private void applyEnchantmentLevel(@NotNull Player player, @NotNull EditSession session, @NotNull ItemEditTransaction transaction, @NotNull Enchantment enchantment, int currentLevel, int targetLevel) {
+        long start = System.nanoTime();
+        boolean watched = watchdog.begin(Watchdog.Operation.APPLY);
+        JfrEvents.EnchantApply event = new JfrEvents.EnchantApply();
+        event.begin();
+        TraceBuffer.Outcome outcome;
+        try {
+            outcome = setEnchantmentLevel(player, session, transaction, enchantment, currentLevel, targetLevel);
+        } finally {
+            watchdog.end(watched, session);
+        }
+        if (session.getTrace() != null) {
+            session.getTrace().record(TraceBuffer.Type.ENCHANT_APPLY, -1, enchantment, targetLevel, System.nanoTime() - start, outcome);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(player, session.getPreviewItem());
+            event.enchantment = enchantment.getKey().toString();
+            event.fromLevel = currentLevel;
+            event.toLevel = targetLevel;
+            event.batch = session.isBatch();
+            event.commit();
+        }
+    }
+
+    @NotNull
+    private TraceBuffer.Outcome setEnchantmentLevel(@NotNull Player player, @NotNull EditSession session, @NotNull ItemEditTransaction transaction, @NotNull Enchantment enchantment, int currentLevel, int targetLevel) {
+        if (session.isBatch()) {
+            // The level is chosen from the primary item; every batch item is set to it (removal needs no applicability check)
+            int changed = applyToBatch(player, session, targetLevel > 0 ? enchantment : null, batchTransaction -> batchTransaction.setEnchantment(enchantment, targetLevel));
+            if (changed < 0) return TraceBuffer.Outcome.REJECTED;
+            if (changed == 0) settings.playSound(player, "action_fail");
+            else settings.playSound(player, targetLevel == 0 ? "enchant_remove" : targetLevel > currentLevel ? "enchant_level_up" : "enchant_level_down");
+            if (session.getGuiView() == EditSession.GuiView.LEVEL_PICKER) {
+                EditGUI.populateEnchantments(session, settings);
+            } else {
+                EditGUI.updateEnchantmentBook(session, enchantment);
+            }
+            return changed == 0 ? TraceBuffer.Outcome.FAILED : TraceBuffer.Outcome.OK;
+        }
+
+        ItemStack targetItem = transaction.getItemStack();
+        // --- Apply to the edit target (actual item, or preview in staged mode) ---
+        ItemEditTransaction.Result result = transaction.setEnchantment(enchantment, targetLevel);
+        if (result == ItemEditTransaction.Result.CHANGED) {
+            if (!commitEdit(player, session, transaction)) return TraceBuffer.Outcome.REJECTED; // Over the size budget or failed, feedback already sent
              // --- Success Feedback ---
              if (targetLevel == 0) { // Check targetLevel to confirm removal/set to 0
                  settings.playSound(player, "enchant_remove");
@@ -358,19 +871,19 @@ public class PlayerListener implements Listener {
              }
 
              // --- Update GUI Visuals ---
-             session.setPreviewItem(actualItem.clone()); // Update preview to match actual item state
-             EditGUI.placePreviewItem(session);
-             EditGUI.updateEnchantmentBook(session, enchantment); // Update the specific book
+             onItemEdited(session, targetItem);
+             if (session.getGuiView() == EditSession.GuiView.LEVEL_PICKER) {
+                 EditGUI.populateEnchantments(session, settings); // Leave the picker, render the page once
+             } else {
+                 EditGUI.updateEnchantmentBook(session, enchantment); // Update the specific book
+             }
+             return TraceBuffer.Outcome.OK;
 
         } else {
             // --- Failure Feedback ---
             settings.playSound(player, "action_fail");
-            boolean canBypassConflict = settings.isAllowBypassConflicts() && player.hasPermission("tedit.enchant.bypassconflict");
-             // Check for conflict only when adding (targetLevel > 0)
-            if (targetLevel > 0 && !canBypassConflict && EnchantmentUtil.conflictsWithExisting(enchantment, actualItem)) {
-                 Enchantment conflictingEnchant = actualItem.getEnchantments().keySet().stream()
-                         .filter(enchantment::conflictsWith)
-                         .findFirst().orElse(null);
+            if (result == ItemEditTransaction.Result.CONFLICT) {
+                 Enchantment conflictingEnchant = transaction.findConflict(enchantment);
                  if (conflictingEnchant != null) {
                      settings.sendActionBar(player, "actionbar_error_conflict", Placeholder.component("enchantment", EnchantmentUtil.getFriendlyName(enchantment)), Placeholder.component("conflicting", EnchantmentUtil.getFriendlyName(conflictingEnchant)));
                  } else {
@@ -381,8 +894,74 @@ public class PlayerListener implements Listener {
                  // Generic failure if not a conflict
                  settings.sendActionBar(player, "actionbar_error_enchant_failed");
              }
-             if(settings.isDebugEnabled()) plugin.getLogger().warning("EnchantmentUtil.applyEnchantment failed for " + enchantment.getKey() + " L" + targetLevel + " by " + player.getName() + " on actual item.");
+             return TraceBuffer.Outcome.FAILED;
+        }
+    }
+
+    // --- Lore Editor Click Logic ---
+    private void handleLoreEditorClick(@NotNull Player player, @NotNull EditSession session, int editorValue, @NotNull ClickType clickType) {
+        if (editorValue == EditGUI.LORE_EDITOR_BACK) {
+            settings.playSound(player, "button_click");
+            EditGUI.populateEnchantments(session, settings);
+            return;
+        }
+        if (!player.hasPermission("tedit.lore.edit")) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.lore.edit"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (editorValue == EditGUI.LORE_EDITOR_ADD) {
+            promptLoreInput(player, session, EditSession.EditActionState.WAITING_FOR_LORE_ADD, -1, "prompt_lore_enter");
+            return;
+        }
+
+        int index = editorValue;
+        switch (clickType) {
+            case LEFT -> promptLoreInput(player, session, EditSession.EditActionState.WAITING_FOR_LORE_EDIT, index, "prompt_lore_edit_enter");
+            case MIDDLE, DROP -> promptLoreInput(player, session, EditSession.EditActionState.WAITING_FOR_LORE_INSERT, index, "prompt_lore_insert_enter");
+            case RIGHT -> applyLoreLineEdit(player, session, index, -1);
+            case SHIFT_LEFT -> applyLoreLineEdit(player, session, index, index - 1);
+            case SHIFT_RIGHT -> applyLoreLineEdit(player, session, index, index + 1);
+            default -> { } // Ignore other clicks
+        }
+    }
+
+    private void promptLoreInput(@NotNull Player player, @NotNull EditSession session, @NotNull EditSession.EditActionState state, int index, @NotNull String promptKey) {
+        settings.playSound(player, "button_click");
+        session.setLoreLineIndex(index);
+        session.setCurrentState(state);
+        player.closeInventory();
+        settings.sendMessage(player, promptKey, Placeholder.unparsed("line", String.valueOf(index + 1)));
+    }
+
+    /** Removes a lore line (targetIndex -1) or moves it to targetIndex, then refreshes only the shifted editor slots. */
+    private void applyLoreLineEdit(@NotNull Player player, @NotNull EditSession session, int index, int targetIndex) {
+        ItemStack targetItem = resolveEditTarget(player, session);
+        if (targetItem == null) return;
+
+        ItemEditTransaction transaction = ItemEditTransaction.open(targetItem, player, settings);
+        if (transaction == null) return;
+
+        boolean remove = targetIndex < 0;
+        ItemEditTransaction.Result result = remove ? transaction.removeLoreLine(index) : transaction.moveLoreLine(index, targetIndex);
+        if (result == ItemEditTransaction.Result.NO_PERMISSION) {
+            settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", "tedit.lore.edit"));
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (result != ItemEditTransaction.Result.CHANGED) {
+            settings.playSound(player, "action_fail"); // Out of range (e.g. moving the first line up)
+            return;
         }
+        if (!commitEdit(player, session, transaction)) return; // Over the size budget or failed, feedback already sent
+
+        settings.playSound(player, "action_success");
+        settings.sendActionBar(player, remove ? "actionbar_lore_line_removed" : "actionbar_lore_line_moved",
+                Placeholder.unparsed("line", String.valueOf((remove ? index : targetIndex) + 1)));
+        onItemEdited(session, targetItem);
+        // Removal shifts every following line; a move only swaps two neighbours
+        if (remove) EditGUI.refreshLoreLines(session, settings, index, Integer.MAX_VALUE);
+        else EditGUI.refreshLoreLines(session, settings, Math.min(index, targetIndex), Math.max(index, targetIndex));
     }
 
     // --- Specific Action Handlers ---
@@ -390,12 +969,17 @@ public class PlayerListener implements Listener {
     /** Handles closing the GUI when the preview item is clicked. Assumes changes are already applied. */
     private void handleCloseEditor(@NotNull Player player, @NotNull EditSession session) {
         // Validate item one last time before closing to catch any last-moment changes
-        if (validateAndGetActualItem(player, session) == null) {
+        ItemStack actualItem = validateAndGetActualItem(player, session);
+        if (actualItem == null) {
             // Validation failed, message/sound/close handled by validate method
             return;
         }
 
-        // No need to apply meta, changes were instant
+        // Closing via the preview item confirms: write any staged changes in one go
+        if (session.isStagedMode() && session.hasStagedChanges() && !commitStagedChanges(player, session, actualItem)) {
+            return; // Write failed, feedback already sent; the editor stays open with the changes staged
+        }
+        // In instant mode there is no need to apply meta, changes were instant
         settings.sendMessage(player, "success_editor_closed"); // Use a distinct message
         settings.playSound(player, "confirm_success"); // Use confirm sound for this close method
 
@@ -421,10 +1005,102 @@ public class PlayerListener implements Listener {
         }
 
         player.getInventory().addItem(actualItem.clone()); // Clone the validated actual item
+        if (auditLog.isEnabled()) {
+            auditLog.record(player, "duplicate", session.getOriginalSlot(), actualItem.getType(), ItemEditTransaction.Changes.created(actualItem));
+        }
         settings.sendMessage(player, "success_item_duplicated", Placeholder.component("item_name", ItemUtil.getItemNameComponent(actualItem)));
         settings.playSound(player, "duplicate_success");
     }
 
+    // --- Staged Mode Handlers ---
+
+    private void handleStagedToggle(@NotNull Player player, @NotNull EditSession session) {
+        if (session.isStagedMode() && session.hasStagedChanges()) {
+            // Switching back to instant mode would silently drop or apply the staged diff
+            settings.sendActionBar(player, "actionbar_staged_pending");
+            settings.playSound(player, "action_fail");
+            return;
+        }
+        if (!session.isStagedMode()) {
+            // Stage on top of the current inventory state
+            ItemStack actualItem = validateAndGetActualItem(player, session);
+            if (actualItem == null) return;
+            session.setPreviewItem(actualItem.clone());
+            EditGUI.placePreviewItem(session);
+        }
+        session.setStagedMode(!session.isStagedMode());
+        settings.playSound(player, "button_click");
+        settings.sendActionBar(player, session.isStagedMode() ? "actionbar_staged_enabled" : "actionbar_staged_disabled");
+        EditGUI.updateStagedElements(session, settings);
+    }
+
+    private void handleCommitStaged(@NotNull Player player, @NotNull EditSession session) {
+        if (!session.isStagedMode() || !session.hasStagedChanges()) {
+            settings.sendActionBar(player, "actionbar_no_staged_changes");
+            return;
+        }
+        ItemStack actualItem = validateAndGetActualItem(player, session);
+        if (actualItem == null) return;
+
+        if (!commitStagedChanges(player, session, actualItem)) return; // Feedback already sent
+        settings.sendMessage(player, "success_changes_applied");
+        settings.playSound(player, "confirm_success");
+        EditGUI.placePreviewItem(session);
+        EditGUI.updateStagedElements(session, settings);
+    }
+
+    private void handleDiscardStaged(@NotNull Player player, @NotNull EditSession session) {
+        if (!session.isStagedMode() || !session.hasStagedChanges()) {
+            settings.sendActionBar(player, "actionbar_no_staged_changes");
+            return;
+        }
+        ItemStack actualItem = validateAndGetActualItem(player, session);
+        if (actualItem == null) return;
+
+        session.setPreviewItem(actualItem.clone()); // Back to the real item's state
+        session.setHasStagedChanges(false);
+        if (settings.getMaxItemBytes() > 0) {
+            session.setItemSizeEstimate(ItemSizeBudget.measure(actualItem));
+            metrics.itemSize.miss();
+        }
+        settings.sendMessage(player, "info_changes_discarded");
+        settings.playSound(player, "cancel");
+        EditGUI.placePreviewItem(session);
+        EditGUI.refreshView(session, settings); // Books or lore lines may have changed
+        EditGUI.updateStagedElements(session, settings);
+    }
+
+    /**
+     * Writes the staged diff onto the actual item in one transaction through the item data backend. Only the
+     * properties the preview changed are written, so anything else on the real item is kept.
+     * @return true if the staged changes were written (or there were none); false if the write failed (player was
+     *         notified and the changes stay staged).
+     */
+    private boolean commitStagedChanges(@NotNull Player player, @NotNull EditSession session, @NotNull ItemStack actualItem) {
+        ItemEditTransaction.Changes diff = ItemEditTransaction.Changes.between(actualItem, session.getPreviewItem());
+        ItemEditTransaction transaction = ItemEditTransaction.open(actualItem); // Already validated while staging
+        if (transaction == null) return false;
+        if (diff.enchantmentsAfter() != null) transaction.setEnchantments(diff.enchantmentsAfter());
+        if (diff.nameChanged()) transaction.setName(diff.nameAfter());
+        if (diff.loreAfter() != null) transaction.setLore(diff.loreAfter());
+        if (diff.repaired()) transaction.repair();
+
+        if (transaction.isDirty()) {
+            snapshotBeforeEdit(player, session, session.getOriginalSlot(), actualItem);
+            long start = System.nanoTime();
+            if (!transaction.commit()) { // Item unchanged; keep the staged preview so nothing is lost
+                settings.sendActionBar(player, "actionbar_error_enchant_failed");
+                settings.playSound(player, "action_fail");
+                return false;
+            }
+            metrics.apply.recordSince(start);
+            auditLog.record(player, "staged", session.getOriginalSlot(), transaction);
+        }
+        session.setPreviewItem(actualItem.clone());
+        session.setHasStagedChanges(false);
+        return true;
+    }
+
     // --- Chat Input Handling (Applies Directly) ---
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
     public void onPlayerChat(AsyncChatEvent event) {
@@ -433,57 +1109,98 @@ public class PlayerListener implements Listener {
 
         sessionManager.getSession(playerId).ifPresent(session -> {
             EditSession.EditActionState initialState = session.getCurrentState();
-            if (initialState == EditSession.EditActionState.WAITING_FOR_RENAME || initialState == EditSession.EditActionState.WAITING_FOR_LORE_ADD) {
+            if (initialState != EditSession.EditActionState.VIEWING) { // Waiting for rename, lore or level input
                 event.setCancelled(true);
                 // Use the raw chat string for MiniMessage parsing (fixes formatting issue)
                 String rawInput = net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer.plainText().serialize(event.originalMessage());
+                long receivedNanos = System.nanoTime();
 
                 new BukkitRunnable() {
                     @Override
                     public void run() {
+                        JfrEvents.ChatInput jfrEvent = new JfrEvents.ChatInput();
+                        jfrEvent.begin();
+                        long queueDelay = System.nanoTime() - receivedNanos;
+                        boolean stateMatched = sessionManager.getSession(playerId).map(openSession -> openSession.getCurrentState() == initialState).orElse(false);
                         // Re-get session and validate state *again* on main thread
                         sessionManager.getSession(playerId).ifPresent(currentSession -> {
                             if (currentSession.getCurrentState() == initialState) {
                                 // --- Validate Item Before Applying Chat Input ---
-                                ItemStack actualItem = validateAndGetActualItem(player, currentSession);
-                                if (actualItem == null) {
+                                ItemStack targetItem = resolveEditTarget(player, currentSession);
+                                if (targetItem == null) {
                                     // Session was closed by validation helper, just exit runnable
                                     return;
                                 }
 
+                                if (initialState == EditSession.EditActionState.WAITING_FOR_LEVEL_INPUT) {
+                                    handleLevelInput(player, currentSession, targetItem, rawInput);
+                                    return;
+                                }
+
                                 try {
                                     Component parsedInput = settings.miniMessage().deserialize(rawInput);
 
-                                    // --- Apply directly to actual item ---
-                                    if (initialState == EditSession.EditActionState.WAITING_FOR_RENAME) {
-                                        ItemUtil.renameItem(actualItem, parsedInput);
-                                        settings.sendMessage(player, "success_item_renamed");
-                                    } else { // WAITING_FOR_LORE_ADD
-                                        ItemUtil.addLoreLine(actualItem, parsedInput);
-                                        settings.sendMessage(player, "success_lore_added");
+                                    if (currentSession.isBatch()) { // Rename / add lore on every batch item
+                                        boolean renameAll = initialState == EditSession.EditActionState.WAITING_FOR_RENAME;
+                                        int changed = applyToBatch(player, currentSession, null,
+                                                batchTransaction -> renameAll ? batchTransaction.setName(parsedInput) : batchTransaction.addLoreLine(parsedInput));
+                                        if (changed < 0) return; // Session closed
+                                        settings.playSound(player, changed > 0 ? "action_success" : "action_fail");
+                                        EditGUI.reopen(player, currentSession, plugin);
+                                        return;
                                     }
 
-                                    // --- Update session/GUI state ---
-                                    currentSession.setPreviewItem(actualItem.clone()); // Update preview to match
-                                    currentSession.setCurrentState(EditSession.EditActionState.VIEWING);
-                                    settings.playSound(player, "action_success");
+                                    // --- Apply to the edit target (actual item, or preview in staged mode) ---
+                                    ItemEditTransaction transaction = ItemEditTransaction.open(targetItem, player, settings);
+                                    if (transaction == null) throw new IllegalStateException("Edited item has no meta");
+                                    boolean rename = initialState == EditSession.EditActionState.WAITING_FOR_RENAME;
+                                    int lineIndex = currentSession.getLoreLineIndex();
+                                    ItemEditTransaction.Result result = switch (initialState) {
+                                        case WAITING_FOR_RENAME -> transaction.setName(parsedInput);
+                                        case WAITING_FOR_LORE_EDIT -> transaction.setLoreLine(lineIndex, parsedInput);
+                                        case WAITING_FOR_LORE_INSERT -> transaction.insertLoreLine(lineIndex, parsedInput);
+                                        default -> transaction.addLoreLine(parsedInput);
+                                    };
+                                    if (result == ItemEditTransaction.Result.NO_PERMISSION) {
+                                        String permission = rename ? "tedit.rename" : "tedit.lore.edit";
+                                        settings.sendMessage(player, "error_no_permission", Placeholder.unparsed("permission", permission));
+                                        settings.playSound(player, "action_fail");
+                                    } else if (result == ItemEditTransaction.Result.FAILED) {
+                                        settings.sendMessage(player, "error_lore_line_missing"); // Line removed since the prompt (e.g. staged discard)
+                                        settings.playSound(player, "action_fail");
+                                    } else if (commitEdit(player, currentSession, transaction)) {
+                                        String successKey = switch (initialState) {
+                                            case WAITING_FOR_RENAME -> "success_item_renamed";
+                                            case WAITING_FOR_LORE_EDIT -> "success_lore_line_updated";
+                                            case WAITING_FOR_LORE_INSERT -> "success_lore_line_inserted";
+                                            default -> "success_lore_added";
+                                        };
+                                        settings.sendMessage(player, successKey, Placeholder.unparsed("line", String.valueOf(lineIndex + 1)));
+
+                                        // --- Update session/GUI state ---
+                                        onItemEdited(currentSession, targetItem);
+                                        settings.playSound(player, "action_success");
+                                        if (!rename) { // Only the edited line, or the lines shifted by an insert/append, change
+                                            int appendedIndex = transaction.getLore().size() - 1;
+                                            switch (initialState) {
+                                                case WAITING_FOR_LORE_EDIT -> EditGUI.refreshLoreLines(currentSession, settings, lineIndex, lineIndex);
+                                                case WAITING_FOR_LORE_INSERT -> EditGUI.refreshLoreLines(currentSession, settings, lineIndex, Integer.MAX_VALUE);
+                                                default -> EditGUI.refreshLoreLines(currentSession, settings, appendedIndex, appendedIndex);
+                                            }
+                                        }
+                                    }
 
                                     // --- Reopen the GUI ---
-                                    // Use the *original* item data (unchanged definitionally) but the GUI will reflect the updated actual item
-                                    EditGUI.createAndOpen(player, currentSession.getOriginalItem(), currentSession.getOriginalSlot(), plugin);
+                                    // Reuse the existing session so staged changes and the current page survive
+                                    EditGUI.reopen(player, currentSession, plugin);
 
                                 } catch (Exception e) {
                                     plugin.getLogger().log(Level.WARNING, "Error processing T-Edit chat input (" + initialState + ") for " + player.getName() + ": " + e.getMessage());
                                     settings.sendMessage(player, "error_input_processing");
                                     settings.playSound(player, "action_fail");
-                                    currentSession.setCurrentState(EditSession.EditActionState.VIEWING); // Reset state
-                                    // Attempt to reopen GUI even after error
+                                    // Attempt to reopen GUI even after error (reopen also resets the state to VIEWING)
                                     try {
-                                         // Need original item (unchanged by this error) and slot
-                                        ItemStack originalForReopen = currentSession.getOriginalItem();
-                                        int slotForReopen = currentSession.getOriginalSlot();
-                                        // Create new session or just open inv? createAndOpen handles replacing existing session.
-                                        EditGUI.createAndOpen(player, originalForReopen, slotForReopen, plugin);
+                                        EditGUI.reopen(player, currentSession, plugin);
                                     } catch (Exception reopenEx) {
                                         plugin.getLogger().log(Level.SEVERE, "Failed to reopen GUI for " + player.getName() + " after chat input error.", reopenEx);
                                         // Ensure session is closed if reopen fails
@@ -492,10 +1209,21 @@ public class PlayerListener implements Listener {
                                         }
                                     }
                                 }
-                            } else if (settings.isDebugEnabled()) {
-                                plugin.getLogger().info("[Debug] T-Edit session state for " + player.getName() + " changed (" + currentSession.getCurrentState() + ") before chat input ("+initialState+") could be processed. Input ignored.");
                             }
                         });
+                        metrics.chatToApply.recordSince(receivedNanos); // Includes the wait for the next tick
+                        if (session.getTrace() != null) { // Ignored: state changed before the tick; failed: validation closed the session
+                            TraceBuffer.Outcome outcome = !stateMatched ? TraceBuffer.Outcome.IGNORED
+                                    : sessionManager.isActive(playerId) ? TraceBuffer.Outcome.OK : TraceBuffer.Outcome.FAILED;
+                            session.getTrace().record(TraceBuffer.Type.CHAT_INPUT, -1, null, initialState.ordinal(), System.nanoTime() - receivedNanos, outcome);
+                        }
+                        jfrEvent.end();
+                        if (jfrEvent.shouldCommit()) {
+                            jfrEvent.describe(player, sessionManager.getSession(playerId).map(EditSession::getPreviewItem).orElse(null));
+                            jfrEvent.state = initialState.name();
+                            jfrEvent.queueDelay = queueDelay;
+                            jfrEvent.commit();
+                        }
                     }
                 }.runTask(plugin);
             }
@@ -503,6 +1231,36 @@ public class PlayerListener implements Listener {
     }
 
 
+    /** Applies a level typed in chat for the level picker's enchantment, then re-opens the existing session's GUI. */
+    private void handleLevelInput(@NotNull Player player, @NotNull EditSession session, @NotNull ItemStack targetItem, @NotNull String rawInput) {
+        Enchantment enchantment = session.getPickerEnchantment();
+        session.setCurrentState(EditSession.EditActionState.VIEWING);
+        if (enchantment != null) {
+            int maxLevel = EnchantmentUtil.getMaxLevel(enchantment, player, settings);
+            int level;
+            try {
+                level = Integer.parseInt(rawInput.trim());
+            } catch (NumberFormatException e) {
+                level = -1;
+            }
+
+            if (level < 1 || level > maxLevel) {
+                settings.sendMessage(player, "error_invalid_level",
+                        Placeholder.unparsed("input", rawInput), Placeholder.unparsed("max_level", String.valueOf(maxLevel)));
+                settings.playSound(player, "action_fail");
+            } else {
+                ItemEditTransaction transaction = ItemEditTransaction.open(targetItem, player, settings);
+                if (transaction != null) {
+                    int currentLevel = transaction.getEnchantmentLevel(enchantment);
+                    if (level != currentLevel) {
+                        applyEnchantmentLevel(player, session, transaction, enchantment, currentLevel, level);
+                    }
+                }
+            }
+        }
+        EditGUI.reopen(player, session, plugin);
+    }
+
     // --- Session Integrity Listeners ---
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -518,7 +1276,9 @@ public class PlayerListener implements Listener {
                     plugin.getLogger().info("[Debug] T-Edit GUI closed unexpectedly by " + player.getName() + ". Removing session data (changes saved progressively).");
                 }
                 sessionManager.removeSession(playerId); // Just remove data
-                settings.sendMessage(player, "info_editor_closed_esc"); // Use specific message for ESC close
+                // Staged changes only live on the preview, so closing via ESC drops them
+                boolean discarded = session.isStagedMode() && session.hasStagedChanges();
+                settings.sendMessage(player, discarded ? "info_changes_discarded" : "info_editor_closed_esc"); // Use specific message for ESC close
                 settings.playSound(player, "cancel"); // Use cancel sound for ESC close
             }
         });
@@ -532,6 +1292,7 @@ public class PlayerListener implements Listener {
             if (settings.isDebugEnabled()) plugin.getLogger().info("[Debug] Player " + event.getPlayer().getName() + " quit with active T-Edit session. Removing session data.");
             sessionManager.removeSession(playerId);
         }
+        plugin.getClipboard().clear(playerId);
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -543,6 +1304,7 @@ public class PlayerListener implements Listener {
             if (event.getPreviousSlot() == session.getOriginalSlot()) {
                  if (settings.isDebugEnabled()) plugin.getLogger().info("[Debug] Player " + player.getName() + " switched held item away from original slot (" + session.getOriginalSlot() + "). Closing T-Edit session.");
                  if (sessionManager.isActive(playerId)) {
+                    failValidation(session, session.getOriginalSlot());
                     settings.sendMessage(player, "error_original_item_moved");
                     settings.playSound(player, "action_fail");
                     sessionManager.closeSession(playerId, "Player changed held item slot");
@@ -562,6 +1324,7 @@ public class PlayerListener implements Listener {
                 if (event.getItemDrop().getItemStack().getType() == session.getOriginalItem().getType()) {
                     if (settings.isDebugEnabled()) plugin.getLogger().info("[Debug] Player " + player.getName() + " dropped the item from the original slot (" + session.getOriginalSlot() + "). Closing T-Edit session.");
                     if (sessionManager.isActive(playerId)) {
+                        failValidation(session, session.getOriginalSlot());
                         settings.sendMessage(player, "error_original_item_moved");
                         settings.playSound(player, "action_fail");
                         sessionManager.closeSession(playerId, "Player dropped original item");
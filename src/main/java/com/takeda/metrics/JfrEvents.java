@@ -0,0 +1,138 @@
+package com.takeda.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Java Flight Recorder events for T-Edit's operations. They are off unless a recording enables them, which the
+ * bundled {@code tedit.jfc} profile does, e.g. {@code jcmd <pid> JFR.start settings=default,plugins/T-Edit/tedit.jfc}.
+ * <p>
+ * Usage: {@code begin()} before the work and {@code end()} after it. Then, only {@code if (event.shouldCommit())},
+ * fill the fields and {@code commit()}. While recording is off the JIT removes the event allocation and the
+ * fields are never computed.
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {} // Static class
+
+    /** Common fields: who the operation ran for and on which item type. */
+    @Category("T-Edit")
+    @Enabled(false)
+    @StackTrace(false)
+    public abstract static class PlayerOperation extends Event {
+        @Label("Player")
+        public String player;
+
+        @Label("Material")
+        public String material;
+
+        /** Fills the common fields. Only call once {@code shouldCommit()} returned true. */
+        public void describe(@Nullable Player player, @Nullable ItemStack item) {
+            this.player = player != null ? player.getName() : null;
+            this.material = item != null ? item.getType().getKey().toString() : null;
+        }
+    }
+
+    @Name("com.takeda.GuiOpen")
+    @Label("GUI Open")
+    @Description("Building and opening the editor GUI for a new session")
+    public static final class GuiOpen extends PlayerOperation {
+        @Label("Batch Size")
+        public int batchSize;
+    }
+
+    @Name("com.takeda.BaseLayout")
+    @Label("Base Layout")
+    @Description("Placing placeholders, frame and static buttons in the editor GUI")
+    public static final class BaseLayout extends PlayerOperation {}
+
+    @Name("com.takeda.PageRender")
+    @Label("Page Render")
+    @Description("Rendering one page of enchantment books")
+    public static final class PageRender extends PlayerOperation {
+        @Label("Page")
+        public int page;
+
+        @Label("Enchantments On Page")
+        public int enchantments;
+
+        @Label("Applicable Enchantments")
+        public int applicable;
+    }
+
+    @Name("com.takeda.BookRender")
+    @Label("Book Render")
+    @Description("Rendering one enchantment book")
+    public static final class BookRender extends PlayerOperation {
+        @Label("Enchantment")
+        public String enchantment;
+
+        @Label("Current Level")
+        public int level;
+    }
+
+    @Name("com.takeda.ClickDispatch")
+    @Label("Click Dispatch")
+    @Description("Handling one click inside the editor GUI, including any edit and re-render it causes")
+    public static final class ClickDispatch extends PlayerOperation {
+        @Label("Slot")
+        public int slot;
+
+        @Label("Click")
+        public String click;
+
+        @Label("View")
+        public String view;
+    }
+
+    @Name("com.takeda.EnchantApply")
+    @Label("Enchant Apply")
+    @Description("Setting an enchantment level on the edited item (or every item of a batch) and updating the GUI")
+    public static final class EnchantApply extends PlayerOperation {
+        @Label("Enchantment")
+        public String enchantment;
+
+        @Label("From Level")
+        public int fromLevel;
+
+        @Label("To Level")
+        public int toLevel;
+
+        @Label("Batch")
+        public boolean batch;
+    }
+
+    @Name("com.takeda.ChatInput")
+    @Label("Chat Input")
+    @Description("Applying rename, lore or level input typed in chat, on the main thread")
+    public static final class ChatInput extends PlayerOperation {
+        @Label("Input Kind")
+        @Description("Rename, lore line or level, as the session state that was waiting for it")
+        public String state;
+
+        @Label("Queue Delay")
+        @Description("From the chat message being received to processing starting on the main thread")
+        @Timespan
+        public long queueDelay;
+    }
+
+    @Name("com.takeda.ConfigReload")
+    @Label("Config Reload")
+    @Description("Loading config.yml, gui.yml, messages.yml and sounds.yml")
+    @Category("T-Edit")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class ConfigReload extends Event {
+        @Label("Success")
+        public boolean success;
+    }
+}
@@ -0,0 +1,197 @@
+package com.takeda.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with totals since the last reset (including per-bucket counts, for export) and rolling
+ * one-minute and one-hour windows.
+ * <p>
+ * Values land in log-linear buckets (four per power of two, so a reported percentile is within about 12% of the
+ * true value). Each window is a ring of time slots, every slot holding its own bucket counts; a slot is cleared
+ * when the ring comes back around to it. {@link #record} only touches preallocated atomics and never allocates.
+ * Recording during a slot change may lose a few samples, which is fine for operational metrics.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36; // 2^36 ns is about 69 s; anything slower lands in the last bucket
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final String name;
+    private final String description;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final Window minute = new Window(TimeUnit.SECONDS.toNanos(10), 6);
+    private final Window hour = new Window(TimeUnit.MINUTES.toNanos(1), 60);
+
+    public LatencyHistogram(@NotNull String name, @NotNull String description) {
+        this.name = name;
+        this.description = description;
+    }
+
+    @NotNull
+    public String getName() { return name; }
+
+    @NotNull
+    public String getDescription() { return description; }
+
+    /** Records one duration. Negative values (clock oddities) count as zero. */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        count.increment();
+        sumNanos.add(value);
+        maxNanos.accumulate(value);
+        int bucket = bucketOf(value);
+        buckets.incrementAndGet(bucket);
+        long now = System.nanoTime();
+        minute.record(bucket, now);
+        hour.record(bucket, now);
+    }
+
+    /** Records the time elapsed since {@code startNanos} (a {@link System#nanoTime()} value). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() { return count.sum(); }
+
+    public long getMeanNanos() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : sumNanos.sum() / samples;
+    }
+
+    public long getMaxNanos() { return maxNanos.get(); }
+
+    public long getSumNanos() { return sumNanos.sum(); }
+
+    /** Per-bucket counts since the last reset; see {@link #upperBoundOf} for each bucket's range. */
+    @NotNull
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = buckets.get(i);
+        return counts;
+    }
+
+    /** Percentiles ({@code fractions} in 0..1) over the last minute; 0 where there were no samples. */
+    @NotNull
+    public long[] minutePercentiles(double... fractions) {
+        return percentiles(minute.snapshot(System.nanoTime()), fractions);
+    }
+
+    /** Percentiles over the last hour. */
+    @NotNull
+    public long[] hourPercentiles(double... fractions) {
+        return percentiles(hour.snapshot(System.nanoTime()), fractions);
+    }
+
+    public void reset() {
+        count.reset();
+        sumNanos.reset();
+        maxNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        minute.clear();
+        hour.clear();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** Largest value (inclusive) that lands in a bucket; the last bucket is open-ended. */
+    public static long upperBoundOf(int bucket) {
+        if (bucket >= BUCKETS - 1) return Long.MAX_VALUE;
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (bucket % SUB_BUCKETS + 1) * width - 1;
+    }
+
+    /** Midpoint of a bucket's range, used as the reported value. */
+    static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (1L << exponent) + (bucket % SUB_BUCKETS) * width;
+        return lower + width / 2;
+    }
+
+    @NotNull
+    private static long[] percentiles(@NotNull long[] buckets, double... fractions) {
+        long total = 0;
+        for (long bucketCount : buckets) total += bucketCount;
+        long[] result = new long[fractions.length];
+        if (total == 0) return result;
+        for (int i = 0; i < fractions.length; i++) {
+            long rank = Math.max(1, (long) Math.ceil(fractions[i] * total));
+            long seen = 0;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                seen += buckets[bucket];
+                if (seen >= rank) {
+                    result[i] = valueOf(bucket);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** A ring of {@code slots + 1} time slots; the extra slot is the one currently filling. */
+    private static final class Window {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final long slotNanos;
+        private final int slotCount;
+        private final AtomicLongArray slotEpochs; // Which time slot each ring position currently holds
+        private final AtomicLongArray counts;    // slotCount * BUCKETS
+
+        Window(long slotNanos, int slots) {
+            this.slotNanos = slotNanos;
+            this.slotCount = slots + 1;
+            this.slotEpochs = new AtomicLongArray(slotCount);
+            this.counts = new AtomicLongArray(slotCount * BUCKETS);
+            clear();
+        }
+
+        void record(int bucket, long now) {
+            long epoch = now / slotNanos;
+            int position = (int) Math.floorMod(epoch, (long) slotCount);
+            long held = slotEpochs.get(position);
+            if (held != epoch && slotEpochs.compareAndSet(position, held, epoch)) {
+                int base = position * BUCKETS;
+                for (int i = 0; i < BUCKETS; i++) counts.set(base + i, 0);
+            }
+            counts.incrementAndGet(position * BUCKETS + bucket);
+        }
+
+        /** Bucket counts summed over the slots still inside the window. */
+        @NotNull
+        long[] snapshot(long now) {
+            long current = now / slotNanos;
+            long[] merged = new long[BUCKETS];
+            for (int position = 0; position < slotCount; position++) {
+                long epoch = slotEpochs.get(position);
+                if (epoch == EMPTY || epoch > current || current - epoch >= slotCount) continue; // Cleared or stale
+                int base = position * BUCKETS;
+                for (int i = 0; i < BUCKETS; i++) merged[i] += counts.get(base + i);
+            }
+            return merged;
+        }
+
+        void clear() {
+            for (int position = 0; position < slotCount; position++) slotEpochs.set(position, EMPTY);
+            for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.takeda.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * What T-Edit costs on a live server: latencies of the GUI, click and apply paths, plus counters for rejected clicks,
+ * validation failures, cache use and scan progress. Metrics are fixed fields so hot paths record with a field access
+ * and an atomic add; nothing is looked up or allocated while recording. Every value can be read from any thread
+ * without locking. Shown by {@code /tedit stats} and exported by {@link OpenMetricsExporter}.
+ */
+public final class Metrics {
+
+    /** Hit/miss counters of one cache. */
+    public static final class Cache {
+        private final String name;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        Cache(@NotNull String name) { this.name = name; }
+
+        @NotNull public String getName() { return name; }
+        public void hit() { hits.increment(); }
+        public void miss() { misses.increment(); }
+        public long getHits() { return hits.sum(); }
+        public long getMisses() { return misses.sum(); }
+
+        /** Share of lookups that hit, 0..1; 0 before the first lookup. */
+        public double getHitRatio() {
+            long hitCount = hits.sum();
+            long total = hitCount + misses.sum();
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+
+        void reset() {
+            hits.reset();
+            misses.reset();
+        }
+    }
+
+    /** Progress of the running (or last finished) policy scan of one kind, published by the scan as it goes. */
+    public static final class ScanProgress {
+        private final String name;
+        private volatile boolean running;
+        private volatile long done, items, violations;
+
+        ScanProgress(@NotNull String name) { this.name = name; }
+
+        @NotNull public String getName() { return name; }
+        public boolean isRunning() { return running; }
+        /** Sources (online scan) or files (offline scan) finished so far. */
+        public long getDone() { return done; }
+        public long getItems() { return items; }
+        public long getViolations() { return violations; }
+
+        public void begin() {
+            update(0, 0, 0);
+            running = true;
+        }
+
+        public void update(long done, long items, long violations) {
+            this.done = done;
+            this.items = items;
+            this.violations = violations;
+        }
+
+        public void end() { running = false; }
+    }
+
+    public final LatencyHistogram guiOpen = new LatencyHistogram("gui_open",
+            "Building and opening the editor GUI for a new session");
+    public final LatencyHistogram pageRender = new LatencyHistogram("page_render",
+            "Rendering one page of enchantment books");
+    public final LatencyHistogram click = new LatencyHistogram("click",
+            "Handling one click inside the editor GUI, including any edit and re-render it causes");
+    public final LatencyHistogram apply = new LatencyHistogram("apply",
+            "Writing an edit to the item (one transaction commit)");
+    public final LatencyHistogram chatToApply = new LatencyHistogram("chat_to_apply",
+            "From a chat message being received to its rename, lore or level input being applied on the main thread");
+
+    /** GUI clicks cancelled without doing anything: placeholders, blocked slots, missing permission, size budget. */
+    public final LongAdder rejectedClicks = new LongAdder();
+    /** Edits abandoned because the original item was changed or moved while the session was open. */
+    public final LongAdder validationFailures = new LongAdder();
+
+    /** Per-session item size estimate: hits are incremental checks, misses are full re-serializations. */
+    public final Cache itemSize = new Cache("item_size");
+
+    /** /tedit scan over online inventories and loaded containers. */
+    public final ScanProgress onlineScan = new ScanProgress("online");
+    /** /tedit offline-scan over saved player data. */
+    public final ScanProgress offlineScan = new ScanProgress("offline");
+
+    private final IntSupplier activeSessions;
+    private final List<LatencyHistogram> latencies = List.of(guiOpen, pageRender, click, apply, chatToApply);
+    private final List<Cache> caches = List.of(itemSize);
+    private final List<ScanProgress> scans = List.of(onlineScan, offlineScan);
+    private volatile long resetAtMillis = System.currentTimeMillis();
+
+    public Metrics(@NotNull IntSupplier activeSessions) {
+        this.activeSessions = activeSessions;
+    }
+
+    public int getActiveSessions() { return activeSessions.getAsInt(); }
+
+    @NotNull public List<LatencyHistogram> getLatencies() { return latencies; }
+
+    @NotNull public List<Cache> getCaches() { return caches; }
+
+    @NotNull public List<ScanProgress> getScans() { return scans; }
+
+    /** When the metrics were created or last reset (epoch millis). */
+    public long getResetAtMillis() { return resetAtMillis; }
+
+    /** Clears every latency, counter and cache statistic. Active sessions and scan progress are live and not affected. */
+    public void reset() {
+        for (LatencyHistogram latency : latencies) latency.reset();
+        for (Cache cache : caches) cache.reset();
+        rejectedClicks.reset();
+        validationFailures.reset();
+        resetAtMillis = System.currentTimeMillis();
+    }
+}
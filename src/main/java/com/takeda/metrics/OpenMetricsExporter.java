@@ -0,0 +1,208 @@
+package com.takeda.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Exposes {@link Metrics} in the OpenMetrics text format (also readable as Prometheus text): on an optional HTTP
+ * endpoint served by the JDK's built-in server, and/or written periodically to a file for node-exporter's textfile
+ * collector. Both run off the main thread and only read atomics, so a scrape never waits for the server.
+ */
+public final class OpenMetricsExporter {
+
+    private static final String OPENMETRICS_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String TEXT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    // Exported histogram bounds; finer internal buckets are folded into these (a bucket counts once fully below a bound)
+    private static final double[] BUCKET_BOUNDS_SECONDS = {0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 1};
+
+    private final TEditPlugin plugin;
+    private final Metrics metrics;
+    @Nullable private HttpServer httpServer;
+    @Nullable private ExecutorService httpExecutor;
+    @Nullable private BukkitTask fileTask;
+    private boolean fileErrorLogged; // Only touched by the file task
+
+    public OpenMetricsExporter(@NotNull TEditPlugin plugin, @NotNull Metrics metrics) {
+        this.plugin = plugin;
+        this.metrics = metrics;
+    }
+
+    /** Starts whatever config.yml enables. Failing to bind is logged, not fatal. */
+    public void start(@NotNull SettingsManager settings) {
+        if (settings.isMetricsHttpEnabled()) {
+            startHttp(settings.getMetricsHttpBind(), settings.getMetricsHttpPort());
+        }
+        if (settings.isMetricsFileEnabled()) {
+            Path file = plugin.getDataFolder().toPath().resolve(settings.getMetricsFilePath()); // Absolute paths stay as they are
+            long periodTicks = settings.getMetricsFileIntervalSeconds() * 20L;
+            fileTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> writeFile(file), periodTicks, periodTicks);
+            plugin.getLogger().info("Writing metrics to " + file + " every " + settings.getMetricsFileIntervalSeconds() + " s.");
+        }
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+        if (fileTask != null) {
+            fileTask.cancel();
+            fileTask = null;
+        }
+    }
+
+    private void startHttp(@NotNull String bind, int port) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+            server.createContext("/metrics", this::handleScrape);
+            ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "T-Edit Metrics HTTP");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server.setExecutor(executor);
+            server.start();
+            httpServer = server;
+            httpExecutor = executor;
+            plugin.getLogger().info("Serving metrics on http://" + bind + ":" + port + "/metrics");
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not start the metrics endpoint on " + bind + ":" + port + ": " + e.getMessage());
+        }
+    }
+
+    private void handleScrape(@NotNull HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String accept = exchange.getRequestHeaders().getFirst("Accept");
+            boolean openMetrics = accept != null && accept.contains("application/openmetrics-text");
+            byte[] body = render(metrics).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", openMetrics ? OPENMETRICS_TYPE : TEXT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /** Writes to a temporary file and moves it into place, so the collector never reads a partial file. */
+    private void writeFile(@NotNull Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, render(metrics), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            fileErrorLogged = false;
+        } catch (IOException e) {
+            if (!fileErrorLogged) { // Once per failure streak, not every interval
+                plugin.getLogger().log(Level.WARNING, "Could not write metrics file " + file + ": " + e.getMessage());
+                fileErrorLogged = true;
+            }
+        }
+    }
+
+    /** Renders every metric. Safe to call from any thread. */
+    @NotNull
+    public static String render(@NotNull Metrics metrics) {
+        StringBuilder out = new StringBuilder(4096);
+        gauge(out, "tedit_sessions_active", "Players with an open editor session", metrics.getActiveSessions());
+        counter(out, "tedit_rejected_clicks", "GUI clicks cancelled without doing anything", metrics.rejectedClicks.sum());
+        counter(out, "tedit_validation_failures", "Edits abandoned because the original item changed or moved", metrics.validationFailures.sum());
+
+        header(out, "tedit_cache_hits", "counter", "Cache lookups served from the cache");
+        for (Metrics.Cache cache : metrics.getCaches()) sample(out, "tedit_cache_hits_total", "cache", cache.getName(), cache.getHits());
+        header(out, "tedit_cache_misses", "counter", "Cache lookups that had to compute the value");
+        for (Metrics.Cache cache : metrics.getCaches()) sample(out, "tedit_cache_misses_total", "cache", cache.getName(), cache.getMisses());
+
+        for (LatencyHistogram latency : metrics.getLatencies()) histogram(out, latency);
+
+        header(out, "tedit_scan_running", "gauge", "Whether a policy scan of this kind is running");
+        for (Metrics.ScanProgress scan : metrics.getScans()) sample(out, "tedit_scan_running", "scan", scan.getName(), scan.isRunning() ? 1 : 0);
+        header(out, "tedit_scan_done", "gauge", "Sources (online) or files (offline) finished by the current or last scan");
+        for (Metrics.ScanProgress scan : metrics.getScans()) sample(out, "tedit_scan_done", "scan", scan.getName(), scan.getDone());
+        header(out, "tedit_scan_items", "gauge", "Items checked by the current or last scan");
+        for (Metrics.ScanProgress scan : metrics.getScans()) sample(out, "tedit_scan_items", "scan", scan.getName(), scan.getItems());
+        header(out, "tedit_scan_violations", "gauge", "Out-of-policy items found by the current or last scan");
+        for (Metrics.ScanProgress scan : metrics.getScans()) sample(out, "tedit_scan_violations", "scan", scan.getName(), scan.getViolations());
+
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    private static void histogram(@NotNull StringBuilder out, @NotNull LatencyHistogram latency) {
+        String name = "tedit_" + latency.getName() + "_seconds";
+        header(out, name, "histogram", latency.getDescription());
+        out.append("# UNIT ").append(name).append(" seconds\n");
+        long[] counts = latency.getBucketCounts();
+        long total = 0;
+        for (long count : counts) total += count; // Count from the same snapshot, so +Inf always matches _count
+        int bucket = 0;
+        long cumulative = 0;
+        for (double bound : BUCKET_BOUNDS_SECONDS) {
+            long boundNanos = (long) (bound * 1_000_000_000L);
+            while (bucket < counts.length && LatencyHistogram.upperBoundOf(bucket) <= boundNanos) cumulative += counts[bucket++];
+            out.append(name).append("_bucket{le=\"").append(formatDouble(bound)).append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(total).append('\n');
+        out.append(name).append("_count ").append(total).append('\n');
+        out.append(name).append("_sum ").append(formatDouble(latency.getSumNanos() / 1e9)).append('\n');
+    }
+
+    private static void gauge(@NotNull StringBuilder out, @NotNull String name, @NotNull String help, long value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void counter(@NotNull StringBuilder out, @NotNull String name, @NotNull String help, long value) {
+        header(out, name, "counter", help);
+        out.append(name).append("_total ").append(value).append('\n');
+    }
+
+    private static void header(@NotNull StringBuilder out, @NotNull String name, @NotNull String type, @NotNull String help) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(@NotNull StringBuilder out, @NotNull String name, @NotNull String label, @NotNull String labelValue, long value) {
+        out.append(name).append('{').append(label).append("=\"").append(labelValue).append("\"} ").append(value).append('\n');
+    }
+
+    @NotNull
+    private static String formatDouble(double value) {
+        return Double.toString(value); // Locale-independent, e.g. 5.0E-5 and 0.001
+    }
+}
@@ -0,0 +1,143 @@
+package com.takeda.metrics;
+
+import com.takeda.sessions.EditSession;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.event.inventory.ClickType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fixed-size ring of trace records for one player, kept while {@code /tedit trace} is on for them. Each record is a
+ * row of primitive columns (no objects besides the enchantment reference), written when its operation ends, so
+ * nested operations (a book render inside a click) come before the operation that caused them.
+ * <p>
+ * Records are only written on the main thread. {@link #snapshot()} can run on any thread without locking: it copies
+ * the ring and then drops the records the writer may have overwritten meanwhile.
+ */
+public final class TraceBuffer {
+
+    /** What a record describes. The meaning of {@code value} depends on the type. */
+    public enum Type {
+        GUI_OPEN("batch"), SESSION_CLOSE(null), PAGE_RENDER("page"), BOOK_RENDER("level"), CLICK("click"),
+        ENCHANT_APPLY("level"), CHAT_INPUT("state"), VALIDATION_FAILED(null), CLICK_OUTSIDE("click");
+
+        @Nullable private final String valueName;
+
+        Type(@Nullable String valueName) { this.valueName = valueName; }
+    }
+
+    public enum Outcome { OK, REJECTED, FAILED, IGNORED }
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT)
+            .withZone(ZoneId.systemDefault());
+    private static final Type[] TYPES = Type.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final String playerName;
+    private final int mask;
+    private final long[] timesMillis;
+    private final long[] durationsNanos;
+    private final int[] slots;
+    private final int[] values;
+    private final Enchantment[] enchantments;
+    private final byte[] types;
+    private final byte[] outcomes;
+    private volatile long head; // Records written so far; the next one goes to head & mask
+
+    /** @param capacity records kept, rounded up to a power of two */
+    public TraceBuffer(@NotNull String playerName, int capacity) {
+        int size = Math.max(16, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        this.playerName = playerName;
+        this.mask = size - 1;
+        this.timesMillis = new long[size];
+        this.durationsNanos = new long[size];
+        this.slots = new int[size];
+        this.values = new int[size];
+        this.enchantments = new Enchantment[size];
+        this.types = new byte[size];
+        this.outcomes = new byte[size];
+    }
+
+    @NotNull
+    public String getPlayerName() { return playerName; }
+
+    public int getCapacity() { return mask + 1; }
+
+    /**
+     * Appends a record, overwriting the oldest once the ring is full. Main thread only.
+     * @param slot GUI or inventory slot, -1 if none
+     * @param durationNanos how long the operation took, -1 if not timed
+     */
+    public void record(@NotNull Type type, int slot, @Nullable Enchantment enchantment, int value, long durationNanos, @NotNull Outcome outcome) {
+        long sequence = head;
+        int index = (int) (sequence & mask);
+        timesMillis[index] = System.currentTimeMillis();
+        durationsNanos[index] = durationNanos;
+        slots[index] = slot;
+        values[index] = value;
+        enchantments[index] = enchantment;
+        types[index] = (byte) type.ordinal();
+        outcomes[index] = (byte) outcome.ordinal();
+        head = sequence + 1; // Publishes the record
+    }
+
+    /** The records still in the ring, oldest first, one formatted line each. */
+    @NotNull
+    public List<String> snapshot() {
+        long end = head;
+        long start = Math.max(0, end - mask - 1);
+        int count = (int) (end - start);
+        long[] copiedTimes = new long[count], copiedDurations = new long[count];
+        int[] copiedSlots = new int[count], copiedValues = new int[count];
+        Enchantment[] copiedEnchantments = new Enchantment[count];
+        byte[] copiedTypes = new byte[count], copiedOutcomes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((start + i) & mask);
+            copiedTimes[i] = timesMillis[index];
+            copiedDurations[i] = durationsNanos[index];
+            copiedSlots[i] = slots[index];
+            copiedValues[i] = values[index];
+            copiedEnchantments[i] = enchantments[index];
+            copiedTypes[i] = types[index];
+            copiedOutcomes[i] = outcomes[index];
+        }
+        // Records the writer reached while we copied (plus the one it may be writing) are no longer trustworthy.
+        // The fence keeps the plain loads above from moving below the re-read of head (seqlock validation).
+        VarHandle.acquireFence();
+        long firstIntact = Math.max(start, head + 1 - (mask + 1));
+        List<String> lines = new ArrayList<>(count);
+        for (int i = (int) Math.min(count, firstIntact - start); i < count; i++) {
+            lines.add(format(copiedTimes[i], TYPES[copiedTypes[i]], copiedSlots[i], copiedEnchantments[i], copiedValues[i],
+                    copiedDurations[i], OUTCOMES[copiedOutcomes[i]]));
+        }
+        return lines;
+    }
+
+    @NotNull
+    private static String format(long timeMillis, @NotNull Type type, int slot, @Nullable Enchantment enchantment, int value, long durationNanos, @NotNull Outcome outcome) {
+        StringBuilder line = new StringBuilder(96).append(TIME_FORMAT.format(Instant.ofEpochMilli(timeMillis)))
+                .append(' ').append(type.name().toLowerCase(Locale.ROOT));
+        if (slot >= 0) line.append(" slot=").append(slot);
+        if (enchantment != null) line.append(" enchant=").append(enchantment.getKey());
+        if (type.valueName != null) line.append(' ').append(type.valueName).append('=').append(formatValue(type, value));
+        if (durationNanos >= 0) line.append(" took_us=").append(durationNanos / 1000);
+        return line.append(" outcome=").append(outcome.name().toLowerCase(Locale.ROOT)).toString();
+    }
+
+    @NotNull
+    private static String formatValue(@NotNull Type type, int value) {
+        return switch (type) {
+            case CLICK, CLICK_OUTSIDE -> value >= 0 && value < ClickType.values().length ? ClickType.values()[value].name() : String.valueOf(value);
+            case CHAT_INPUT -> value >= 0 && value < EditSession.EditActionState.values().length ? EditSession.EditActionState.values()[value].name() : String.valueOf(value);
+            default -> String.valueOf(value);
+        };
+    }
+}
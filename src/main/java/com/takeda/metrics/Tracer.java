@@ -0,0 +1,73 @@
+package com.takeda.metrics;
+
+import com.takeda.TEditPlugin;
+import com.takeda.sessions.EditSession;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Players with tracing on ({@code /tedit trace <player>}) and their {@link TraceBuffer}s. A traced player's sessions
+ * hold the buffer, so call sites only check {@link EditSession#getTrace()} for null; with tracing off nothing else
+ * is computed. Buffers outlive sessions and relogs until tracing is turned off.
+ */
+public final class Tracer {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final TEditPlugin plugin;
+    private final Map<UUID, TraceBuffer> buffers = new ConcurrentHashMap<>();
+
+    public Tracer(@NotNull TEditPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** The player's buffer, or null if they are not traced. */
+    @Nullable
+    public TraceBuffer getBuffer(@NotNull UUID playerId) {
+        return buffers.get(playerId);
+    }
+
+    /**
+     * Turns tracing on or off for a player, including their open session. Turning it off discards the buffer.
+     * @return true if tracing is now on
+     */
+    public boolean toggle(@NotNull Player player) {
+        UUID playerId = player.getUniqueId();
+        TraceBuffer buffer = buffers.containsKey(playerId) ? null : new TraceBuffer(player.getName(), plugin.getSettingsManager().getTraceBufferSize());
+        if (buffer == null) buffers.remove(playerId);
+        else buffers.put(playerId, buffer);
+        plugin.getSessionManager().getSession(playerId).ifPresent(session -> session.setTrace(buffer));
+        return buffer != null;
+    }
+
+    /**
+     * Writes a buffer's records to {@code traces/<player>-<time>.txt} in the plugin folder. Safe to call off the main
+     * thread; the buffer keeps recording meanwhile.
+     * @return the file written
+     */
+    @NotNull
+    public Path dump(@NotNull TraceBuffer buffer) throws IOException {
+        List<String> lines = buffer.snapshot();
+        Path file = plugin.getDataFolder().toPath().resolve("traces")
+                .resolve(buffer.getPlayerName() + "-" + LocalDateTime.now().format(FILE_TIME) + ".txt");
+        Files.createDirectories(file.getParent());
+        StringBuilder out = new StringBuilder(64 + lines.size() * 96)
+                .append("# T-Edit trace for ").append(buffer.getPlayerName()).append(": ").append(lines.size())
+                .append(" records (of ").append(buffer.getCapacity()).append(" kept), oldest first\n");
+        for (String line : lines) out.append(line).append('\n');
+        Files.writeString(file, out, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,176 @@
+package com.takeda.metrics;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.sessions.EditSession;
+import com.takeda.util.EnchantmentUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Reports main-thread operations that take longer than their configured threshold ({@code watchdog} in config.yml).
+ * <p>
+ * Operations are bracketed with {@link #begin} and {@link #end} on the main thread; only the outermost one is
+ * watched (an open that renders a page is reported as the open). A daemon sampler thread checks the operation in
+ * flight and, once it is over its threshold, takes one stack sample of the main thread while it is still busy.
+ * When the operation ends over its threshold, one line is logged with the operation's context and that sample.
+ * Reports are limited per minute; the ones left out are counted in the next report.
+ */
+public final class Watchdog {
+
+    /** Watched operation types, each with its own threshold. */
+    public enum Operation { OPEN, RENDER, APPLY, RELOAD, SCAN }
+
+    private static final long IDLE = 0;
+
+    private final TEditPlugin plugin;
+    private final SettingsManager settings;
+    private final Logger logger;
+    private final Thread mainThread;
+    @Nullable private Thread sampler;
+
+    // Written by the main thread, read by the sampler
+    private volatile long startNanos = IDLE;
+    private volatile long thresholdNanos;
+    // Written by the sampler, read by the main thread
+    private volatile long sampledStart = IDLE;
+    private volatile StackTraceElement[] sample;
+
+    // Main thread only
+    private Operation current;
+    private int startTick;
+    private long windowStartMillis;
+    private int reportsInWindow;
+    private int suppressed;
+
+    public Watchdog(@NotNull TEditPlugin plugin, @NotNull Thread mainThread) {
+        this.plugin = plugin;
+        this.settings = plugin.getSettingsManager();
+        this.logger = plugin.getLogger();
+        this.mainThread = mainThread;
+    }
+
+    /** Starts the sampler thread if the watchdog is enabled. */
+    public void start() {
+        if (!settings.isWatchdogEnabled()) return;
+        Thread thread = new Thread(this::sampleLoop, "T-Edit Watchdog");
+        thread.setDaemon(true);
+        thread.start();
+        sampler = thread;
+    }
+
+    public void stop() {
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler = null;
+        }
+    }
+
+    /**
+     * Marks the start of an operation, to be paired with {@link #end}. An operation whose {@code end} was skipped by
+     * an exception is dropped by the first {@code begin} of a later tick, as nothing on the main thread spans ticks.
+     * @return true if this call is watched (outermost operation, watchdog on); pass it to {@link #end}
+     */
+    public boolean begin(@NotNull Operation operation) {
+        if (sampler == null) return false;
+        int tick = Bukkit.getCurrentTick();
+        if (startNanos != IDLE && startTick == tick) return false; // Nested in the operation being watched
+        long threshold = settings.getWatchdogThresholdNanos(operation);
+        if (threshold <= 0) {
+            startNanos = IDLE;
+            return false;
+        }
+        current = operation;
+        startTick = tick;
+        thresholdNanos = threshold;
+        startNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Ends an operation started by {@link #begin}; logs it if it was over its threshold.
+     * @param session the session the operation ran for, used for context; null for reloads and scans
+     */
+    public void end(boolean watched, @Nullable EditSession session) {
+        if (!watched) return;
+        long start = startNanos;
+        long elapsed = System.nanoTime() - start;
+        startNanos = IDLE;
+        if (elapsed < thresholdNanos) return;
+        StackTraceElement[] stack = sampledStart == start ? sample : null;
+        report(current, elapsed, session, stack);
+    }
+
+    private void report(@NotNull Operation operation, long elapsedNanos, @Nullable EditSession session, @Nullable StackTraceElement[] stack) {
+        long now = System.currentTimeMillis();
+        if (now - windowStartMillis >= TimeUnit.MINUTES.toMillis(1)) {
+            windowStartMillis = now;
+            reportsInWindow = 0;
+        }
+        if (reportsInWindow >= settings.getWatchdogMaxReportsPerMinute()) {
+            suppressed++;
+            return;
+        }
+        reportsInWindow++;
+
+        StringBuilder line = new StringBuilder(256).append("[Watchdog] slow operation=").append(operation.name().toLowerCase(Locale.ROOT))
+                .append(" took_ms=").append(String.format(Locale.ROOT, "%.2f", elapsedNanos / 1_000_000.0))
+                .append(" threshold_ms=").append(TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+        appendContext(line, session);
+        line.append(" suppressed=").append(suppressed);
+        suppressed = 0;
+        line.append(" stack=");
+        if (stack == null) {
+            line.append("none (finished before the sampler saw it)");
+        } else {
+            int depth = Math.min(stack.length, settings.getWatchdogStackDepth());
+            for (int i = 0; i < depth; i++) {
+                if (i > 0) line.append(" <- ");
+                line.append(stack[i]);
+            }
+            if (stack.length > depth) line.append(" <- ...");
+        }
+        logger.warning(line.toString());
+    }
+
+    private void appendContext(@NotNull StringBuilder line, @Nullable EditSession session) {
+        String registry = EnchantmentUtil.isRegistryCached() ? "warm" : "cold";
+        if (session == null) {
+            line.append(" player=- material=- enchants=- page=- cache=registry:").append(registry);
+            return;
+        }
+        Player player = Bukkit.getPlayer(session.getPlayerId());
+        ItemStack preview = session.getPreviewItem();
+        line.append(" player=").append(player != null ? player.getName() : session.getPlayerId())
+                .append(" material=").append(preview.getType().getKey())
+                .append(" enchants=").append(plugin.getItemDataBackend().open(preview).getEnchantments().size())
+                .append(" page=").append(session.getEnchantmentPage() + 1).append('/').append(session.getTotalEnchantmentPages())
+                .append(" batch=").append(session.getBatchSize())
+                .append(" cache=registry:").append(registry)
+                .append(",size:").append(session.getItemSizeEstimate() >= 0 ? "estimated" : "unmeasured");
+    }
+
+    /** Polls the operation in flight and samples the main thread's stack once per slow operation. */
+    private void sampleLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long start = startNanos;
+            long threshold = thresholdNanos;
+            if (start != IDLE && sampledStart != start && System.nanoTime() - start >= threshold) {
+                StackTraceElement[] stack = mainThread.getStackTrace();
+                if (startNanos == start) { // Still the same operation, so the sample shows where it is stuck
+                    sample = stack;
+                    sampledStart = start;
+                }
+            }
+            LockSupport.parkNanos(settings.getWatchdogSampleIntervalNanos());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.takeda.presets;
+
+import com.takeda.util.ItemEditTransaction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player clipboard for item properties (name, lore, enchantments), filled by the GUI's copy button or
+ * {@code /edit copy} and applied with paste. Entries are unsaved presets; they live in memory until the player quits.
+ * Only accessed from the server thread.
+ */
+public final class Clipboard {
+
+    private static final String ENTRY_NAME = "clipboard";
+
+    private final Map<UUID, Preset> entries = new HashMap<>();
+
+    /** Stores the properties captured by a transaction as the player's clipboard, replacing any earlier copy. */
+    @NotNull
+    public Preset copy(@NotNull UUID playerId, @NotNull ItemEditTransaction transaction) {
+        Preset entry = Preset.capture(playerId, ENTRY_NAME, transaction);
+        entries.put(playerId, entry);
+        return entry;
+    }
+
+    @Nullable
+    public Preset get(@NotNull UUID playerId) {
+        return entries.get(playerId);
+    }
+
+    public void clear(@NotNull UUID playerId) {
+        entries.remove(playerId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.takeda.presets;
+
+import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.ItemEditTransaction;
+import net.kyori.adventure.text.Component;
+import org.bukkit.enchantments.Enchantment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A saved edit: custom name, lore and enchantment set. Owned by a player, or global when {@code owner} is null.
+ * Enchantments are kept by key so presets survive enchantments that are missing at load time (e.g. removed datapacks).
+ */
+public record Preset(
+        @Nullable UUID owner,
+        @NotNull String name,
+        @Nullable Component displayName,
+        @NotNull List<Component> lore,
+        @NotNull Map<String, Integer> enchantments
+) {
+
+    /** Properties a preset (or clipboard entry) carries, for applying only some of them. */
+    public enum Part {
+        NAME, LORE, ENCHANTMENTS;
+
+        /**
+         * Parses a part selection: "all", "name", "lore" or "enchants".
+         * @return the selected parts, or null if the input is not a selection.
+         */
+        @Nullable
+        public static Set<Part> parse(@NotNull String input) {
+            return switch (input.toLowerCase(Locale.ROOT)) {
+                case "all" -> EnumSet.allOf(Part.class);
+                case "name" -> EnumSet.of(NAME);
+                case "lore" -> EnumSet.of(LORE);
+                case "enchants" -> EnumSet.of(ENCHANTMENTS);
+                default -> null;
+            };
+        }
+    }
+
+    public Preset {
+        lore = List.copyOf(lore);
+        enchantments = Collections.unmodifiableMap(new LinkedHashMap<>(enchantments));
+    }
+
+    public boolean isGlobal() { return owner == null; }
+
+    /** Captures name, lore and enchantments from the transaction's in-flight state. */
+    @NotNull
+    public static Preset capture(@Nullable UUID owner, @NotNull String name, @NotNull ItemEditTransaction transaction) {
+        Map<String, Integer> enchantments = new LinkedHashMap<>();
+        transaction.getEnchantments().forEach((enchantment, level) -> enchantments.put(enchantment.getKey().toString(), level));
+        return new Preset(owner, name, transaction.getName(), transaction.getLore(), enchantments);
+    }
+
+    /**
+     * Applies this preset to a transaction: the enchantment set replaces the item's, name and lore are set when the
+     * preset has them. Every step goes through the transaction's permission, cap and conflict rules.
+     * @return keys of enchantments (or "name"/"lore") that could not be applied.
+     */
+    @NotNull
+    public List<String> applyTo(@NotNull ItemEditTransaction transaction) {
+        return applyTo(transaction, EnumSet.allOf(Part.class));
+    }
+
+    /**
+     * Applies only the given parts of this preset, with the same rules as {@link #applyTo(ItemEditTransaction)}.
+     * Enchantments the item cannot take are skipped and reported rather than failing the whole apply.
+     * @return keys of enchantments (or "name"/"lore") that could not be applied.
+     */
+    @NotNull
+    public List<String> applyTo(@NotNull ItemEditTransaction transaction, @NotNull Set<Part> parts) {
+        List<String> skipped = new ArrayList<>();
+        if (parts.contains(Part.NAME) && displayName != null && transaction.setName(displayName) == ItemEditTransaction.Result.NO_PERMISSION) skipped.add("name");
+        if (parts.contains(Part.LORE) && !lore.isEmpty() && transaction.setLore(lore) == ItemEditTransaction.Result.NO_PERMISSION) skipped.add("lore");
+        if (!parts.contains(Part.ENCHANTMENTS)) return skipped;
+
+        // Drop enchantments the preset does not have first, so conflicts are checked against the preset's own set
+        for (Enchantment existing : new ArrayList<>(transaction.getEnchantments().keySet())) {
+            if (!enchantments.containsKey(existing.getKey().toString())) transaction.setEnchantment(existing, 0);
+        }
+        enchantments.forEach((key, level) -> {
+            Enchantment enchantment = EnchantmentUtil.getEnchantmentByKey(key);
+            if (enchantment == null || !EnchantmentUtil.isApplicableTo(enchantment, transaction.getItemStack())) {
+                skipped.add(key);
+                return;
+            }
+            ItemEditTransaction.Result result = transaction.setEnchantment(enchantment, level);
+            if (result == ItemEditTransaction.Result.NO_PERMISSION || result == ItemEditTransaction.Result.CONFLICT) skipped.add(key);
+        });
+        return skipped;
+    }
+}
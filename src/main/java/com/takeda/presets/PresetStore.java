@@ -0,0 +1,409 @@
+package com.takeda.presets;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Stores presets in a single append-only binary file ({@code presets.dat}).
+ * <p>
+ * Every save or delete appends one record; the newest record for an (owner, name) pair wins. On first use the file
+ * is scanned once, reading only record headers and skipping payloads, to build an in-memory index of payload
+ * offsets. Payloads are read on demand. When superseded records outweigh live ones the file is rewritten
+ * (atomically, via a temp file) on load and on shutdown.
+ * <p>
+ * All file access and index state live on one IO thread; methods return futures and never block the caller.
+ * Use {@link #mainThread()} to continue on the server thread.
+ * <pre>
+ * file    = magic:int version:short record*
+ * record  = type:byte ownerMost:long ownerLeast:long nameLength:short name:utf8 [payloadLength:int payload]  (payload only for PUT)
+ * payload = displayName:string loreCount:short string* enchantCount:short (key:string level:short)*
+ * string  = length:int utf8   (components are stored as JSON, "" = no name)
+ * </pre>
+ */
+public final class PresetStore {
+
+    private static final int MAGIC = 0x54505253; // "TPRS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_DELETE = 2;
+    private static final long COMPACT_MIN_GARBAGE = 64 * 1024; // Not worth rewriting small files
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final GsonComponentSerializer GSON = GsonComponentSerializer.gson();
+
+    /** Index entry for one live preset. Owner is null for global presets. */
+    public record Entry(@Nullable UUID owner, @NotNull String name, long payloadOffset, int payloadLength) {
+        public boolean isGlobal() { return owner == null; }
+    }
+
+    private record Key(@Nullable UUID owner, @NotNull String lowerName) {
+        static Key of(@Nullable UUID owner, @NotNull String name) { return new Key(owner, name.toLowerCase()); }
+    }
+
+    private final Logger logger;
+    private final Path file;
+    private final ExecutorService ioExecutor;
+    private final Executor mainThread;
+
+    // IO thread only
+    private Map<Key, Entry> index; // null until first use
+    private long fileSize;
+    private long garbageBytes; // Bytes held by superseded or deleted records
+
+    public PresetStore(@NotNull Plugin plugin, @NotNull Path file) {
+        Objects.requireNonNull(plugin, "plugin cannot be null");
+        this.logger = plugin.getLogger();
+        this.file = Objects.requireNonNull(file, "file cannot be null");
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "T-Edit Preset IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.mainThread = runnable -> plugin.getServer().getScheduler().runTask(plugin, runnable);
+    }
+
+    /** Preset names are short identifiers so they stay easy to type in commands. */
+    public static boolean isValidName(@NotNull String name) {
+        return NAME_PATTERN.matcher(name).matches();
+    }
+
+    /** Executor that runs tasks on the server thread, for continuing after a store operation. */
+    @NotNull
+    public Executor mainThread() { return mainThread; }
+
+    // --- Operations ---
+
+    /** Presets visible to a player: their own first, then global ones, each sorted by name. */
+    @NotNull
+    public CompletableFuture<List<Entry>> list(@NotNull UUID viewer) {
+        return submit(() -> {
+            List<Entry> visible = new ArrayList<>();
+            for (Entry entry : index().values()) {
+                if (entry.isGlobal() || viewer.equals(entry.owner())) visible.add(entry);
+            }
+            visible.sort(Comparator.comparing(Entry::isGlobal).thenComparing(Entry::name, String.CASE_INSENSITIVE_ORDER));
+            return visible;
+        });
+    }
+
+    /** Loads a preset by name, preferring the player's own over a global one. Completes with null if neither exists. */
+    @NotNull
+    public CompletableFuture<Preset> find(@NotNull UUID viewer, @NotNull String name) {
+        return submit(() -> {
+            Entry entry = index().get(Key.of(viewer, name));
+            if (entry == null) entry = index.get(Key.of(null, name));
+            return entry != null ? readPreset(entry) : null;
+        });
+    }
+
+    /** Loads the payloads of the given entries (e.g. one GUI page). Entries removed in the meantime are left out. */
+    @NotNull
+    public CompletableFuture<List<Preset>> load(@NotNull List<Entry> entries) {
+        return submit(() -> {
+            List<Preset> presets = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                Entry current = index().get(Key.of(entry.owner(), entry.name()));
+                if (current != null) presets.add(readPreset(current));
+            }
+            return presets;
+        });
+    }
+
+    /** Saves a preset, replacing any preset with the same owner and name. */
+    @NotNull
+    public CompletableFuture<Void> save(@NotNull Preset preset) {
+        byte[] payload = encode(preset); // Serialize on the caller's thread, the preset is immutable either way
+        return submit(() -> {
+            Map<Key, Entry> index = index();
+            long payloadOffset = append(RECORD_PUT, preset.owner(), preset.name(), payload);
+            Entry previous = index.put(Key.of(preset.owner(), preset.name()), new Entry(preset.owner(), preset.name(), payloadOffset, payload.length));
+            if (previous != null) garbageBytes += recordSize(previous);
+            return null;
+        });
+    }
+
+    /** Deletes a preset. Completes with false if it did not exist. */
+    @NotNull
+    public CompletableFuture<Boolean> delete(@Nullable UUID owner, @NotNull String name) {
+        return submit(() -> {
+            Entry removed = index().remove(Key.of(owner, name));
+            if (removed == null) return false;
+            long before = fileSize;
+            append(RECORD_DELETE, owner, removed.name(), null);
+            garbageBytes += recordSize(removed) + (fileSize - before);
+            return true;
+        });
+    }
+
+    /** Compacts if worthwhile and stops the IO thread, waiting briefly for pending writes. */
+    public void close() {
+        ioExecutor.execute(() -> {
+            try {
+                if (index != null) compactIfNeeded();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to compact preset store " + file, e);
+            }
+        });
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Preset store did not finish pending writes in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- IO thread internals ---
+
+    private interface IoTask<T> { T run() throws IOException; }
+
+    @NotNull
+    private <T> CompletableFuture<T> submit(@NotNull IoTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.run();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Preset store I/O failed for " + file, e);
+                throw new UncheckedIOException(e);
+            }
+        }, ioExecutor);
+    }
+
+    /** Returns the index, scanning the file the first time. Payloads are skipped, not read. */
+    @NotNull
+    private Map<Key, Entry> index() throws IOException {
+        if (index != null) return index;
+        Map<Key, Entry> loaded = new HashMap<>();
+        if (!Files.exists(file)) {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+            }
+            fileSize = HEADER_SIZE;
+            return index = loaded;
+        }
+
+        long position = HEADER_SIZE;
+        garbageBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a T-Edit preset file: " + file);
+            int version = in.readUnsignedShort();
+            if (version != VERSION) throw new IOException("Unsupported preset file version " + version + " in " + file);
+
+            while (true) {
+                int type = in.read();
+                if (type == -1) break;
+                long recordStart = position;
+                try {
+                    UUID owner = readOwner(in);
+                    byte[] nameBytes = new byte[in.readUnsignedShort()];
+                    in.readFully(nameBytes);
+                    String name = new String(nameBytes, StandardCharsets.UTF_8);
+                    position += 1 + 16 + 2 + nameBytes.length;
+                    Key key = Key.of(owner, name);
+                    Entry previous;
+                    if (type == RECORD_PUT) {
+                        int payloadLength = in.readInt();
+                        position += 4;
+                        in.skipNBytes(payloadLength);
+                        previous = loaded.put(key, new Entry(owner, name, position, payloadLength));
+                        position += payloadLength;
+                    } else if (type == RECORD_DELETE) {
+                        previous = loaded.remove(key);
+                        garbageBytes += position - recordStart;
+                    } else {
+                        throw new IOException("Unknown record type " + type + " at offset " + recordStart + " in " + file);
+                    }
+                    if (previous != null) garbageBytes += recordSize(previous);
+                } catch (EOFException e) {
+                    // A write was cut off (crash); drop the partial record so appends continue from a clean end
+                    logger.warning("Preset store ends with a truncated record at offset " + recordStart + "; discarding it.");
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.truncate(recordStart);
+                    }
+                    position = recordStart;
+                    break;
+                }
+            }
+        }
+        fileSize = position;
+        index = loaded;
+        compactIfNeeded();
+        return index;
+    }
+
+    /** Appends one record. Returns the payload offset (or the record end for payload-less records). */
+    private long append(byte type, @Nullable UUID owner, @NotNull String name, @Nullable byte[] payload) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 + 16 + 2 + nameBytes.length + (payload != null ? 4 + payload.length : 0));
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(type);
+        out.writeLong(owner != null ? owner.getMostSignificantBits() : 0L);
+        out.writeLong(owner != null ? owner.getLeastSignificantBits() : 0L);
+        out.writeShort(nameBytes.length);
+        out.write(nameBytes);
+        if (payload != null) {
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+
+        long payloadOffset = fileSize + buffer.size() - (payload != null ? payload.length : 0);
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) channel.write(bytes);
+        }
+        fileSize += buffer.size();
+        return payloadOffset;
+    }
+
+    @NotNull
+    private Preset readPreset(@NotNull Entry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return decode(entry.owner(), entry.name(), readPayload(channel, entry));
+        }
+    }
+
+    @NotNull
+    private byte[] readPayload(@NotNull FileChannel channel, @NotNull Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.payloadLength());
+        long position = entry.payloadOffset();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException("Preset payload for '" + entry.name() + "' is past the end of " + file);
+            position += read;
+        }
+        return buffer.array();
+    }
+
+    /** Rewrites the file with live records only, when superseded records outweigh them. */
+    private void compactIfNeeded() throws IOException {
+        long liveBytes = fileSize - HEADER_SIZE - garbageBytes;
+        if (garbageBytes < COMPACT_MIN_GARBAGE || garbageBytes < liveBytes) return;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<Key, Entry> compacted = new HashMap<>(index.size() * 2);
+        long position = HEADER_SIZE;
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            for (Map.Entry<Key, Entry> indexed : index.entrySet()) {
+                Entry entry = indexed.getValue();
+                byte[] payload = readPayload(source, entry);
+                byte[] nameBytes = entry.name().getBytes(StandardCharsets.UTF_8);
+                out.writeByte(RECORD_PUT);
+                out.writeLong(entry.owner() != null ? entry.owner().getMostSignificantBits() : 0L);
+                out.writeLong(entry.owner() != null ? entry.owner().getLeastSignificantBits() : 0L);
+                out.writeShort(nameBytes.length);
+                out.write(nameBytes);
+                out.writeInt(entry.payloadLength());
+                out.write(payload);
+                position += 1 + 16 + 2 + nameBytes.length + 4;
+                compacted.put(indexed.getKey(), new Entry(entry.owner(), entry.name(), position, entry.payloadLength()));
+                position += entry.payloadLength();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Compacted preset store: " + (fileSize - position) + " bytes reclaimed, " + compacted.size() + " presets.");
+        index = compacted;
+        fileSize = position;
+        garbageBytes = 0;
+    }
+
+    private static long recordSize(@NotNull Entry entry) {
+        return 1 + 16 + 2 + entry.name().getBytes(StandardCharsets.UTF_8).length + 4 + entry.payloadLength();
+    }
+
+    @Nullable
+    private static UUID readOwner(@NotNull DataInputStream in) throws IOException {
+        long most = in.readLong();
+        long least = in.readLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+
+    // --- Payload encoding ---
+
+    @NotNull
+    private static byte[] encode(@NotNull Preset preset) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(buffer);
+            writeString(out, preset.displayName() != null ? GSON.serialize(preset.displayName()) : "");
+            out.writeShort(preset.lore().size());
+            for (Component line : preset.lore()) writeString(out, GSON.serialize(line));
+            out.writeShort(preset.enchantments().size());
+            for (Map.Entry<String, Integer> enchantment : preset.enchantments().entrySet()) {
+                writeString(out, enchantment.getKey());
+                out.writeShort(enchantment.getValue());
+            }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream does not throw
+        }
+    }
+
+    @NotNull
+    private static Preset decode(@Nullable UUID owner, @NotNull String name, @NotNull byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String displayNameJson = readString(in);
+        Component displayName = displayNameJson.isEmpty() ? null : GSON.deserialize(displayNameJson);
+        int loreCount = in.readUnsignedShort();
+        List<Component> lore = new ArrayList<>(loreCount);
+        for (int i = 0; i < loreCount; i++) lore.add(GSON.deserialize(readString(in)));
+        int enchantCount = in.readUnsignedShort();
+        Map<String, Integer> enchantments = new LinkedHashMap<>();
+        for (int i = 0; i < enchantCount; i++) enchantments.put(readString(in), in.readUnsignedShort());
+        return new Preset(owner, name, displayName, lore, enchantments);
+    }
+
+    private static void writeString(@NotNull DataOutputStream out, @NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @NotNull
+    private static String readString(@NotNull DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,256 @@
+package com.takeda.scan;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.metrics.Metrics;
+import com.takeda.metrics.Watchdog;
+import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.ItemDataBackend;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.block.Container;
+import org.bukkit.command.CommandSender;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walks online player inventories, ender chests and container block entities in loaded chunks, reporting (and in fix
+ * mode clamping) enchantments that break the current policy ({@link EnchantmentUtil#enforcePolicy}).
+ * <p>
+ * Runs every tick until done, stopping each tick once the configured time budget is spent; progress is kept between
+ * ticks down to the inventory slot. Sources are queued as ids and resolved when reached, so players who left or
+ * chunks that unloaded in the meantime are skipped instead of touched.
+ */
+public final class InventoryScanTask extends BukkitRunnable {
+
+    private static final int MAX_REPORTED_VIOLATIONS = 10; // Sent to the scan's sender; all go to the console
+
+    /** Something that may hold items, resolved when the scan reaches it. */
+    private interface Source {
+        /** Adds the inventories this source holds right now. */
+        void resolve(@NotNull InventoryScanTask task);
+    }
+
+    private record PlayerSource(@NotNull UUID playerId, boolean enderChest) implements Source {
+        @Override
+        public void resolve(@NotNull InventoryScanTask task) {
+            Player player = Bukkit.getPlayer(playerId);
+            if (player == null) return;
+            // Items in an open T-Edit session are previewed by the GUI; report them but leave them alone
+            boolean editing = task.plugin.getSessionManager().isActive(playerId);
+            task.beginInventory(enderChest ? player.getEnderChest() : player.getInventory(),
+                    player.getName() + (enderChest ? " (ender chest)" : ""), !editing);
+        }
+    }
+
+    private record ChunkSource(@NotNull UUID worldId, int x, int z) implements Source {
+        @Override
+        public void resolve(@NotNull InventoryScanTask task) {
+            World world = Bukkit.getWorld(worldId);
+            if (world == null || !world.isChunkLoaded(x, z)) return;
+            Chunk chunk = world.getChunkAt(x, z);
+            for (BlockState state : chunk.getTileEntities(false)) { // Live states, no snapshot copies
+                if (state instanceof Container) task.pending.addFirst(new ContainerSource(worldId, state.getX(), state.getY(), state.getZ()));
+            }
+        }
+    }
+
+    private record ContainerSource(@NotNull UUID worldId, int x, int y, int z) implements Source {
+        @Override
+        public void resolve(@NotNull InventoryScanTask task) {
+            World world = Bukkit.getWorld(worldId);
+            if (world == null || !world.isChunkLoaded(x >> 4, z >> 4)) return;
+            BlockState state = world.getBlockAt(x, y, z).getState(false);
+            // Each half of a double chest is its own block entity; scan only its own half
+            Inventory inventory = state instanceof Chest chest ? chest.getBlockInventory()
+                    : state instanceof Container container ? container.getInventory() : null;
+            if (inventory != null) task.beginInventory(inventory, world.getName() + " " + x + "," + y + "," + z, true);
+        }
+    }
+
+    private record Violation(@NotNull String location, @NotNull String item, @NotNull String details) {}
+
+    private final TEditPlugin plugin;
+    private final SettingsManager settings;
+    private final ItemDataBackend backend;
+    private final CommandSender sender;
+    private final boolean fix;
+    private final Runnable onFinish;
+    private final Metrics.ScanProgress progress;
+    private final long budgetNanos;
+    private final long progressIntervalNanos;
+
+    private final Deque<Source> pending = new ArrayDeque<>();
+    private final List<String> violations = new ArrayList<>(); // Reused per item
+    private final List<Violation> reported = new ArrayList<>(MAX_REPORTED_VIOLATIONS);
+    @Nullable private Inventory current;
+    private String currentLabel;
+    private boolean currentFixable;
+    private int slot;
+
+    private int totalSources, doneSources, inventories, items, violatingItems, fixedItems, ticks;
+    private long startNanos, lastProgressNanos;
+
+    public InventoryScanTask(@NotNull TEditPlugin plugin, @NotNull CommandSender sender, boolean fix, @NotNull Runnable onFinish) {
+        this.plugin = plugin;
+        this.settings = plugin.getSettingsManager();
+        this.backend = plugin.getItemDataBackend();
+        this.sender = sender;
+        this.fix = fix;
+        this.onFinish = onFinish;
+        this.progress = plugin.getMetrics().onlineScan;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(settings.getScanTickBudgetMillis());
+        this.progressIntervalNanos = TimeUnit.SECONDS.toNanos(settings.getScanProgressIntervalSeconds());
+    }
+
+    /** Queues every current source and starts ticking. */
+    public void start() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            pending.add(new PlayerSource(player.getUniqueId(), false));
+            pending.add(new PlayerSource(player.getUniqueId(), true));
+        }
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) pending.add(new ChunkSource(world.getUID(), chunk.getX(), chunk.getZ()));
+        }
+        totalSources = pending.size();
+        startNanos = lastProgressNanos = System.nanoTime();
+        progress.begin();
+        sender.sendMessage(settings.getMessageComponent("scan_started",
+                Placeholder.unparsed("sources", String.valueOf(totalSources)),
+                Placeholder.parsed("mode", fix ? settings.getRawMessageWithoutPrefix("scan_mode_fix") : "")));
+        runTaskTimer(plugin, 1L, 1L);
+    }
+
+    @Override
+    public void run() {
+        Watchdog watchdog = plugin.getWatchdog();
+        boolean watched = watchdog.begin(Watchdog.Operation.SCAN);
+        try {
+            scanSlice();
+        } finally {
+            watchdog.end(watched, null);
+        }
+    }
+
+    /** Scans until this tick's budget is spent. */
+    private void scanSlice() {
+        ticks++;
+        long now = System.nanoTime();
+        long deadline = now + budgetNanos;
+        do {
+            if (current == null) {
+                // One source per step, so chunks without containers still count against the budget
+                Source source = pending.poll();
+                if (source == null) {
+                    finish();
+                    return;
+                }
+                int queuedBefore = pending.size();
+                source.resolve(this);
+                totalSources += pending.size() - queuedBefore; // Chunks expand into their containers
+                doneSources++;
+                continue;
+            }
+            if (slot >= current.getSize()) {
+                current = null;
+                continue;
+            }
+            scanItem(current.getItem(slot));
+            slot++;
+        } while (System.nanoTime() < deadline);
+        progress.update(doneSources, items, violatingItems);
+
+        if (now - lastProgressNanos >= progressIntervalNanos) {
+            lastProgressNanos = now;
+            sender.sendMessage(settings.getMessageComponent("scan_progress",
+                    Placeholder.unparsed("done", String.valueOf(doneSources)),
+                    Placeholder.unparsed("total", String.valueOf(totalSources)),
+                    Placeholder.unparsed("items", String.valueOf(items)),
+                    Placeholder.unparsed("violations", String.valueOf(violatingItems))));
+        }
+    }
+
+    private void beginInventory(@NotNull Inventory inventory, @NotNull String label, boolean fixable) {
+        current = inventory;
+        currentLabel = label;
+        currentFixable = fixable;
+        slot = 0;
+        inventories++;
+    }
+
+    private void scanItem(@Nullable ItemStack item) {
+        if (item == null || item.getType().isAir()) return;
+        items++;
+        ItemDataBackend.Handle handle = backend.open(item);
+        Map<Enchantment, Integer> enchantments = handle.getEnchantments();
+        if (enchantments.isEmpty()) return;
+
+        violations.clear();
+        Map<Enchantment, Integer> compliant = EnchantmentUtil.enforcePolicy(enchantments, handle.isEnchantmentStorage(), settings, violations);
+        if (compliant == null) return;
+        violatingItems++;
+
+        String location = currentLabel + " slot " + slot;
+        String details = String.join(", ", violations);
+        boolean fixing = fix && currentFixable;
+        plugin.getLogger().info("[Scan] " + location + ": " + item.getType().getKey() + " " + details + (fixing ? " (fixed)" : ""));
+        if (reported.size() < MAX_REPORTED_VIOLATIONS) reported.add(new Violation(location, item.getType().getKey().toString(), details));
+
+        if (fixing) {
+            handle.setEnchantments(compliant);
+            handle.commit();
+            current.setItem(slot, item); // Write back in case the inventory handed out a copy
+            fixedItems++;
+        }
+    }
+
+    private void finish() {
+        cancel();
+        progress.update(doneSources, items, violatingItems);
+        progress.end();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        sender.sendMessage(settings.getMessageComponent("scan_complete",
+                Placeholder.unparsed("time", String.valueOf(elapsedMillis)),
+                Placeholder.unparsed("ticks", String.valueOf(ticks)),
+                Placeholder.unparsed("items", String.valueOf(items)),
+                Placeholder.unparsed("inventories", String.valueOf(inventories)),
+                Placeholder.unparsed("violations", String.valueOf(violatingItems)),
+                Placeholder.unparsed("fixed", String.valueOf(fixedItems))));
+        for (Violation violation : reported) {
+            sender.sendMessage(settings.getMessageComponent("scan_violation",
+                    Placeholder.unparsed("location", violation.location()),
+                    Placeholder.unparsed("item", violation.item()),
+                    Placeholder.unparsed("details", violation.details())));
+        }
+        if (violatingItems > reported.size()) {
+            sender.sendMessage(settings.getMessageComponent("scan_more_in_console", Placeholder.unparsed("count", String.valueOf(violatingItems - reported.size()))));
+        }
+        plugin.getLogger().info("[Scan] Finished: " + items + " items in " + inventories + " inventories, " + violatingItems + " out of policy, "
+                + fixedItems + " fixed (" + elapsedMillis + " ms, " + ticks + " ticks).");
+        onFinish.run();
+    }
+
+    /** Stops the scan early, e.g. on request or plugin disable. */
+    public void stop() {
+        if (!isCancelled()) cancel();
+        progress.end();
+        onFinish.run();
+    }
+}
@@ -0,0 +1,298 @@
+package com.takeda.scan;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import com.takeda.metrics.Metrics;
+import com.takeda.util.EnchantmentUtil;
+import com.takeda.util.Nbt;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.command.CommandSender;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Checks saved player data ({@code <world>/playerdata/*.dat}) against the current enchantment policy, the offline
+ * counterpart of {@link InventoryScanTask}. Files are listed lazily and parsed on a worker pool, with a bounded
+ * number in flight, so memory stays flat however many players the server has seen.
+ * <p>
+ * Inventory and ender chest items are checked, including items inside containers (shulker boxes) they carry.
+ * Findings go to a report file. In fix mode a corrected file is written next to the original and moved over it
+ * atomically; players who are online (or log in during the scan) are skipped, since the server owns their data.
+ */
+public final class OfflineScanTask implements Listener {
+
+    private static final String TEMP_SUFFIX = ".tedit-tmp";
+    private static final List<String> ENCHANTMENT_COMPONENTS = List.of("minecraft:enchantments", "minecraft:stored_enchantments");
+    private static final DateTimeFormatter REPORT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private record Finding(@NotNull String location, @NotNull String item, @NotNull String details) {}
+
+    private final TEditPlugin plugin;
+    private final SettingsManager settings;
+    private final CommandSender sender;
+    private final boolean fix;
+    private final Runnable onFinish;
+    private final Metrics.ScanProgress progress;
+    private final Path playerDataFolder;
+    private final Set<UUID> onlinePlayers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger files = new AtomicInteger(), items = new AtomicInteger(), violatingItems = new AtomicInteger(),
+            fixedFiles = new AtomicInteger(), skippedFiles = new AtomicInteger(), failedFiles = new AtomicInteger();
+    private volatile boolean cancelled;
+    private BufferedWriter report; // Shared by workers, guarded by itself
+
+    public OfflineScanTask(@NotNull TEditPlugin plugin, @NotNull CommandSender sender, boolean fix, @NotNull Runnable onFinish) {
+        this.plugin = plugin;
+        this.settings = plugin.getSettingsManager();
+        this.sender = sender;
+        this.fix = fix;
+        this.onFinish = onFinish;
+        this.progress = plugin.getMetrics().offlineScan;
+        this.playerDataFolder = Bukkit.getWorlds().get(0).getWorldFolder().toPath().resolve("playerdata");
+    }
+
+    /** Snapshots who is online and starts the scan off the server thread. */
+    public void start() {
+        for (Player player : Bukkit.getOnlinePlayers()) onlinePlayers.add(player.getUniqueId());
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        progress.begin();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::run);
+    }
+
+    /** Stops submitting files; files already being processed finish normally. */
+    public void stop() {
+        cancelled = true;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        onlinePlayers.add(event.getUniqueId()); // Their file is about to be loaded, hands off
+    }
+
+    // --- Coordinator (async thread) ---
+
+    private void run() {
+        long startNanos = System.nanoTime();
+        int threads = settings.getOfflineScanThreads();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "T-Edit Offline Scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(threads * 4); // Bounds queued work, the directory is listed lazily
+        Path reportFile = plugin.getDataFolder().toPath().resolve("reports").resolve("offline-scan-" + LocalDateTime.now().format(REPORT_TIME) + ".txt");
+        send("offline_scan_started", Placeholder.unparsed("threads", String.valueOf(threads)),
+                Placeholder.parsed("mode", fix ? settings.getRawMessageWithoutPrefix("scan_mode_fix") : ""));
+
+        long nextProgress = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getScanProgressIntervalSeconds());
+        try {
+            Files.createDirectories(reportFile.getParent());
+            report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+            report.write("# T-Edit offline scan " + LocalDateTime.now() + (fix ? " (fix mode)" : "") + "\n# uuid\tlocation\titem\tdetails\n");
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(playerDataFolder, "*.dat")) {
+                for (Path file : stream) {
+                    if (cancelled) break;
+                    inFlight.acquire();
+                    workers.execute(() -> {
+                        try {
+                            scanFile(file);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                    progress.update(files.get(), items.get(), violatingItems.get());
+                    if (System.nanoTime() >= nextProgress) {
+                        nextProgress = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getScanProgressIntervalSeconds());
+                        send("offline_scan_progress", Placeholder.unparsed("files", String.valueOf(files.get())),
+                                Placeholder.unparsed("violations", String.valueOf(violatingItems.get())));
+                    }
+                }
+            }
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.HOURS);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Offline scan failed reading " + playerDataFolder, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+            if (report != null) {
+                try {
+                    report.close();
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Failed to close offline scan report " + reportFile, e);
+                }
+            }
+        }
+
+        progress.update(files.get(), items.get(), violatingItems.get());
+        progress.end();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        plugin.getLogger().info("[Offline Scan] " + (cancelled ? "Cancelled" : "Finished") + ": " + files.get() + " files, " + items.get() + " items, "
+                + violatingItems.get() + " out of policy, " + fixedFiles.get() + " files fixed, " + skippedFiles.get() + " skipped, "
+                + failedFiles.get() + " unreadable (" + elapsedMillis + " ms). Report: " + reportFile);
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            HandlerList.unregisterAll(this);
+            sender.sendMessage(settings.getMessageComponent("offline_scan_complete",
+                    Placeholder.unparsed("time", String.valueOf(elapsedMillis)),
+                    Placeholder.unparsed("files", String.valueOf(files.get())),
+                    Placeholder.unparsed("items", String.valueOf(items.get())),
+                    Placeholder.unparsed("violations", String.valueOf(violatingItems.get())),
+                    Placeholder.unparsed("fixed", String.valueOf(fixedFiles.get())),
+                    Placeholder.unparsed("skipped", String.valueOf(skippedFiles.get())),
+                    Placeholder.unparsed("failed", String.valueOf(failedFiles.get())),
+                    Placeholder.unparsed("report", plugin.getDataFolder().toPath().relativize(reportFile).toString())));
+            onFinish.run();
+        });
+    }
+
+    private void send(@NotNull String key, @NotNull TagResolver... resolvers) {
+        Component message = settings.getMessageComponent(key, resolvers);
+        Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+    }
+
+    // --- Workers ---
+
+    private void scanFile(@NotNull Path file) {
+        String fileName = file.getFileName().toString();
+        UUID playerId;
+        try {
+            playerId = UUID.fromString(fileName.substring(0, fileName.length() - ".dat".length()));
+        } catch (IllegalArgumentException e) {
+            return; // Not a player file
+        }
+
+        try {
+            Map<String, Object> root = Nbt.readCompressed(file);
+            files.incrementAndGet();
+            boolean canFix = fix && !onlinePlayers.contains(playerId);
+            List<Finding> findings = new ArrayList<>();
+            boolean changed = scanItemList(root.get("Inventory"), "inventory", canFix, findings);
+            changed |= scanItemList(root.get("EnderItems"), "ender chest", canFix, findings);
+            if (findings.isEmpty()) return;
+
+            String outcome = "";
+            if (changed) {
+                Path temp = file.resolveSibling(fileName + TEMP_SUFFIX);
+                Nbt.writeCompressed(temp, root);
+                if (onlinePlayers.contains(playerId)) { // Logged in while we were working
+                    Files.deleteIfExists(temp);
+                    skippedFiles.incrementAndGet();
+                    outcome = " [skipped: online]";
+                } else {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    fixedFiles.incrementAndGet();
+                    outcome = " [fixed]";
+                }
+            } else if (fix) {
+                skippedFiles.incrementAndGet();
+                outcome = " [skipped: online]";
+            }
+            synchronized (report) {
+                for (Finding finding : findings) {
+                    report.write(playerId + "\t" + finding.location() + "\t" + finding.item() + "\t" + finding.details() + outcome + "\n");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failedFiles.incrementAndGet();
+            plugin.getLogger().log(Level.WARNING, "[Offline Scan] Could not process " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /** Checks a list of slot compounds (each an item with a "Slot"/"slot" entry). Returns true if anything was changed. */
+    private boolean scanItemList(@Nullable Object listTag, @NotNull String location, boolean fix, @NotNull List<Finding> findings) {
+        if (!(listTag instanceof Nbt.ListTag list)) return false;
+        boolean changed = false;
+        for (Object element : list.values()) {
+            if (!(element instanceof Map<?, ?> entry)) continue;
+            Object slot = entry.containsKey("Slot") ? entry.get("Slot") : entry.get("slot");
+            // Player inventories store the item inline, containers nest it under "item"
+            Object item = entry.get("item") instanceof Map<?, ?> nested ? nested : entry;
+            changed |= scanItem(item, location + " slot " + slot, fix, findings);
+        }
+        return changed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean scanItem(@NotNull Object itemTag, @NotNull String location, boolean fix, @NotNull List<Finding> findings) {
+        Map<String, Object> item = (Map<String, Object>) itemTag;
+        if (!(item.get("id") instanceof String id)) return false;
+        items.incrementAndGet();
+        if (!(item.get("components") instanceof Map<?, ?> rawComponents)) return false;
+        Map<String, Object> components = (Map<String, Object>) rawComponents;
+
+        boolean changed = false;
+        boolean violating = false;
+        for (String componentKey : ENCHANTMENT_COMPONENTS) {
+            if (!(components.get(componentKey) instanceof Map<?, ?> component)) continue;
+            // 1.21-1.21.4 wrap the levels ({levels: {...}, show_in_tooltip}), later versions store them directly
+            Map<String, Object> levels = (Map<String, Object>) (component.get("levels") instanceof Map<?, ?> wrapped ? wrapped : component);
+
+            Map<Enchantment, Integer> enchantments = new LinkedHashMap<>();
+            Map<Enchantment, String> tagKeys = new LinkedHashMap<>(); // As written in the file, for writing back
+            for (Map.Entry<String, Object> level : levels.entrySet()) {
+                NamespacedKey key = NamespacedKey.fromString(level.getKey());
+                Enchantment enchantment = key != null ? Registry.ENCHANTMENT.get(key) : null;
+                if (enchantment != null && level.getValue() instanceof Number number) {
+                    enchantments.put(enchantment, number.intValue());
+                    tagKeys.put(enchantment, level.getKey());
+                }
+            }
+            List<String> violations = new ArrayList<>();
+            Map<Enchantment, Integer> compliant = EnchantmentUtil.enforcePolicy(enchantments, componentKey.equals("minecraft:stored_enchantments"), settings, violations);
+            if (compliant == null) continue;
+
+            violating = true;
+            findings.add(new Finding(location, id, String.join(", ", violations)));
+            if (fix) {
+                for (Map.Entry<Enchantment, String> tagKey : tagKeys.entrySet()) {
+                    Integer level = compliant.get(tagKey.getKey());
+                    if (level == null) levels.remove(tagKey.getValue());
+                    else levels.put(tagKey.getValue(), level);
+                }
+                changed = true;
+            }
+        }
+        if (violating) violatingItems.incrementAndGet();
+
+        // Shulker boxes and other containers carried as items
+        changed |= scanItemList(components.get("minecraft:container"), location + " > " + id, fix, findings);
+        return changed;
+    }
+}
@@ -1,10 +1,15 @@
 package com.takeda.sessions;
 
+import com.takeda.metrics.TraceBuffer;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -15,8 +20,10 @@ import java.util.UUID;
 public class EditSession {
 
     /** Defines states, especially when waiting for player input. */
-    public enum EditActionState { VIEWING, WAITING_FOR_RENAME, WAITING_FOR_LORE_ADD }
-    // TODO: Add states for WAITING_FOR_LORE_EDIT, WAITING_FOR_LORE_REMOVE if implementing advanced lore editing
+    public enum EditActionState { VIEWING, WAITING_FOR_RENAME, WAITING_FOR_LORE_ADD, WAITING_FOR_LORE_EDIT, WAITING_FOR_LORE_INSERT, WAITING_FOR_LEVEL_INPUT }
+
+    /** Defines what the enchantment display area of the GUI is currently showing. */
+    public enum GuiView { ENCHANTMENTS, LEVEL_PICKER, LORE_EDITOR }
 
     private final UUID playerId;
     private final ItemStack originalItem; // Clone of the item at session start
@@ -26,9 +33,26 @@ public class EditSession {
     private EditActionState currentState;
     private int enchantmentPage;        // Current page of enchantments being viewed
     private int totalEnchantmentPages;  // Total number of enchantment pages available
+    private GuiView guiView;            // What the enchantment slots are currently showing
+    private Enchantment pickerEnchantment; // Enchantment targeted by the level picker / level chat input
+    private int lorePage;               // Current page of the lore editor
+    private int totalLorePages = 1;     // Total number of lore editor pages
+    private int loreLineIndex = -1;     // Lore line targeted by lore edit/insert chat input
+    private boolean stagedMode;         // Edits go to the preview only until committed
+    private boolean hasStagedChanges;   // Preview differs from the actual item (staged mode only)
+    private int itemSizeEstimate = -1;  // Estimated serialized bytes of the edited item, -1 if not measured
+    private int[] batchSlots;           // Inventory slots edited together, primary (originalSlot) first; length 1 if not a batch
+    private Material[] batchTypes;      // Item type in each batch slot at session start, for the validation sweep
+    private TraceBuffer trace;          // Set while /tedit trace is on for the player, null otherwise
+    private long snapshottedSlots;      // Bit per inventory slot whose item was saved to the rollback vault this session
 
     public EditSession(@NotNull Player player, @NotNull ItemStack itemToEdit, int slot, @NotNull Inventory guiInventory) {
-        this.playerId = player.getUniqueId();
+        this(player.getUniqueId(), itemToEdit, slot, guiInventory);
+    }
+
+    /** Session for a player who may not be online, e.g. the synthetic session of the startup warmup. */
+    public EditSession(@NotNull UUID playerId, @NotNull ItemStack itemToEdit, int slot, @NotNull Inventory guiInventory) {
+        this.playerId = Objects.requireNonNull(playerId, "Player ID cannot be null");
         this.originalItem = Objects.requireNonNull(itemToEdit, "Item to edit cannot be null").clone();
         this.previewItem = originalItem.clone(); // Start preview as clone
         this.originalSlot = slot;
@@ -36,6 +60,9 @@ public class EditSession {
         this.currentState = EditActionState.VIEWING;
         this.enchantmentPage = 0; // Start at first page
         this.totalEnchantmentPages = 1; // Default to 1 page until calculated
+        this.guiView = GuiView.ENCHANTMENTS;
+        this.batchSlots = new int[] { slot };
+        this.batchTypes = new Material[] { originalItem.getType() };
     }
 
     // --- Getters ---
@@ -47,6 +74,25 @@ public class EditSession {
     @NotNull public EditActionState getCurrentState() { return currentState; }
     public int getEnchantmentPage() { return enchantmentPage; }
     public int getTotalEnchantmentPages() { return totalEnchantmentPages; }
+    @NotNull public GuiView getGuiView() { return guiView; }
+    @Nullable public Enchantment getPickerEnchantment() { return pickerEnchantment; }
+    public int getLorePage() { return lorePage; }
+    public int getTotalLorePages() { return totalLorePages; }
+    public int getLoreLineIndex() { return loreLineIndex; }
+    public boolean isStagedMode() { return stagedMode; }
+    public boolean hasStagedChanges() { return hasStagedChanges; }
+    public int getItemSizeEstimate() { return itemSizeEstimate; }
+    /** The player's trace buffer if tracing is on; check for null before computing anything to record. */
+    @Nullable public TraceBuffer getTrace() { return trace; }
+    /** True if actions apply to several inventory slots at once. */
+    public boolean isBatch() { return batchSlots.length > 1; }
+    public int getBatchSize() { return batchSlots.length; }
+    public int getBatchSlot(int index) { return batchSlots[index]; }
+    @NotNull public Material getBatchType(int index) { return batchTypes[index]; }
+    public boolean isBatchSlot(int slot) {
+        for (int batchSlot : batchSlots) if (batchSlot == slot) return true;
+        return false;
+    }
 
     // --- Setters ---
     /** Updates the preview item. Input is cloned to protect internal state. */
@@ -60,6 +106,63 @@ public class EditSession {
         // Ensure page is within valid bounds (0 to totalPages - 1)
         this.enchantmentPage = Math.max(0, Math.min(enchantmentPage, Math.max(0, this.totalEnchantmentPages - 1)));
     }
+    public void setStagedMode(boolean stagedMode) {
+        this.stagedMode = stagedMode;
+        if (!stagedMode) this.hasStagedChanges = false;
+    }
+    public void setItemSizeEstimate(int itemSizeEstimate) { this.itemSizeEstimate = itemSizeEstimate; }
+    public void setTrace(@Nullable TraceBuffer trace) { this.trace = trace; }
+    /** Marks the item in a slot as saved to the rollback vault. Returns true only the first time per slot this session. */
+    public boolean markSnapshotted(int slot) {
+        if (slot < 0 || slot >= Long.SIZE) return true; // Not tracked, snapshot every time
+        long bit = 1L << slot;
+        if ((snapshottedSlots & bit) != 0) return false;
+        snapshottedSlots |= bit;
+        return true;
+    }
+    /**
+     * Turns this session into a batch over the given slots. The original slot stays the primary (shown in the preview)
+     * and is always included first; types are snapshotted for the per-action validation sweep.
+     */
+    public void setBatchSlots(@NotNull int[] slots, @NotNull Material[] types) {
+        if (slots.length != types.length) throw new IllegalArgumentException("Batch slots and types must have the same length");
+        int[] newSlots = new int[slots.length + 1];
+        Material[] newTypes = new Material[slots.length + 1];
+        newSlots[0] = originalSlot;
+        newTypes[0] = originalItem.getType();
+        int count = 1;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == originalSlot) continue;
+            newSlots[count] = slots[i];
+            newTypes[count++] = types[i];
+        }
+        this.batchSlots = Arrays.copyOf(newSlots, count);
+        this.batchTypes = Arrays.copyOf(newTypes, count);
+    }
+    public void setHasStagedChanges(boolean hasStagedChanges) { this.hasStagedChanges = stagedMode && hasStagedChanges; }
+    /** Switches the enchantment area to the level picker for the given enchantment. */
+    public void openLevelPicker(@NotNull Enchantment enchantment) {
+        this.pickerEnchantment = Objects.requireNonNull(enchantment, "Picker enchantment cannot be null");
+        this.guiView = GuiView.LEVEL_PICKER;
+    }
+    /** Returns the enchantment area to the paged enchantment list. */
+    public void closeLevelPicker() {
+        this.pickerEnchantment = null;
+        this.guiView = GuiView.ENCHANTMENTS;
+    }
+    /** Switches the enchantment area to the lore editor. Keeps the lore page so re-opening returns to it. */
+    public void openLoreEditor() {
+        this.pickerEnchantment = null;
+        this.guiView = GuiView.LORE_EDITOR;
+    }
+    public void setLorePage(int lorePage) {
+        this.lorePage = Math.max(0, Math.min(lorePage, Math.max(0, this.totalLorePages - 1)));
+    }
+    public void setTotalLorePages(int totalLorePages) {
+        this.totalLorePages = Math.max(1, totalLorePages);
+        this.lorePage = Math.min(this.lorePage, this.totalLorePages - 1);
+    }
+    public void setLoreLineIndex(int loreLineIndex) { this.loreLineIndex = loreLineIndex; }
     public void setTotalEnchantmentPages(int totalEnchantmentPages) {
         this.totalEnchantmentPages = Math.max(1, totalEnchantmentPages); // Ensure at least 1 page
         // Adjust current page if it becomes invalid due to reduced total pages
@@ -71,6 +174,6 @@ public class EditSession {
     @Override public int hashCode() { return playerId.hashCode(); }
     @Override public String toString() {
         return "EditSession{playerId=" + playerId + ", slot=" + originalSlot + ", state=" + currentState
-                + ", page=" + enchantmentPage + "/" + totalEnchantmentPages + '}';
+                + ", page=" + enchantmentPage + "/" + totalEnchantmentPages + ", view=" + guiView + ", staged=" + stagedMode + (hasStagedChanges ? "*" : "") + (isBatch() ? ", batch=" + Arrays.toString(batchSlots) : "") + '}';
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.takeda.sessions;
 
 import com.takeda.TEditPlugin;
+import com.takeda.metrics.TraceBuffer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
@@ -31,6 +32,7 @@ public class EditSessionManager {
         closeSession(playerId, "Starting new session"); // Close previous if exists
 
         EditSession session = new EditSession(player, originalItem, originalSlot, guiInventory);
+        session.setTrace(plugin.getTracer().getBuffer(playerId));
         activeSessions.put(playerId, session);
         if (plugin.getSettingsManager().isDebugEnabled()) {
             plugin.getLogger().info("[Debug] Created T-Edit session for " + player.getName());
@@ -49,11 +51,19 @@ public class EditSessionManager {
         return activeSessions.containsKey(playerId);
     }
 
+    /** Number of players with an open session. */
+    public int getActiveSessionCount() {
+        return activeSessions.size();
+    }
+
     /**
      * Removes session data. Internal use mainly; use closeSession for proper cleanup.
      */
     public void removeSession(@NotNull UUID playerId) {
         EditSession removed = activeSessions.remove(playerId);
+        if (removed != null && removed.getTrace() != null) {
+            removed.getTrace().record(TraceBuffer.Type.SESSION_CLOSE, -1, null, 0, -1, TraceBuffer.Outcome.OK);
+        }
         if (removed != null && plugin.getSettingsManager().isDebugEnabled()) {
             plugin.getLogger().info("[Debug] Removed T-Edit session data for UUID: " + playerId + ". Session Details: " + removed);
         }
@@ -63,6 +73,9 @@ public class EditSessionManager {
     public void closeSession(@NotNull UUID playerId, @NotNull String reason) {
         EditSession session = activeSessions.remove(playerId); // Remove data first
         if (session != null) {
+            if (session.getTrace() != null) {
+                session.getTrace().record(TraceBuffer.Type.SESSION_CLOSE, -1, null, 0, -1, TraceBuffer.Outcome.OK);
+            }
             if (plugin.getSettingsManager().isDebugEnabled()) {
                 plugin.getLogger().info("[Debug] Closing T-Edit session for UUID: " + playerId + ". Reason: " + reason + ". Session Details: " + session);
             }
@@ -0,0 +1,128 @@
+package com.takeda.util;
+
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.ItemEnchantments;
+import io.papermc.paper.datacomponent.item.ItemLore;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ItemDataBackend} using Paper's item data component API. Every read and write touches only the
+ * affected component (enchantments, stored enchantments, custom name, lore, damage) instead of copying
+ * and re-serializing the whole ItemMeta. Writes are applied immediately, so {@link Handle#commit()} is a no-op.
+ * <p>
+ * Only instantiated by {@link ItemDataBackend#select} when the component API is present at runtime.
+ */
+@SuppressWarnings("UnstableApiUsage") // Data component API is marked experimental by Paper
+public final class ComponentItemDataBackend implements ItemDataBackend {
+
+    @NotNull @Override public String getName() { return "components"; }
+
+    @NotNull
+    @Override
+    public Handle open(@NotNull ItemStack itemStack) {
+        return new ComponentHandle(itemStack);
+    }
+
+    private static final class ComponentHandle implements Handle {
+        private final ItemStack itemStack;
+
+        private ComponentHandle(@NotNull ItemStack itemStack) {
+            this.itemStack = itemStack;
+        }
+
+        @Override
+        public boolean isEnchantmentStorage() {
+            return itemStack.getType() == Material.ENCHANTED_BOOK || itemStack.hasData(DataComponentTypes.STORED_ENCHANTMENTS);
+        }
+
+        @NotNull
+        private ItemEnchantments enchantmentsComponent() {
+            ItemEnchantments enchantments = itemStack.getData(isEnchantmentStorage() ? DataComponentTypes.STORED_ENCHANTMENTS : DataComponentTypes.ENCHANTMENTS);
+            return enchantments != null ? enchantments : ItemEnchantments.itemEnchantments(Collections.emptyMap(), true);
+        }
+
+        @NotNull
+        @Override
+        public Map<Enchantment, Integer> getEnchantments() {
+            return enchantmentsComponent().enchantments();
+        }
+
+        @Override
+        public int getEnchantmentLevel(@NotNull Enchantment enchantment) {
+            Integer level = getEnchantments().get(enchantment);
+            return level != null ? level : 0;
+        }
+
+        @Override
+        public void setEnchantments(@NotNull Map<Enchantment, Integer> enchantments) {
+            boolean showInTooltip = enchantmentsComponent().showInTooltip(); // Keep the item's tooltip setting
+            itemStack.setData(isEnchantmentStorage() ? DataComponentTypes.STORED_ENCHANTMENTS : DataComponentTypes.ENCHANTMENTS,
+                    ItemEnchantments.itemEnchantments(enchantments, showInTooltip));
+        }
+
+        @Nullable
+        @Override
+        public Component getCustomName() {
+            return itemStack.getData(DataComponentTypes.CUSTOM_NAME);
+        }
+
+        @Override
+        public void setCustomName(@Nullable Component name) {
+            if (name == null) {
+                itemStack.resetData(DataComponentTypes.CUSTOM_NAME);
+            } else {
+                itemStack.setData(DataComponentTypes.CUSTOM_NAME, name);
+            }
+        }
+
+        @NotNull
+        @Override
+        public List<Component> getLore() {
+            ItemLore lore = itemStack.getData(DataComponentTypes.LORE);
+            return lore != null ? lore.lines() : Collections.emptyList();
+        }
+
+        @Override
+        public void setLore(@Nullable List<Component> lore) {
+            if (lore == null || lore.isEmpty()) {
+                itemStack.resetData(DataComponentTypes.LORE);
+            } else {
+                itemStack.setData(DataComponentTypes.LORE, ItemLore.lore(lore));
+            }
+        }
+
+        @Override
+        public boolean isDamageable() {
+            return itemStack.hasData(DataComponentTypes.MAX_DAMAGE);
+        }
+
+        @Override
+        public int getDamage() {
+            Integer damage = itemStack.getData(DataComponentTypes.DAMAGE);
+            return damage != null ? damage : 0;
+        }
+
+        @Override
+        public void setDamage(int damage) {
+            if (damage <= 0) {
+                itemStack.resetData(DataComponentTypes.DAMAGE);
+            } else {
+                itemStack.setData(DataComponentTypes.DAMAGE, damage);
+            }
+        }
+
+        @Override
+        public void commit() {
+            // Component writes are applied immediately
+        }
+    }
+}
@@ -14,14 +14,12 @@ import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ArmorMeta;
 import org.bukkit.inventory.meta.Damageable;
-import org.bukkit.inventory.meta.EnchantmentStorageMeta; // Import for Enchanted Books
 import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.logging.Level;
-import java.util.stream.Stream;
 
 /**
  * Utility class for enchantment-related operations like compatibility, naming, permissions, and application.
@@ -44,6 +42,58 @@ public class EnchantmentUtil {
             // Add others if needed
     );
 
+    // Enchantment registry sorted by key, and a sorted key index (full keys plus short minecraft: keys) for prefix lookups.
+    // Built once on first use: the enchantment registry is frozen after server startup.
+    private static volatile List<Enchantment> sortedEnchantments;
+    private static volatile String[] enchantKeyIndex;
+
+    /** All registered enchantments, sorted by key. Cached. */
+    @NotNull
+    public static List<Enchantment> getSortedEnchantments() {
+        List<Enchantment> sorted = sortedEnchantments;
+        if (sorted == null) {
+            sorted = Registry.ENCHANTMENT.stream()
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                    .toList();
+            sortedEnchantments = sorted;
+        }
+        return sorted;
+    }
+
+    /** Whether {@link #getSortedEnchantments()} has built its cache yet. */
+    public static boolean isRegistryCached() {
+        return sortedEnchantments != null;
+    }
+
+    /**
+     * Returns the enchantment keys starting with the given prefix (case-insensitive), in sorted order.
+     * Vanilla enchantments match both "minecraft:sharpness" and "sharpness". Binary search over a cached index.
+     */
+    @NotNull
+    public static List<String> getEnchantmentKeysByPrefix(@NotNull String prefix) {
+        String[] index = enchantKeyIndex;
+        if (index == null) {
+            List<String> keys = new ArrayList<>();
+            for (Enchantment enchantment : getSortedEnchantments()) {
+                NamespacedKey key = enchantment.getKey();
+                keys.add(key.toString());
+                if (key.getNamespace().equals(NamespacedKey.MINECRAFT)) keys.add(key.getKey()); // Short form resolves to minecraft:
+            }
+            index = keys.stream().distinct().sorted().toArray(String[]::new);
+            enchantKeyIndex = index;
+        }
+
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        int start = Arrays.binarySearch(index, lowerPrefix);
+        if (start < 0) start = -start - 1; // Insertion point = first key >= prefix
+        List<String> matches = new ArrayList<>();
+        for (int i = start; i < index.length && index[i].startsWith(lowerPrefix); i++) {
+            matches.add(index[i]);
+        }
+        return matches;
+    }
+
     public static boolean isEnchantableType(@NotNull ItemStack itemStack) {
         Objects.requireNonNull(itemStack, "itemStack cannot be null");
         Material type = itemStack.getType();
@@ -69,24 +119,44 @@ public class EnchantmentUtil {
         }
 
         List<Enchantment> applicable = new ArrayList<>();
-        Stream<Enchantment> enchantmentStream = Registry.ENCHANTMENT.stream();
 
         // For Enchanted Books, filter slightly differently
         boolean isBook = itemStack.getType() == Material.ENCHANTED_BOOK;
 
-        enchantmentStream
-                .filter(Objects::nonNull)
-                // 1. Basic Compatibility Check (Vanilla rules) OR if it's a book (books can hold any enchant)
-                .filter(enchantment -> isBook || enchantment.canEnchantItem(itemStack))
-                // 2. Player Permission & Config Check (Treasure, Curse, Base)
-                .filter(enchantment -> canPlayerApply(player, enchantment, settings))
-                // Sort alphabetically by key for consistent display order
-                .sorted(Comparator.comparing(e -> e.getKey().toString()))
-                .forEach(applicable::add);
+        // Cached list is already sorted alphabetically by key for consistent display order
+        for (Enchantment enchantment : getSortedEnchantments()) {
+            // 1. Basic Compatibility Check (Vanilla rules) OR if it's a book (books can hold any enchant)
+            if (!isBook && !enchantment.canEnchantItem(itemStack)) continue;
+            // 2. Player Permission & Config Check (Treasure, Curse, Base)
+            if (!canPlayerApply(player, enchantment, settings)) continue;
+            applicable.add(enchantment);
+        }
 
         return applicable;
     }
 
+    /** Enchantments applicable to at least one of the items (batch sessions). Sorted by key like the single-item variant. */
+    @NotNull
+    public static List<Enchantment> getApplicableEnchantmentsForGui(@NotNull Collection<ItemStack> itemStacks, @NotNull Player player, @NotNull SettingsManager settings) {
+        List<Enchantment> applicable = new ArrayList<>();
+        for (Enchantment enchantment : getSortedEnchantments()) {
+            if (!canPlayerApply(player, enchantment, settings)) continue;
+            for (ItemStack itemStack : itemStacks) {
+                if (isApplicableTo(enchantment, itemStack)) {
+                    applicable.add(enchantment);
+                    break;
+                }
+            }
+        }
+        return applicable;
+    }
+
+    /** Vanilla applicability: enchanted books can hold any enchantment, other items only what they accept. */
+    public static boolean isApplicableTo(@NotNull Enchantment enchantment, @NotNull ItemStack itemStack) {
+        if (itemStack.getType().isAir()) return false;
+        return itemStack.getType() == Material.ENCHANTED_BOOK || enchantment.canEnchantItem(itemStack);
+    }
+
     @NotNull
     public static Component getFriendlyName(@NotNull Enchantment enchantment) {
         Objects.requireNonNull(enchantment, "enchantment cannot be null");
@@ -100,22 +170,14 @@ public class EnchantmentUtil {
     public static boolean conflictsWithExisting(@NotNull Enchantment newEnchantment, @NotNull ItemStack itemStack) {
         Objects.requireNonNull(newEnchantment, "newEnchantment cannot be null");
         Objects.requireNonNull(itemStack, "itemStack cannot be null");
+        if (itemStack.getType().isAir()) return false;
 
-        Map<Enchantment, Integer> existingEnchants;
-        ItemMeta meta = itemStack.getItemMeta();
-
-        // Get enchantments correctly from item or stored enchantments on book
-        if (meta instanceof EnchantmentStorageMeta bookMeta) {
-            existingEnchants = bookMeta.getStoredEnchants();
-        } else if (meta != null && meta.hasEnchants()) {
-            existingEnchants = meta.getEnchants();
-        } else {
-            return false; // No existing enchants to conflict with
-        }
-
-        // Enchanted books ignore conflicts conceptually, but we check anyway for consistency
-        // if (itemStack.getType() == Material.ENCHANTED_BOOK) { return false; }
+        // Reads only the (stored) enchantments through the active backend
+        return conflictsWithExisting(newEnchantment, TEditPlugin.getInstance().getItemDataBackend().open(itemStack).getEnchantments());
+    }
 
+    /** Checks vanilla conflicts between a new enchantment and enchantments already read from an item. */
+    public static boolean conflictsWithExisting(@NotNull Enchantment newEnchantment, @NotNull Map<Enchantment, Integer> existingEnchants) {
         for (Enchantment existing : existingEnchants.keySet()) {
             if (newEnchantment.equals(existing)) continue; // Cannot conflict with itself
             if (newEnchantment.conflictsWith(existing)) {
@@ -125,6 +187,14 @@ public class EnchantmentUtil {
         return false;
     }
 
+    /** Gets the level of an enchantment on an item (stored level for enchanted books), reading only the enchantment data. */
+    public static int getEnchantmentLevel(@NotNull ItemStack itemStack, @NotNull Enchantment enchantment) {
+        Objects.requireNonNull(itemStack, "itemStack cannot be null");
+        Objects.requireNonNull(enchantment, "enchantment cannot be null");
+        if (itemStack.getType().isAir()) return 0;
+        return TEditPlugin.getInstance().getItemDataBackend().open(itemStack).getEnchantmentLevel(enchantment);
+    }
+
 
     public static boolean canPlayerApply(@NotNull Player player, @NotNull Enchantment enchantment, @NotNull SettingsManager settings) {
         // (Keep this method as is, seems correct)
@@ -155,17 +225,62 @@ public class EnchantmentUtil {
         Objects.requireNonNull(settings, "settings cannot be null");
 
         boolean canBypassLevel = settings.isAllowBypassLevelCaps() && player.hasPermission("tedit.enchant.bypasslevel");
+        return getMaxLevel(enchantment, canBypassLevel);
+    }
+
+    /** Level cap once the bypass decision is made. Shared by edits and the policy scanners. */
+    public static int getMaxLevel(@NotNull Enchantment enchantment, boolean canBypassLevel) {
+        return canBypassLevel ? 255 : enchantment.getMaxLevel(); // 255 = practical high limit
+    }
+
+    /**
+     * Checks existing enchantments against the current config with the rules {@link ItemEditTransaction#setEnchantment}
+     * applies to new ones: levels above the cap, and conflicting pairs on anything but enchanted books, are out of policy.
+     * Items do not record who enchanted them, so a bypass counts as allowed whenever config enables it.
+     *
+     * @param violations if not null, receives a short description of each violation.
+     * @return the compliant enchantments (levels clamped, the later enchantment of a conflicting pair dropped),
+     *         or null if the enchantments already comply.
+     */
+    @Nullable
+    public static Map<Enchantment, Integer> enforcePolicy(@NotNull Map<Enchantment, Integer> enchantments, boolean isEnchantmentStorage,
+                                                         @NotNull SettingsManager settings, @Nullable List<String> violations) {
+        if (enchantments.isEmpty()) return null;
+        boolean canBypassLevel = settings.isAllowBypassLevelCaps();
+        boolean checkConflicts = !isEnchantmentStorage && !settings.isAllowBypassConflicts();
+
+        Map<Enchantment, Integer> compliant = null; // Copied on the first violation only
+        for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+            Enchantment enchantment = entry.getKey();
+            int level = entry.getValue();
+
+            if (checkConflicts) {
+                Enchantment conflict = null;
+                for (Enchantment kept : (compliant != null ? compliant : enchantments).keySet()) {
+                    if (kept.equals(enchantment)) break; // Only enchantments before this one are kept so far
+                    if (enchantment.conflictsWith(kept)) { conflict = kept; break; }
+                }
+                if (conflict != null) {
+                    if (compliant == null) compliant = new LinkedHashMap<>(enchantments);
+                    compliant.remove(enchantment);
+                    if (violations != null) violations.add(enchantment.getKey().getKey() + " conflicts with " + conflict.getKey().getKey());
+                    continue;
+                }
+            }
 
-        if (canBypassLevel) {
-            return 255; // Practical high limit
-        } else {
-            return enchantment.getMaxLevel();
+            int maxLevel = getMaxLevel(enchantment, canBypassLevel);
+            if (level > maxLevel) {
+                if (compliant == null) compliant = new LinkedHashMap<>(enchantments);
+                compliant.put(enchantment, maxLevel);
+                if (violations != null) violations.add(enchantment.getKey().getKey() + " " + level + " > " + maxLevel);
+            }
         }
+        return compliant;
     }
 
     /**
      * Applies an enchantment to an item, respecting level caps and conflict rules based on player permissions and config.
-     * This version performs all checks manually and then uses addUnsafeEnchantment/storeEnchantment.
+     * Single-operation shortcut for {@link ItemEditTransaction#setEnchantment}; use a transaction directly to batch edits.
      *
      * @param itemStack The item to enchant (will be modified directly).
      * @param enchantment The enchantment to apply.
@@ -175,117 +290,24 @@ public class EnchantmentUtil {
      * @return true if the enchantment was successfully applied or removed, false otherwise.
      */
     public static boolean applyEnchantment(@NotNull ItemStack itemStack, @NotNull Enchantment enchantment, int level, @NotNull Player player, @NotNull SettingsManager settings) {
-        Objects.requireNonNull(itemStack, "itemStack cannot be null");
         Objects.requireNonNull(enchantment, "enchantment cannot be null");
-        Objects.requireNonNull(player, "player cannot be null");
-        Objects.requireNonNull(settings, "settings cannot be null");
-
-        ItemMeta meta = itemStack.getItemMeta();
-        if (meta == null) {
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemStack, player, settings);
+        if (transaction == null) {
             TEditPlugin.getInstance().getLogger().warning("Cannot apply enchant to item with null meta: " + itemStack.getType());
             return false; // Cannot enchant item without meta
         }
-
-        boolean isBook = meta instanceof EnchantmentStorageMeta;
-
-        // --- Removal ---
-        if (level <= 0) {
-            boolean removed;
-            if (isBook) {
-                EnchantmentStorageMeta bookMeta = (EnchantmentStorageMeta) meta;
-                removed = bookMeta.removeStoredEnchant(enchantment);
-            } else {
-                removed = meta.removeEnchant(enchantment);
-            }
-            if (removed) {
-                itemStack.setItemMeta(meta);
-            }
-            return removed; // Return true if removal happened or wasn't needed
-        }
-
-        // --- Permissions Check ---
-        if (!canPlayerApply(player, enchantment, settings)) {
-            // Log? Or rely on caller feedback? Let's log if debug enabled.
-             if (settings.isDebugEnabled()) TEditPlugin.getInstance().getLogger().info("[Debug] Denied enchant " + enchantment.getKey() + " for " + player.getName() + " due to permissions/config.");
-            return false;
-        }
-
-        // --- Conflict Check ---
-        boolean canBypassConflict = settings.isAllowBypassConflicts() && player.hasPermission("tedit.enchant.bypassconflict");
-        if (!isBook && !canBypassConflict && conflictsWithExisting(enchantment, itemStack)) {
-            // Log? Caller handles feedback.
-             if (settings.isDebugEnabled()) TEditPlugin.getInstance().getLogger().info("[Debug] Denied enchant " + enchantment.getKey() + " for " + player.getName() + " due to conflict.");
-            return false; // Conflict exists and player cannot bypass (ignore conflicts for books)
-        }
-
-        // --- Level Clamping ---
-        int maxLevel = getMaxLevel(enchantment, player, settings);
-        int finalLevel = Math.min(level, maxLevel); // Clamp to max level allowed
-        finalLevel = Math.max(1, finalLevel); // Ensure level is at least 1
-
-        // --- Apply using appropriate method ---
-        try {
-            boolean applied;
-            if (isBook) {
-                EnchantmentStorageMeta bookMeta = (EnchantmentStorageMeta) meta;
-                // storeEnchantment: levelRestriction = false (allows bypass), conflict = false (implicitly ignored by books)
-                applied = bookMeta.addStoredEnchant(enchantment, finalLevel, true); // Use ignoreLevelRestriction=true
-
-            } else {
-                // Use addUnsafeEnchantment: bypasses Bukkit's level AND conflict checks.
-                // We've already done our own checks, so this is safe.
-                 applied = meta.addEnchant(enchantment, finalLevel, true); // Use ignoreLevelRestriction=true
-                // Note: addEnchant with ignoreLevelRestriction=true effectively acts like addUnsafeEnchantment
-                // regarding levels, but might still respect conflicts internally in some versions?
-                // Using addEnchant(..., true) seems safer than addUnsafeEnchantment if available.
-                // If issues persist, revert to itemStack.addUnsafeEnchantment(enchantment, finalLevel);
-            }
-
-            if (applied) {
-                itemStack.setItemMeta(meta); // IMPORTANT: Apply the modified meta back to the ItemStack
-                return true;
-            } else {
-                 // This might happen if addStoredEnchant/addEnchant returns false for some internal reason
-                 TEditPlugin.getInstance().getLogger().warning("Failed applying enchant " + enchantment.getKey() + " L" + finalLevel + " to " + itemStack.getType() + " - apply method returned false.");
-                 return false;
-            }
-
-        } catch (IllegalArgumentException e) { // Catch potential errors like invalid level if ignoreLevelRestriction wasn't fully respected
-            TEditPlugin.getInstance().getLogger().log(Level.WARNING, "IllegalArgumentException applying enchant " + enchantment.getKey() + " L" + finalLevel + " to " + itemStack.getType(), e);
-            return false;
-        } catch (Exception e) { // Catch unexpected errors
-             TEditPlugin.getInstance().getLogger().log(Level.SEVERE, "Unexpected error applying enchant " + enchantment.getKey() + " L" + finalLevel + " to " + itemStack.getType(), e);
+        if (transaction.setEnchantment(enchantment, level) != ItemEditTransaction.Result.CHANGED) {
             return false;
         }
+        return transaction.commit();
     }
 
 
+    /** Removes every enchantment (stored enchantments for books). Single-operation shortcut for {@link ItemEditTransaction}. */
     public static boolean removeAllEnchantments(@NotNull ItemStack itemStack) {
-        Objects.requireNonNull(itemStack, "itemStack cannot be null");
-        ItemMeta meta = itemStack.getItemMeta();
-        if (meta == null) return false;
-
-        boolean changed = false;
-        List<Enchantment> keysToRemove;
-
-        if (meta instanceof EnchantmentStorageMeta bookMeta) {
-            keysToRemove = new ArrayList<>(bookMeta.getStoredEnchants().keySet());
-            if (!keysToRemove.isEmpty()) {
-                keysToRemove.forEach(bookMeta::removeStoredEnchant);
-                changed = true;
-            }
-        } else {
-            keysToRemove = new ArrayList<>(meta.getEnchants().keySet());
-             if (!keysToRemove.isEmpty()) {
-                keysToRemove.forEach(meta::removeEnchant);
-                changed = true;
-            }
-        }
-
-        if (changed) {
-            itemStack.setItemMeta(meta);
-        }
-        return changed;
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemStack);
+        if (transaction == null) return false;
+        return transaction.removeAllEnchantments() == ItemEditTransaction.Result.CHANGED && transaction.commit();
     }
 
     @Nullable
@@ -0,0 +1,81 @@
+package com.takeda.util;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Reads and writes the item properties T-Edit edits (enchantments, stored enchantments, custom name, lore, damage).
+ * Two implementations exist: {@link ComponentItemDataBackend} touches only the affected data component,
+ * {@link MetaItemDataBackend} goes through a single ItemMeta copy. One is selected at startup via {@link #select}.
+ */
+public interface ItemDataBackend {
+
+    /** Short name for logs (e.g. "components", "meta"). */
+    @NotNull String getName();
+
+    /** Opens a handle for reading and writing one item. Writes are applied to the item no later than {@link Handle#commit()}. */
+    @NotNull Handle open(@NotNull ItemStack itemStack);
+
+    /** Per-item accessor. Handles are short-lived and must not outlive the edit they were opened for. */
+    interface Handle {
+        /** True if enchantments are stored (enchanted books) rather than applied. */
+        boolean isEnchantmentStorage();
+
+        /** Current enchantments (stored enchantments for books). The returned map must not be modified. */
+        @NotNull Map<Enchantment, Integer> getEnchantments();
+        int getEnchantmentLevel(@NotNull Enchantment enchantment);
+        /** Replaces all (stored) enchantments. Levels are written as given, without caps or conflict checks. */
+        void setEnchantments(@NotNull Map<Enchantment, Integer> enchantments);
+
+        @Nullable Component getCustomName();
+        void setCustomName(@Nullable Component name);
+
+        /** Current lore lines, empty if none. The returned list must not be modified. */
+        @NotNull List<Component> getLore();
+        /** Replaces the lore; null or empty removes it. */
+        void setLore(@Nullable List<Component> lore);
+
+        boolean isDamageable();
+        int getDamage();
+        void setDamage(int damage);
+
+        /** Flushes pending writes to the item. */
+        void commit();
+    }
+
+    /**
+     * Selects the backend for this server. "auto" prefers data components when Paper's component API is present.
+     * @param mode "auto", "components" or "meta" (from config).
+     */
+    @NotNull
+    static ItemDataBackend select(@NotNull String mode, @NotNull Logger logger) {
+        boolean componentsAvailable;
+        try {
+            Class.forName("io.papermc.paper.datacomponent.DataComponentTypes");
+            componentsAvailable = true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            componentsAvailable = false;
+        }
+
+        switch (mode.toLowerCase()) {
+            case "meta":
+                return new MetaItemDataBackend();
+            case "components":
+                if (componentsAvailable) return new ComponentItemDataBackend();
+                logger.warning("Item data backend 'components' requested but Paper's data component API is not available. Falling back to 'meta'.");
+                return new MetaItemDataBackend();
+            default:
+                if (!mode.equalsIgnoreCase("auto")) {
+                    logger.warning("Unknown item data backend '" + mode + "' in config.yml. Using 'auto'.");
+                }
+                return componentsAvailable ? new ComponentItemDataBackend() : new MetaItemDataBackend();
+        }
+    }
+}
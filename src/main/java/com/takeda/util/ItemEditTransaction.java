@@ -0,0 +1,404 @@
+package com.takeda.util;
+
+import com.takeda.TEditPlugin;
+import com.takeda.config.SettingsManager;
+import net.kyori.adventure.text.Component;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+
+/**
+ * Batches edits to a single ItemStack into one write: properties are read once through the active
+ * {@link ItemDataBackend} on first use, every operation works on that in-flight state, and {@link #commit()}
+ * writes back only the properties that changed (one ItemMeta write, or one write per touched data component).
+ * <p>
+ * When opened with a player, operations validate that player's permissions and enchantment conflicts
+ * against the in-flight state, so several enchantments set in one transaction are checked against each other.
+ */
+public final class ItemEditTransaction {
+
+    /** Outcome of a single operation. */
+    public enum Result { CHANGED, UNCHANGED, NO_PERMISSION, CONFLICT, FAILED }
+
+    /**
+     * What a commit wrote, for the audit log. Before/after pairs are null for properties the commit did not touch.
+     * The maps and lists are never modified afterwards.
+     */
+    public record Changes(@Nullable Map<Enchantment, Integer> enchantmentsBefore, @Nullable Map<Enchantment, Integer> enchantmentsAfter,
+                          boolean nameChanged, @Nullable Component nameBefore, @Nullable Component nameAfter,
+                          @Nullable List<Component> loreBefore, @Nullable List<Component> loreAfter, boolean repaired) {
+
+        /** Changes that turn {@code before} into {@code after}, read through the active backend (staged commits). */
+        @NotNull
+        public static Changes between(@NotNull ItemStack before, @NotNull ItemStack after) {
+            ItemDataBackend backend = TEditPlugin.getInstance().getItemDataBackend();
+            ItemDataBackend.Handle from = backend.open(before), to = backend.open(after);
+            Map<Enchantment, Integer> enchantsBefore = from.getEnchantments(), enchantsAfter = to.getEnchantments();
+            Component nameBefore = from.getCustomName(), nameAfter = to.getCustomName();
+            List<Component> loreBefore = from.getLore(), loreAfter = to.getLore();
+            boolean enchantsChanged = !enchantsBefore.equals(enchantsAfter);
+            boolean nameChanged = !Objects.equals(nameBefore, nameAfter);
+            boolean loreChanged = !loreBefore.equals(loreAfter);
+            boolean repaired = from.isDamageable() && from.getDamage() > 0 && to.getDamage() == 0;
+            return new Changes(enchantsChanged ? enchantsBefore : null, enchantsChanged ? enchantsAfter : null,
+                    nameChanged, nameBefore, nameAfter, loreChanged ? loreBefore : null, loreChanged ? loreAfter : null, repaired);
+        }
+
+        /** A new item with everything on it (duplicates): every enchantment, the name and the lore count as added. */
+        @NotNull
+        public static Changes created(@NotNull ItemStack item) {
+            ItemDataBackend.Handle handle = TEditPlugin.getInstance().getItemDataBackend().open(item);
+            Component name = handle.getCustomName();
+            List<Component> lore = handle.getLore();
+            return new Changes(Map.of(), handle.getEnchantments(), name != null, null, name,
+                    lore.isEmpty() ? null : List.of(), lore.isEmpty() ? null : lore, false);
+        }
+    }
+
+    private final ItemStack itemStack;
+    private final ItemDataBackend.Handle handle;
+    @Nullable private final Player player;     // null = internal/unrestricted edit, no permission checks
+    @Nullable private final SettingsManager settings;
+
+    // In-flight state, loaded lazily from the handle
+    private Map<Enchantment, Integer> enchantments, originalEnchantments;
+    private boolean nameLoaded;
+    private Component name, originalName;
+    private List<Component> lore, originalLore;
+    private int damage = -1;
+    private boolean enchantsDirty, nameDirty, loreDirty, damageDirty;
+    @Nullable private Changes committedChanges;
+
+    private ItemEditTransaction(@NotNull ItemStack itemStack, @Nullable Player player, @Nullable SettingsManager settings) {
+        this.itemStack = itemStack;
+        this.handle = TEditPlugin.getInstance().getItemDataBackend().open(itemStack);
+        this.player = player;
+        this.settings = settings;
+    }
+
+    /**
+     * Opens a transaction that validates permissions, level caps and conflicts for the given player.
+     * @return the transaction, or null if the item cannot carry data (AIR).
+     */
+    @Nullable
+    public static ItemEditTransaction open(@NotNull ItemStack itemStack, @NotNull Player player, @NotNull SettingsManager settings) {
+        Objects.requireNonNull(itemStack, "itemStack cannot be null");
+        Objects.requireNonNull(player, "player cannot be null");
+        Objects.requireNonNull(settings, "settings cannot be null");
+        return itemStack.getType().isAir() ? null : new ItemEditTransaction(itemStack, player, settings);
+    }
+
+    /**
+     * Opens an unrestricted transaction (no permission, cap or conflict checks).
+     * @return the transaction, or null if the item cannot carry data (AIR).
+     */
+    @Nullable
+    public static ItemEditTransaction open(@NotNull ItemStack itemStack) {
+        Objects.requireNonNull(itemStack, "itemStack cannot be null");
+        return itemStack.getType().isAir() ? null : new ItemEditTransaction(itemStack, null, null);
+    }
+
+    // --- State ---
+
+    @NotNull public ItemStack getItemStack() { return itemStack; }
+    public boolean isDirty() { return enchantsDirty || nameDirty || loreDirty || damageDirty; }
+    public boolean isEnchantmentStorage() { return handle.isEnchantmentStorage(); }
+    /** What the last successful {@link #commit()} wrote, or null if nothing was committed yet. */
+    @Nullable public Changes getCommittedChanges() { return committedChanges; }
+
+    private boolean lacksPermission(@NotNull String permission) {
+        return player != null && !player.hasPermission(permission);
+    }
+
+    // --- Name ---
+
+    @Nullable
+    public Component getName() {
+        if (!nameLoaded) {
+            name = originalName = handle.getCustomName();
+            nameLoaded = true;
+        }
+        return name;
+    }
+
+    /** Sets the custom name. Null clears it. */
+    @NotNull
+    public Result setName(@Nullable Component name) {
+        if (lacksPermission("tedit.rename")) return Result.NO_PERMISSION;
+        if (Objects.equals(getName(), name)) return Result.UNCHANGED;
+        this.name = name;
+        nameDirty = true;
+        return Result.CHANGED;
+    }
+
+    // --- Lore ---
+
+    @NotNull
+    private List<Component> lore() {
+        if (lore == null) {
+            originalLore = handle.getLore();
+            lore = new ArrayList<>(originalLore);
+        }
+        return lore;
+    }
+
+    /** Returns a mutable copy of the in-flight lore. */
+    @NotNull
+    public List<Component> getLore() {
+        return new ArrayList<>(lore());
+    }
+
+    @NotNull
+    public Result addLoreLine(@NotNull Component line) {
+        Objects.requireNonNull(line, "line cannot be null");
+        if (lacksPermission("tedit.lore.edit")) return Result.NO_PERMISSION;
+        lore().add(line);
+        loreDirty = true;
+        return Result.CHANGED;
+    }
+
+    /** Replaces a single lore line. Returns FAILED if the index is out of range. */
+    @NotNull
+    public Result setLoreLine(int index, @NotNull Component line) {
+        Objects.requireNonNull(line, "line cannot be null");
+        if (lacksPermission("tedit.lore.edit")) return Result.NO_PERMISSION;
+        if (index < 0 || index >= lore().size()) return Result.FAILED;
+        if (lore.get(index).equals(line)) return Result.UNCHANGED;
+        lore.set(index, line);
+        loreDirty = true;
+        return Result.CHANGED;
+    }
+
+    /** Inserts a lore line before the given index (an index equal to the line count appends). */
+    @NotNull
+    public Result insertLoreLine(int index, @NotNull Component line) {
+        Objects.requireNonNull(line, "line cannot be null");
+        if (lacksPermission("tedit.lore.edit")) return Result.NO_PERMISSION;
+        if (index < 0 || index > lore().size()) return Result.FAILED;
+        lore.add(index, line);
+        loreDirty = true;
+        return Result.CHANGED;
+    }
+
+    @NotNull
+    public Result removeLoreLine(int index) {
+        if (lacksPermission("tedit.lore.edit")) return Result.NO_PERMISSION;
+        if (index < 0 || index >= lore().size()) return Result.FAILED;
+        lore.remove(index);
+        loreDirty = true;
+        return Result.CHANGED;
+    }
+
+    /** Moves a lore line to a new index, shifting the lines in between. */
+    @NotNull
+    public Result moveLoreLine(int fromIndex, int toIndex) {
+        if (lacksPermission("tedit.lore.edit")) return Result.NO_PERMISSION;
+        int size = lore().size();
+        if (fromIndex < 0 || fromIndex >= size || toIndex < 0 || toIndex >= size) return Result.FAILED;
+        if (fromIndex == toIndex) return Result.UNCHANGED;
+        lore.add(toIndex, lore.remove(fromIndex));
+        loreDirty = true;
+        return Result.CHANGED;
+    }
+
+    /** Replaces the lore. Null or empty clears it. */
+    @NotNull
+    public Result setLore(@Nullable List<Component> newLore) {
+        if (lacksPermission("tedit.lore.edit")) return Result.NO_PERMISSION;
+        List<Component> replacement = newLore == null ? new ArrayList<>() : new ArrayList<>(newLore);
+        if (lore().equals(replacement)) return Result.UNCHANGED;
+        lore = replacement;
+        loreDirty = true;
+        return Result.CHANGED;
+    }
+
+    @NotNull
+    public Result clearLore() {
+        if (lacksPermission("tedit.lore.clear")) return Result.NO_PERMISSION;
+        if (lore().isEmpty()) return Result.UNCHANGED;
+        lore.clear();
+        loreDirty = true;
+        return Result.CHANGED;
+    }
+
+    // --- Durability ---
+
+    @NotNull
+    public Result repair() {
+        if (lacksPermission("tedit.repair")) return Result.NO_PERMISSION;
+        if (!handle.isDamageable()) return Result.UNCHANGED;
+        if (damage < 0) damage = handle.getDamage();
+        if (damage == 0) return Result.UNCHANGED;
+        damage = 0;
+        damageDirty = true;
+        return Result.CHANGED;
+    }
+
+    // --- Enchantments ---
+
+    @NotNull
+    private Map<Enchantment, Integer> enchantments() {
+        if (enchantments == null) {
+            originalEnchantments = handle.getEnchantments();
+            enchantments = new LinkedHashMap<>(originalEnchantments);
+        }
+        return enchantments;
+    }
+
+    /** Returns the in-flight enchantments (stored enchantments for enchanted books). */
+    @NotNull
+    public Map<Enchantment, Integer> getEnchantments() {
+        return Collections.unmodifiableMap(enchantments());
+    }
+
+    public int getEnchantmentLevel(@NotNull Enchantment enchantment) {
+        if (enchantments == null) return handle.getEnchantmentLevel(enchantment); // Single read, no copy needed yet
+        return enchantments.getOrDefault(enchantment, 0);
+    }
+
+    /** Returns the first in-flight enchantment that conflicts with the given one, or null if none. */
+    @Nullable
+    public Enchantment findConflict(@NotNull Enchantment enchantment) {
+        for (Enchantment existing : enchantments().keySet()) {
+            if (enchantment.equals(existing)) continue; // Cannot conflict with itself
+            if (enchantment.conflictsWith(existing)) {
+                return existing;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets an enchantment level, respecting the player's permissions, level cap and conflict rules.
+     * Levels above the cap are clamped; a level of 0 or less removes the enchantment.
+     */
+    @NotNull
+    public Result setEnchantment(@NotNull Enchantment enchantment, int level) {
+        Objects.requireNonNull(enchantment, "enchantment cannot be null");
+        boolean isBook = handle.isEnchantmentStorage();
+
+        // --- Removal ---
+        if (level <= 0) {
+            if (lacksPermission("tedit.enchant.base")) return Result.NO_PERMISSION;
+            if (enchantments().remove(enchantment) == null) return Result.UNCHANGED;
+            enchantsDirty = true;
+            return Result.CHANGED;
+        }
+
+        int finalLevel = level;
+        if (player != null && settings != null) {
+            // --- Permissions Check ---
+            if (!EnchantmentUtil.canPlayerApply(player, enchantment, settings)) {
+                if (settings.isDebugEnabled()) TEditPlugin.getInstance().getLogger().info("[Debug] Denied enchant " + enchantment.getKey() + " for " + player.getName() + " due to permissions/config.");
+                return Result.NO_PERMISSION;
+            }
+
+            // --- Conflict Check (against in-flight state, ignored for books) ---
+            boolean canBypassConflict = settings.isAllowBypassConflicts() && player.hasPermission("tedit.enchant.bypassconflict");
+            if (!isBook && !canBypassConflict && findConflict(enchantment) != null) {
+                if (settings.isDebugEnabled()) TEditPlugin.getInstance().getLogger().info("[Debug] Denied enchant " + enchantment.getKey() + " for " + player.getName() + " due to conflict.");
+                return Result.CONFLICT;
+            }
+
+            // --- Level Clamping ---
+            finalLevel = Math.min(level, EnchantmentUtil.getMaxLevel(enchantment, player, settings));
+        }
+        finalLevel = Math.max(1, Math.min(finalLevel, 255)); // Ensure level stays in the valid range
+
+        Integer previous = enchantments().put(enchantment, finalLevel);
+        if (previous != null && previous == finalLevel) return Result.UNCHANGED;
+        enchantsDirty = true;
+        return Result.CHANGED;
+    }
+
+    /**
+     * Replaces all enchantments with the given ones, without per-enchantment permission, cap or conflict checks.
+     * For applying a state that was already validated enchantment by enchantment (staged commits).
+     */
+    @NotNull
+    public Result setEnchantments(@NotNull Map<Enchantment, Integer> newEnchantments) {
+        Objects.requireNonNull(newEnchantments, "newEnchantments cannot be null");
+        if (lacksPermission("tedit.enchant.base")) return Result.NO_PERMISSION;
+        if (enchantments().equals(newEnchantments)) return Result.UNCHANGED;
+        enchantments = new LinkedHashMap<>(newEnchantments);
+        enchantsDirty = true;
+        return Result.CHANGED;
+    }
+
+    @NotNull
+    public Result removeAllEnchantments() {
+        if (lacksPermission("tedit.enchant.base")) return Result.NO_PERMISSION;
+        if (enchantments().isEmpty()) return Result.UNCHANGED;
+        enchantments.clear();
+        enchantsDirty = true;
+        return Result.CHANGED;
+    }
+
+    // --- Size ---
+
+    /**
+     * Estimates how many bytes the pending changes add to the serialized item (negative if it shrinks).
+     * Only changed properties are estimated; nothing is serialized. See {@link ItemSizeBudget}.
+     */
+    public int estimateSizeDelta() {
+        int delta = 0;
+        if (nameDirty) delta += ItemSizeBudget.estimate(name) - ItemSizeBudget.estimate(originalName);
+        if (loreDirty) delta += ItemSizeBudget.estimate(lore) - ItemSizeBudget.estimate(originalLore);
+        if (enchantsDirty) delta += ItemSizeBudget.estimate(enchantments) - ItemSizeBudget.estimate(originalEnchantments);
+        return delta;
+    }
+
+    // --- Commit ---
+
+    /**
+     * Writes the changed properties back to the item, once. Does nothing if no operation changed anything.
+     * All or nothing: if the backend rejects a property, those already written are put back, so the item is left
+     * as it was and the transaction stays dirty.
+     * @return true if the item was written.
+     */
+    public boolean commit() {
+        committedChanges = null;
+        if (!isDirty()) return false;
+        boolean enchantsWritten = false, nameWritten = false, loreWritten = false;
+        try {
+            if (enchantsDirty) { handle.setEnchantments(enchantments); enchantsWritten = true; }
+            if (nameDirty) { handle.setCustomName(name); nameWritten = true; }
+            if (loreDirty) { handle.setLore(lore); loreWritten = true; }
+            if (damageDirty) handle.setDamage(damage); // Last write, nothing after it can fail on the component backend
+            handle.commit();
+        } catch (IllegalArgumentException e) {
+            TEditPlugin.getInstance().getLogger().log(Level.WARNING, "Failed to write edits to " + itemStack.getType(), e);
+            // Component writes reach the item immediately (meta writes only the handle's copy): restore the originals
+            try {
+                if (loreWritten) handle.setLore(originalLore);
+                if (nameWritten) handle.setCustomName(originalName);
+                if (enchantsWritten) handle.setEnchantments(originalEnchantments);
+            } catch (IllegalArgumentException restoreFailure) {
+                TEditPlugin.getInstance().getLogger().log(Level.SEVERE, "Could not restore " + itemStack.getType() + " after a failed write; it may be partly edited", restoreFailure);
+            }
+            return false;
+        }
+        // Written state becomes the new baseline for size estimates; the old baseline objects are not touched again,
+        // so the change record can hold them without copying
+        Map<Enchantment, Integer> enchantsBefore = originalEnchantments;
+        List<Component> loreBefore = originalLore;
+        Component nameBefore = originalName;
+        originalName = name;
+        if (lore != null) originalLore = new ArrayList<>(lore);
+        if (enchantments != null) originalEnchantments = new LinkedHashMap<>(enchantments);
+        committedChanges = new Changes(enchantsDirty ? enchantsBefore : null, enchantsDirty ? originalEnchantments : null,
+                nameDirty, nameBefore, name, loreDirty ? loreBefore : null, loreDirty ? originalLore : null, damageDirty);
+        enchantsDirty = nameDirty = loreDirty = damageDirty = false;
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.takeda.util;
+
+import com.takeda.TEditPlugin;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Estimates how many bytes an item occupies on the wire, so edits can be rejected before an item grows large
+ * enough to bloat inventory/chunk packets.
+ * <p>
+ * {@link #measure} serializes the item once (exact, used when a session opens). Edits are then checked
+ * incrementally with the cheap per-property estimates below, without serializing again.
+ */
+public class ItemSizeBudget {
+
+    private ItemSizeBudget() {} // Static class
+
+    private static final GsonComponentSerializer GSON = GsonComponentSerializer.gson();
+    private static final int STRING_OVERHEAD = 2;       // NBT string length prefix
+    private static final int ENCHANT_ENTRY_OVERHEAD = 7; // Tag type + name prefix + int level
+
+    /** Measures the uncompressed serialized size of an item in bytes. Returns 0 for AIR. */
+    public static int measure(@NotNull ItemStack itemStack) {
+        if (itemStack.getType().isAir()) return 0;
+        byte[] serialized = itemStack.serializeAsBytes(); // Compressed NBT
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(serialized))) {
+            long total = 0;
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) total += read;
+            return (int) Math.min(Integer.MAX_VALUE, total);
+        } catch (IOException e) { // Not gzip (format changed); the raw length is still a usable lower bound
+            if (TEditPlugin.getInstance().getSettingsManager().isDebugEnabled()) {
+                TEditPlugin.getInstance().getLogger().log(Level.INFO, "[Debug] Could not inflate serialized item, using raw size.", e);
+            }
+            return serialized.length;
+        }
+    }
+
+    /** Estimated bytes for a text component stored on an item (name or one lore line). */
+    public static int estimate(@Nullable Component component) {
+        return component == null ? 0 : GSON.serialize(component).length() + STRING_OVERHEAD;
+    }
+
+    public static int estimate(@NotNull List<Component> lore) {
+        int total = 0;
+        for (Component line : lore) total += estimate(line);
+        return total;
+    }
+
+    public static int estimate(@NotNull Map<Enchantment, Integer> enchantments) {
+        int total = 0;
+        for (Enchantment enchantment : enchantments.keySet()) {
+            total += enchantment.getKey().toString().length() + ENCHANT_ENTRY_OVERHEAD;
+        }
+        return total;
+    }
+}
@@ -1,16 +1,15 @@
 package com.takeda.util;
 
+import com.takeda.TEditPlugin;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.Damageable;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Utility class for common ItemStack manipulations and information retrieval.
@@ -42,39 +41,36 @@ public class ItemUtil {
         return Component.translatable(key).decoration(TextDecoration.ITALIC, false);
     }
 
+    /** Gets the lore lines of an item (empty if none), reading only the lore data. */
+    @NotNull
+    public static List<Component> getLore(@NotNull ItemStack itemStack) {
+        if (itemStack.getType().isAir()) return Collections.emptyList();
+        return TEditPlugin.getInstance().getItemDataBackend().open(itemStack).getLore();
+    }
+
+    // The helpers below are single-operation shortcuts for ItemEditTransaction (one meta copy and write each).
+    // Combine several edits in one transaction instead of chaining these.
+
     /** Safely repairs a Damageable item fully. */
     public static boolean repairItem(@NotNull ItemStack itemStack) {
-        Objects.requireNonNull(itemStack, "itemStack cannot be null");
-        ItemMeta meta = itemStack.getItemMeta();
-        if (meta instanceof Damageable damageable && damageable.hasDamage()) {
-            damageable.setDamage(0);
-            itemStack.setItemMeta(meta);
-            return true;
-        }
-        return false;
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemStack);
+        return transaction != null && transaction.repair() == ItemEditTransaction.Result.CHANGED && transaction.commit();
     }
 
     /** Clears all lore from an item. */
     public static boolean clearLore(@NotNull ItemStack itemStack) {
-        Objects.requireNonNull(itemStack, "itemStack cannot be null");
-        ItemMeta meta = itemStack.getItemMeta();
-        if (meta != null && meta.hasLore()) {
-            meta.lore(null); // Setting lore to null clears it
-            itemStack.setItemMeta(meta);
-            return true;
-        }
-        return false;
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemStack);
+        return transaction != null && transaction.clearLore() == ItemEditTransaction.Result.CHANGED && transaction.commit();
     }
 
     /**
      * Renames an item using a Component. Use null component to clear custom name.
      */
     public static void renameItem(@NotNull ItemStack itemStack, @Nullable Component nameComponent) {
-        Objects.requireNonNull(itemStack, "itemStack cannot be null");
-        ItemMeta meta = itemStack.getItemMeta();
-        if (meta != null) {
-            meta.displayName(nameComponent);
-            itemStack.setItemMeta(meta);
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemStack);
+        if (transaction != null) {
+            transaction.setName(nameComponent);
+            transaction.commit();
         }
     }
 
@@ -82,16 +78,10 @@ public class ItemUtil {
      * Adds a Component lore line. Initializes list if needed.
      */
     public static void addLoreLine(@NotNull ItemStack itemStack, @NotNull Component loreLineComponent) {
-        Objects.requireNonNull(itemStack, "itemStack cannot be null");
-        Objects.requireNonNull(loreLineComponent, "loreLineComponent cannot be null");
-        ItemMeta meta = itemStack.getItemMeta();
-        if (meta != null) {
-            List<Component> currentLore = meta.lore();
-            // Ensure we have a mutable list, creating new if currentLore is null or immutable
-            List<Component> newLore = (currentLore == null) ? new ArrayList<>() : new ArrayList<>(currentLore);
-            newLore.add(loreLineComponent);
-            meta.lore(newLore); // Set the modified list back
-            itemStack.setItemMeta(meta);
+        ItemEditTransaction transaction = ItemEditTransaction.open(itemStack);
+        if (transaction != null) {
+            transaction.addLoreLine(loreLineComponent);
+            transaction.commit();
         }
     }
-}
\ No newline at end of file
+}
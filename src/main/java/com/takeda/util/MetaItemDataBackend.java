@@ -0,0 +1,141 @@
+package com.takeda.util;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fallback {@link ItemDataBackend} using the Bukkit ItemMeta API. Each handle copies the meta at most once
+ * (on first access) and writes it back at most once (on commit, if anything was set).
+ */
+public final class MetaItemDataBackend implements ItemDataBackend {
+
+    @NotNull @Override public String getName() { return "meta"; }
+
+    @NotNull
+    @Override
+    public Handle open(@NotNull ItemStack itemStack) {
+        return new MetaHandle(itemStack);
+    }
+
+    private static final class MetaHandle implements Handle {
+        private final ItemStack itemStack;
+        private ItemMeta meta;      // Lazily copied
+        private boolean modified;
+
+        private MetaHandle(@NotNull ItemStack itemStack) {
+            this.itemStack = itemStack;
+        }
+
+        @Nullable
+        private ItemMeta meta() {
+            if (meta == null) meta = itemStack.getItemMeta(); // Null for AIR
+            return meta;
+        }
+
+        @Override
+        public boolean isEnchantmentStorage() {
+            return meta() instanceof EnchantmentStorageMeta;
+        }
+
+        @NotNull
+        @Override
+        public Map<Enchantment, Integer> getEnchantments() {
+            ItemMeta m = meta();
+            if (m instanceof EnchantmentStorageMeta bookMeta) return bookMeta.getStoredEnchants();
+            return m != null && m.hasEnchants() ? m.getEnchants() : Collections.emptyMap();
+        }
+
+        @Override
+        public int getEnchantmentLevel(@NotNull Enchantment enchantment) {
+            ItemMeta m = meta();
+            if (m instanceof EnchantmentStorageMeta bookMeta) return bookMeta.getStoredEnchantLevel(enchantment);
+            return m != null ? m.getEnchantLevel(enchantment) : 0;
+        }
+
+        @Override
+        public void setEnchantments(@NotNull Map<Enchantment, Integer> enchantments) {
+            ItemMeta m = meta();
+            if (m == null) return;
+            if (m instanceof EnchantmentStorageMeta bookMeta) {
+                for (Enchantment existing : new ArrayList<>(bookMeta.getStoredEnchants().keySet())) {
+                    if (!enchantments.containsKey(existing)) bookMeta.removeStoredEnchant(existing);
+                }
+                enchantments.forEach((enchantment, level) -> bookMeta.addStoredEnchant(enchantment, level, true));
+            } else {
+                for (Enchantment existing : new ArrayList<>(m.getEnchants().keySet())) {
+                    if (!enchantments.containsKey(existing)) m.removeEnchant(existing);
+                }
+                enchantments.forEach((enchantment, level) -> m.addEnchant(enchantment, level, true));
+            }
+            modified = true;
+        }
+
+        @Nullable
+        @Override
+        public Component getCustomName() {
+            ItemMeta m = meta();
+            return m != null && m.hasDisplayName() ? m.displayName() : null;
+        }
+
+        @Override
+        public void setCustomName(@Nullable Component name) {
+            ItemMeta m = meta();
+            if (m == null) return;
+            m.displayName(name);
+            modified = true;
+        }
+
+        @NotNull
+        @Override
+        public List<Component> getLore() {
+            ItemMeta m = meta();
+            List<Component> lore = m != null && m.hasLore() ? m.lore() : null;
+            return lore != null ? lore : Collections.emptyList();
+        }
+
+        @Override
+        public void setLore(@Nullable List<Component> lore) {
+            ItemMeta m = meta();
+            if (m == null) return;
+            m.lore(lore == null || lore.isEmpty() ? null : lore); // Setting lore to null clears it
+            modified = true;
+        }
+
+        @Override
+        public boolean isDamageable() {
+            return meta() instanceof Damageable && itemStack.getType().getMaxDurability() > 0;
+        }
+
+        @Override
+        public int getDamage() {
+            return meta() instanceof Damageable damageable ? damageable.getDamage() : 0;
+        }
+
+        @Override
+        public void setDamage(int damage) {
+            if (meta() instanceof Damageable damageable) {
+                damageable.setDamage(damage);
+                modified = true;
+            }
+        }
+
+        @Override
+        public void commit() {
+            if (modified && meta != null) {
+                itemStack.setItemMeta(meta);
+                modified = false;
+            }
+        }
+    }
+}
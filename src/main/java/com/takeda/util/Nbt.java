@@ -0,0 +1,177 @@
+package com.takeda.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Minimal reader/writer for gzip-compressed NBT files (e.g. {@code playerdata/*.dat}), for work that has to happen off
+ * the server thread. Tags map to plain Java values: compounds are {@code Map<String, Object>} (insertion-ordered),
+ * lists are {@link ListTag}, numbers are their boxed types, strings are {@code String} and arrays are
+ * {@code byte[]}/{@code int[]}/{@code long[]}. Reading then writing a file yields an equivalent file.
+ */
+public final class Nbt {
+
+    private Nbt() {} // Static class
+
+    private static final byte TAG_END = 0, TAG_BYTE = 1, TAG_SHORT = 2, TAG_INT = 3, TAG_LONG = 4, TAG_FLOAT = 5, TAG_DOUBLE = 6,
+            TAG_BYTE_ARRAY = 7, TAG_STRING = 8, TAG_LIST = 9, TAG_COMPOUND = 10, TAG_INT_ARRAY = 11, TAG_LONG_ARRAY = 12;
+    private static final int MAX_DEPTH = 512; // Same nesting limit as the game
+
+    /** A list tag. The element type is kept so empty lists round-trip unchanged. */
+    public record ListTag(byte elementType, @NotNull List<Object> values) {}
+
+    /** Reads the root compound of a gzip-compressed NBT file. */
+    @NotNull
+    public static Map<String, Object> readCompressed(@NotNull Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return read(in);
+        }
+    }
+
+    /** Writes a root compound (with an empty root name) as a gzip-compressed NBT file. */
+    public static void writeCompressed(@NotNull Path file, @NotNull Map<String, Object> root) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            write(out, root);
+        }
+    }
+
+    /** Reads an uncompressed root compound. */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> read(@NotNull InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        byte type = in.readByte();
+        if (type != TAG_COMPOUND) throw new IOException("Root tag is not a compound (type " + type + ")");
+        in.readUTF(); // Root name, empty in practice
+        return (Map<String, Object>) readPayload(in, TAG_COMPOUND, 0);
+    }
+
+    /** Writes an uncompressed root compound. */
+    public static void write(@NotNull OutputStream stream, @NotNull Map<String, Object> root) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeByte(TAG_COMPOUND);
+        out.writeUTF("");
+        writePayload(out, root, 0);
+        out.flush();
+    }
+
+    @NotNull
+    private static Object readPayload(@NotNull DataInput in, byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new IOException("NBT nested deeper than " + MAX_DEPTH);
+        switch (type) {
+            case TAG_BYTE: return in.readByte();
+            case TAG_SHORT: return in.readShort();
+            case TAG_INT: return in.readInt();
+            case TAG_LONG: return in.readLong();
+            case TAG_FLOAT: return in.readFloat();
+            case TAG_DOUBLE: return in.readDouble();
+            case TAG_BYTE_ARRAY: {
+                byte[] array = new byte[readLength(in)];
+                in.readFully(array);
+                return array;
+            }
+            case TAG_STRING: return in.readUTF();
+            case TAG_LIST: {
+                byte elementType = in.readByte();
+                int length = readLength(in);
+                List<Object> values = new ArrayList<>(Math.min(length, 1024)); // Don't trust the length for preallocation
+                for (int i = 0; i < length; i++) values.add(readPayload(in, elementType, depth + 1));
+                return new ListTag(elementType, values);
+            }
+            case TAG_COMPOUND: {
+                Map<String, Object> compound = new LinkedHashMap<>();
+                byte childType;
+                while ((childType = in.readByte()) != TAG_END) {
+                    String name = in.readUTF();
+                    compound.put(name, readPayload(in, childType, depth + 1));
+                }
+                return compound;
+            }
+            case TAG_INT_ARRAY: {
+                int[] array = new int[readLength(in)];
+                for (int i = 0; i < array.length; i++) array[i] = in.readInt();
+                return array;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] array = new long[readLength(in)];
+                for (int i = 0; i < array.length; i++) array[i] = in.readLong();
+                return array;
+            }
+            default: throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static int readLength(@NotNull DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Negative NBT length " + length);
+        return length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writePayload(@NotNull DataOutput out, @NotNull Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new IOException("NBT nested deeper than " + MAX_DEPTH);
+        if (value instanceof Byte b) out.writeByte(b);
+        else if (value instanceof Short s) out.writeShort(s);
+        else if (value instanceof Integer i) out.writeInt(i);
+        else if (value instanceof Long l) out.writeLong(l);
+        else if (value instanceof Float f) out.writeFloat(f);
+        else if (value instanceof Double d) out.writeDouble(d);
+        else if (value instanceof byte[] array) {
+            out.writeInt(array.length);
+            out.write(array);
+        } else if (value instanceof String s) out.writeUTF(s);
+        else if (value instanceof ListTag list) {
+            out.writeByte(list.values().isEmpty() ? list.elementType() : typeOf(list.values().get(0)));
+            out.writeInt(list.values().size());
+            for (Object element : list.values()) writePayload(out, element, depth + 1);
+        } else if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) map).entrySet()) {
+                out.writeByte(typeOf(entry.getValue()));
+                out.writeUTF(entry.getKey());
+                writePayload(out, entry.getValue(), depth + 1);
+            }
+            out.writeByte(TAG_END);
+        } else if (value instanceof int[] array) {
+            out.writeInt(array.length);
+            for (int element : array) out.writeInt(element);
+        } else if (value instanceof long[] array) {
+            out.writeInt(array.length);
+            for (long element : array) out.writeLong(element);
+        } else {
+            throw new IOException("Cannot write " + value.getClass().getName() + " as NBT");
+        }
+    }
+
+    private static byte typeOf(@NotNull Object value) throws IOException {
+        if (value instanceof Byte) return TAG_BYTE;
+        if (value instanceof Short) return TAG_SHORT;
+        if (value instanceof Integer) return TAG_INT;
+        if (value instanceof Long) return TAG_LONG;
+        if (value instanceof Float) return TAG_FLOAT;
+        if (value instanceof Double) return TAG_DOUBLE;
+        if (value instanceof byte[]) return TAG_BYTE_ARRAY;
+        if (value instanceof String) return TAG_STRING;
+        if (value instanceof ListTag) return TAG_LIST;
+        if (value instanceof Map) return TAG_COMPOUND;
+        if (value instanceof int[]) return TAG_INT_ARRAY;
+        if (value instanceof long[]) return TAG_LONG_ARRAY;
+        throw new IOException("Cannot write " + value.getClass().getName() + " as NBT");
+    }
+}